@@ -63,6 +63,11 @@ public class Service {
      */
     private static String TITLE = "Cancer Summary";
 
+    /**
+     * Survey steps left out of the cancer summary (we only want relatives).
+     */
+    private static final Set<String> EXCLUDED_STEPS = Set.of("Proband");
+
     /**
      * Repository for optimized family history queries.
      */
@@ -119,10 +124,10 @@ public class Service {
         String property = "";
 
         StringBuffer innerHTML = new StringBuffer();
-        List<FamilyHistoryRecord> facts = cancerHistoryRepository.findFamilyHistoryByRespondentId(req.id);
-        // Filter out proband records (we only want relatives)
-        facts.removeIf(f -> f.step != null && f.step.equals("Proband"));
-        Log.debugf("Retrieved %d relative record(s) for respondent id=%d", facts.size(), req.id);
+        // Only relatives with a reportable diagnosis are rendered; the proband step and
+        // cancer-free relatives are filtered out by the database.
+        List<FamilyHistoryRecord> facts = cancerHistoryRepository.findFamilyHistoryWithCancerByRespondentId(req.id, EXCLUDED_STEPS);
+        Log.debugf("Retrieved %d relative record(s) with cancer for respondent id=%d", facts.size(), req.id);
 
         PDFDocument pdf = new PDFDocument();
         pdf.title = TITLE;
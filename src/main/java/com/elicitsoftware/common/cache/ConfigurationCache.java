@@ -0,0 +1,201 @@
+package com.elicitsoftware.common.cache;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.events.ConfigurationChangeEvent;
+import com.elicitsoftware.model.PostSurveyAction;
+import com.elicitsoftware.model.ReportDefinition;
+import com.elicitsoftware.model.Survey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+
+import java.util.List;
+
+/**
+ * Owns the second-level cache regions of the survey configuration entities.
+ * <p>
+ * {@link Survey}, {@link ReportDefinition} and {@link PostSurveyAction} (plus the survey's
+ * report and action collections) are cached so report generation no longer reads them from
+ * the database on every call. This bean evicts the regions when the database reports a change
+ * to one of the underlying tables, and exposes the hit ratio of each region as the
+ * {@code fhhs.cache.hit.ratio} gauge alongside an {@code fhhs.cache.evictions} counter.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+@ApplicationScoped
+public class ConfigurationCache {
+
+    /**
+     * Region of the survey report collection.
+     */
+    static final String SURVEY_REPORTS_REGION = Survey.class.getName() + ".reports";
+
+    /**
+     * Region of the survey post-survey action collection.
+     */
+    static final String SURVEY_ACTIONS_REGION = Survey.class.getName() + ".postSurveyActions";
+
+    /**
+     * Every region managed by this bean.
+     */
+    static final List<String> REGIONS = List.of(
+            Survey.class.getName(),
+            ReportDefinition.class.getName(),
+            PostSurveyAction.class.getName(),
+            SURVEY_REPORTS_REGION,
+            SURVEY_ACTIONS_REGION);
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public ConfigurationCache() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Hibernate session factory giving access to the cache and its statistics.
+     */
+    @Inject
+    SessionFactory sessionFactory;
+
+    /**
+     * Registry the cache metrics are published to.
+     */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Registers the hit ratio gauges once the application is up.
+     *
+     * @param event the startup event
+     */
+    void onStart(@Observes StartupEvent event) {
+        for (String region : REGIONS) {
+            Gauge.builder("fhhs.cache.hit.ratio", this, cache -> cache.hitRatio(region))
+                    .description("Second-level cache hit ratio of a survey configuration region")
+                    .tag("region", shortName(region))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Evicts the regions backed by a changed table.
+     *
+     * @param event the configuration change published by the change listener
+     */
+    void onConfigurationChange(@Observes ConfigurationChangeEvent event) {
+        if (event.isResync()) {
+            evictAll();
+            return;
+        }
+        switch (event.getTable()) {
+            case "surveys" -> evictSurveys();
+            case "reports" -> evictReportDefinitions();
+            case "post_survey_actions" -> evictPostSurveyActions();
+            default -> Log.debugf("Ignoring configuration change on table %s", event.getTable());
+        }
+    }
+
+    /**
+     * Evicts every survey configuration region.
+     */
+    public void evictAll() {
+        evictSurveys();
+        evictReportDefinitions();
+        evictPostSurveyActions();
+    }
+
+    /**
+     * Evicts cached surveys and, since they embed them, their collections.
+     */
+    public void evictSurveys() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Survey.class);
+        cache.evictCollectionData(SURVEY_REPORTS_REGION);
+        cache.evictCollectionData(SURVEY_ACTIONS_REGION);
+        recordEviction("surveys");
+    }
+
+    /**
+     * Evicts cached report definitions and the survey collections referencing them.
+     */
+    public void evictReportDefinitions() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(ReportDefinition.class);
+        cache.evictCollectionData(SURVEY_REPORTS_REGION);
+        recordEviction("reports");
+    }
+
+    /**
+     * Evicts cached post-survey actions and the survey collections referencing them.
+     */
+    public void evictPostSurveyActions() {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(PostSurveyAction.class);
+        cache.evictCollectionData(SURVEY_ACTIONS_REGION);
+        recordEviction("post_survey_actions");
+    }
+
+    /**
+     * Computes the hit ratio of a region from the Hibernate statistics.
+     *
+     * @param region the region name
+     * @return hits divided by lookups, or {@code NaN} before the first lookup
+     */
+    double hitRatio(String region) {
+        try {
+            CacheRegionStatistics statistics = sessionFactory.getStatistics().getDomainDataRegionStatistics(region);
+            long hits = statistics.getHitCount();
+            long lookups = hits + statistics.getMissCount();
+            return lookups == 0 ? Double.NaN : (double) hits / lookups;
+        } catch (IllegalArgumentException e) {
+            // Region not created yet
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Logs and counts an eviction.
+     *
+     * @param table the table whose regions were evicted
+     */
+    private void recordEviction(String table) {
+        Log.infof("Evicted second-level cache for %s", table);
+        Counter.builder("fhhs.cache.evictions")
+                .description("Second-level cache evictions of survey configuration regions")
+                .tag("table", table)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Strips the package from a region name for use as a metric tag.
+     *
+     * @param region the region name
+     * @return the region name relative to the model package
+     */
+    private static String shortName(String region) {
+        return region.substring(Survey.class.getPackageName().length() + 1);
+    }
+}
@@ -0,0 +1,215 @@
+package com.elicitsoftware.common.concurrency;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit that adapts to the latency and errors of the calls it admits, using
+ * additive increase and multiplicative decrease (AIMD).
+ * <p>
+ * Every completed call is a sample. A call that failed, or took more than {@code tolerance}
+ * times the long-run average latency, signals overload and multiplies the limit by
+ * {@code backoffRatio}, at most once per average latency so that one burst of slow calls
+ * counts once. Any other call adds {@code 1 / limit}, about one more concurrent call per
+ * round of calls, but only while the limit is actually being used, so that a quiet period
+ * does not inflate it. The limit stays between {@code min} and {@code max}.
+ * </p>
+ * <p>
+ * A fixed limit is the same class with adaptation turned off.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+public final class AimdLimit {
+
+    /**
+     * Weight of a new sample in the average latency.
+     */
+    private static final double RTT_SMOOTHING = 0.05;
+
+    /**
+     * Lowest limit.
+     */
+    private final int min;
+
+    /**
+     * Highest limit.
+     */
+    private final int max;
+
+    /**
+     * Whether the limit adapts to the samples.
+     */
+    private final boolean adaptive;
+
+    /**
+     * Latency, as a multiple of the average, above which a call signals overload.
+     */
+    private final double tolerance;
+
+    /**
+     * Factor the limit is multiplied by on overload.
+     */
+    private final double backoffRatio;
+
+    /**
+     * Guards the fields below.
+     */
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    /**
+     * Signalled when a call completes or the limit grows.
+     */
+    private final Condition available = lock.newCondition();
+
+    /**
+     * Current limit; calls are admitted while fewer than its integer part are in flight.
+     */
+    private double limit;
+
+    /**
+     * Calls in flight.
+     */
+    private int inFlight;
+
+    /**
+     * Exponentially weighted average latency of successful calls, 0 before the first one.
+     */
+    private double averageRttNanos;
+
+    /**
+     * {@link System#nanoTime()} of the last decrease.
+     */
+    private long lastDecreaseNanos;
+
+    /**
+     * Creates a limit.
+     *
+     * @param initial the initial limit
+     * @param min the lowest limit
+     * @param max the highest limit
+     * @param adaptive whether the limit adapts; if not, it stays at {@code initial}
+     * @param tolerance latency, as a multiple of the average, above which a call signals overload
+     * @param backoffRatio factor the limit is multiplied by on overload, between 0 and 1
+     */
+    public AimdLimit(int initial, int min, int max, boolean adaptive, double tolerance, double backoffRatio) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.adaptive = adaptive;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.clamp(initial, this.min, this.max);
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits until a call may start and counts it as in flight.
+     *
+     * @param timeout how long to wait
+     * @param unit the unit of the timeout
+     * @return {@code true} if the call may start, {@code false} if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a call admitted by {@link #tryAcquire} and adapts the limit to it.
+     *
+     * @param rttNanos how long the call took
+     * @param failed whether the call failed
+     */
+    public void release(long rttNanos, boolean failed) {
+        lock.lock();
+        try {
+            int used = inFlight;
+            inFlight--;
+            if (adaptive) {
+                adapt(rttNanos, failed, used);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the number of calls that may be in flight
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of calls in flight.
+     *
+     * @return the calls admitted and not yet released
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adapts the limit to a sample. Must hold the lock.
+     *
+     * @param rttNanos how long the call took
+     * @param failed whether the call failed
+     * @param used the calls in flight when it completed, itself included
+     */
+    private void adapt(long rttNanos, boolean failed, int used) {
+        boolean slow = averageRttNanos > 0 && rttNanos > tolerance * averageRttNanos;
+        if (failed || slow) {
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos >= (long) averageRttNanos) {
+                limit = Math.max(min, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else if (used * 2 >= (int) limit) {
+            limit = Math.min(max, limit + 1.0 / limit);
+        }
+        if (!failed) {
+            averageRttNanos = averageRttNanos == 0 ? rttNanos
+                    : averageRttNanos + RTT_SMOOTHING * (rttNanos - averageRttNanos);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.elicitsoftware.common.concurrency;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The point in time by which a piece of work must be finished.
+ * <p>
+ * A report job gets one deadline when it is submitted. The job runs its stages
+ * {@linkplain #call(ScopedValue.CallableOp) within} the deadline, and every blocking call
+ * in them bounds its own timeout by the time that is left with {@link #boundCurrent(Duration)}
+ * instead of waiting its full timeout. Report services are told the time left in the
+ * {@value #HEADER} header, so the pedigree service can do the same. A job whose time ran
+ * out therefore fails within its budget rather than after the sum of the timeouts of its
+ * stages.
+ * </p>
+ * <p>
+ * Code running outside a deadline keeps its own timeouts.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+public final class Deadline {
+
+    /**
+     * Header carrying the milliseconds left to a report service.
+     */
+    public static final String HEADER = "X-Deadline-Remaining-Ms";
+
+    /**
+     * The deadline the current thread runs within.
+     */
+    private static final ScopedValue<Deadline> CURRENT = ScopedValue.newInstance();
+
+    /**
+     * {@link System#nanoTime()} at the deadline.
+     */
+    private final long deadlineNanos;
+
+    /**
+     * Creates a deadline.
+     *
+     * @param deadlineNanos {@link System#nanoTime()} at the deadline
+     */
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a deadline a budget from now.
+     *
+     * @param budget the time the work may take
+     * @return the deadline
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Reads a deadline from the {@value #HEADER} header of a request.
+     *
+     * @param remainingMillis the header value, may be {@code null}
+     * @return the deadline, or empty if the header is missing or not a number
+     */
+    public static Optional<Deadline> fromHeader(String remainingMillis) {
+        if (remainingMillis == null || remainingMillis.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(after(Duration.ofMillis(Long.parseLong(remainingMillis.trim()))));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the deadline the current thread runs within.
+     *
+     * @return the deadline, or empty outside of one
+     */
+    public static Optional<Deadline> current() {
+        return CURRENT.isBound() ? Optional.of(CURRENT.get()) : Optional.empty();
+    }
+
+    /**
+     * Fails if the deadline the current thread runs within has passed.
+     *
+     * @param stage the stage about to start, for the message
+     * @throws ExceededException if the deadline has passed
+     */
+    public static void checkCurrent(String stage) {
+        if (CURRENT.isBound()) {
+            CURRENT.get().check(stage);
+        }
+    }
+
+    /**
+     * Bounds a timeout by the time left to the deadline the current thread runs within.
+     *
+     * @param timeout the timeout of the call
+     * @return the timeout, or the time left if that is shorter
+     * @throws ExceededException if the deadline has passed
+     */
+    public static Duration boundCurrent(Duration timeout) {
+        return CURRENT.isBound() ? CURRENT.get().bound(timeout) : timeout;
+    }
+
+    /**
+     * Runs work within this deadline, so that {@link #current()} returns it.
+     *
+     * @param work the work
+     * @param <T> the result type
+     * @param <X> the exception the work may throw
+     * @return the result of the work
+     * @throws X if the work fails
+     */
+    public <T, X extends Throwable> T call(ScopedValue.CallableOp<? extends T, X> work) throws X {
+        return ScopedValue.where(CURRENT, this).call(work);
+    }
+
+    /**
+     * Gets the time left.
+     *
+     * @return the time left, zero once the deadline has passed
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0L, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Checks whether the deadline has passed.
+     *
+     * @return {@code true} once the deadline has passed
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0L;
+    }
+
+    /**
+     * Fails if the deadline has passed.
+     *
+     * @param stage the stage about to start, for the message
+     * @throws ExceededException if the deadline has passed
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new ExceededException("Deadline exceeded before " + stage);
+        }
+    }
+
+    /**
+     * Bounds a timeout by the time left.
+     *
+     * @param timeout the timeout of the call
+     * @return the timeout, or the time left if that is shorter
+     * @throws ExceededException if the deadline has passed
+     */
+    public Duration bound(Duration timeout) {
+        Duration remaining = remaining();
+        if (remaining.isZero()) {
+            throw new ExceededException("Deadline exceeded");
+        }
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * Gets the value of the {@value #HEADER} header.
+     *
+     * @return the milliseconds left
+     */
+    public String headerValue() {
+        return Long.toString(remaining().toMillis());
+    }
+
+    /**
+     * Thrown when work is refused because its deadline has passed. It is a
+     * {@link RejectedExecutionException}, as thrown when no permit became available in time,
+     * so callers handle both alike.
+     */
+    public static class ExceededException extends RejectedExecutionException {
+
+        /**
+         * Creates the exception.
+         *
+         * @param message the detail message
+         */
+        public ExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.elicitsoftware.common.concurrency;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of concurrent calls to each downstream dependency of the report pipeline.
+ * <p>
+ * Report jobs spend most of their time blocked on I/O. When they run on virtual threads the
+ * number of jobs is no longer a useful bound, so each dependency gets its own limit
+ * instead: jobs wait for a permit of the dependency they are about to call, and throughput
+ * follows what the dependencies can handle. The limits are shared by every caller on the node
+ * and start at {@code family.history.limit.<downstream>}.
+ * </p>
+ * <p>
+ * The report URLs, the pedigree service and the SFTP server have no documented capacity, so
+ * with {@code family.history.limit.adaptive} (the default) their limits adapt to what they
+ * deliver: an {@link AimdLimit} raises a limit slowly while calls succeed at normal latency
+ * and cuts it when calls fail or slow down, between 1 and
+ * {@code family.history.limit.adaptive.max-factor} times the configured value. The SFTP
+ * limit is capped by {@code family.history.sftp.channels} instead, since more uploads than
+ * channels would only wait for a channel; with the defaults it starts at 4 of 8. The database
+ * and object store limits stay fixed.
+ * </p>
+ * <p>
+ * Report URLs of one survey may be served by different services with very different
+ * latencies, and one average would count every call to the slower ones as overload. The
+ * report limit is therefore kept per {@linkplain #acquire(Downstream, String) target URL},
+ * each starting at {@code family.history.limit.report}.
+ * </p>
+ * <p>
+ * The number of permits in use and the current limits are published as the
+ * {@code fhhs.downstream.inflight} and {@code fhhs.downstream.limit} gauges, tagged with the
+ * downstream and the target ({@code default} for downstreams without targets).
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+@ApplicationScoped
+public class DownstreamLimiter {
+
+    /**
+     * The dependencies whose concurrency is limited.
+     */
+    public enum Downstream {
+        /** Database reads of report jobs, each holding a pooled connection for its transaction. */
+        DATABASE,
+        /** HTTP calls to the report URLs of a survey, limited per URL. */
+        REPORT,
+        /** HTTP calls to the external pedigree service. */
+        PEDIGREE,
+        /** SFTP uploads. */
+        SFTP,
+        /** HTTP requests to the S3-compatible object store. */
+        OBJECT_STORE
+    }
+
+    /**
+     * A unit of work run while holding a permit.
+     *
+     * @param <T> the result type
+     * @param <E> the checked exception the work may throw
+     */
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+
+        /**
+         * Performs the work.
+         *
+         * @return the result
+         * @throws E if the work fails
+         */
+        T call() throws E;
+    }
+
+    /**
+     * A permit of a downstream, held for the duration of one call.
+     */
+    public final class Permit {
+
+        /**
+         * The limit the permit was taken from.
+         */
+        private final AimdLimit limit;
+
+        /**
+         * {@link System#nanoTime()} when the permit was taken.
+         */
+        private final long startNanos = System.nanoTime();
+
+        /**
+         * Whether the permit was returned.
+         */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /**
+         * Creates a permit.
+         *
+         * @param limit the limit the permit was taken from
+         */
+        private Permit(AimdLimit limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Returns the permit after a successful call.
+         */
+        public void release() {
+            release(false);
+        }
+
+        /**
+         * Returns the permit, reporting the outcome of the call to an adaptive limit.
+         * Only the first call has an effect.
+         *
+         * @param failed whether the call failed
+         */
+        public void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - startNanos, failed);
+            }
+        }
+    }
+
+    /**
+     * The downstreams whose limit adapts when {@link #adaptive} is set.
+     */
+    private static final Set<Downstream> ADAPTIVE = EnumSet.of(Downstream.REPORT, Downstream.PEDIGREE, Downstream.SFTP);
+
+    /**
+     * The downstreams limited per target rather than as a whole.
+     */
+    private static final Set<Downstream> TARGETED = EnumSet.of(Downstream.REPORT);
+
+    /**
+     * Gauge tag value of the downstreams without targets.
+     */
+    private static final String DEFAULT_TARGET = "default";
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public DownstreamLimiter() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Maximum number of report job database reads at once. Keep it below the size of the
+     * datasource pool, which the report endpoints of this application need as well.
+     */
+    @ConfigProperty(name = "family.history.limit.database", defaultValue = "8")
+    int databaseLimit;
+
+    /**
+     * Maximum number of concurrent calls per report URL.
+     */
+    @ConfigProperty(name = "family.history.limit.report", defaultValue = "8")
+    int reportLimit;
+
+    /**
+     * Maximum number of concurrent pedigree service calls.
+     */
+    @ConfigProperty(name = "family.history.limit.pedigree", defaultValue = "4")
+    int pedigreeLimit;
+
+    /**
+     * Maximum number of concurrent SFTP uploads.
+     */
+    @ConfigProperty(name = "family.history.limit.sftp", defaultValue = "4")
+    int sftpLimit;
+
+    /**
+     * Maximum number of concurrent object store requests.
+     */
+    @ConfigProperty(name = "family.history.limit.object-store", defaultValue = "8")
+    int objectStoreLimit;
+
+    /**
+     * Maximum number of SFTP channels, which also caps the SFTP limit.
+     */
+    @ConfigProperty(name = "family.history.sftp.channels", defaultValue = "8")
+    int sftpChannels;
+
+    /**
+     * Whether the report, pedigree and SFTP limits adapt to latency and errors.
+     */
+    @ConfigProperty(name = "family.history.limit.adaptive", defaultValue = "true")
+    boolean adaptive;
+
+    /**
+     * How far above its configured value an adaptive limit may grow, as a multiple.
+     */
+    @ConfigProperty(name = "family.history.limit.adaptive.max-factor", defaultValue = "4")
+    int maxFactor;
+
+    /**
+     * Latency, as a multiple of the average, above which a call counts as overload.
+     */
+    @ConfigProperty(name = "family.history.limit.adaptive.tolerance", defaultValue = "2.0")
+    double tolerance;
+
+    /**
+     * Factor an adaptive limit is multiplied by on overload.
+     */
+    @ConfigProperty(name = "family.history.limit.adaptive.backoff-ratio", defaultValue = "0.9")
+    double backoffRatio;
+
+    /**
+     * How long a caller waits for a permit before giving up.
+     */
+    @ConfigProperty(name = "family.history.limit.acquire-timeout", defaultValue = "PT2M")
+    Duration acquireTimeout;
+
+    /**
+     * Registry the in-flight gauges are published to.
+     */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Configured limit per downstream.
+     */
+    private final Map<Downstream, Integer> configured = new EnumMap<>(Downstream.class);
+
+    /**
+     * Limit per downstream.
+     */
+    private final Map<Downstream, AimdLimit> limits = new EnumMap<>(Downstream.class);
+
+    /**
+     * Limits of the {@link #TARGETED} downstreams, by target, created on first use.
+     */
+    private final Map<Downstream, ConcurrentMap<String, AimdLimit>> targetLimits = new EnumMap<>(Downstream.class);
+
+    /**
+     * Creates the limits and registers the gauges.
+     */
+    @PostConstruct
+    void init() {
+        configured.put(Downstream.DATABASE, databaseLimit);
+        configured.put(Downstream.REPORT, reportLimit);
+        configured.put(Downstream.PEDIGREE, pedigreeLimit);
+        configured.put(Downstream.SFTP, sftpLimit);
+        configured.put(Downstream.OBJECT_STORE, objectStoreLimit);
+        for (Downstream downstream : configured.keySet()) {
+            AimdLimit limit = newLimit(downstream);
+            limits.put(downstream, limit);
+            if (TARGETED.contains(downstream)) {
+                targetLimits.put(downstream, new ConcurrentHashMap<>());
+            } else {
+                registerGauges(downstream, DEFAULT_TARGET, limit);
+            }
+        }
+        Log.infof("Downstream limits: %s (%s per target), adaptive %s for %s", configured, TARGETED, adaptive, ADAPTIVE);
+    }
+
+    /**
+     * Creates a limit of a downstream from its configuration.
+     *
+     * @param downstream the dependency
+     * @return the limit
+     */
+    private AimdLimit newLimit(Downstream downstream) {
+        int initial = Math.max(1, configured.get(downstream));
+        int max = initial * Math.max(1, maxFactor);
+        if (downstream == Downstream.SFTP) {
+            // More uploads than channels would only wait for a channel
+            max = Math.max(initial, sftpChannels);
+        }
+        boolean adapts = adaptive && ADAPTIVE.contains(downstream);
+        return new AimdLimit(initial, 1, max, adapts, tolerance, backoffRatio);
+    }
+
+    /**
+     * Publishes the in-flight and limit gauges of a limit.
+     *
+     * @param downstream the dependency
+     * @param target the target of the dependency, or {@link #DEFAULT_TARGET}
+     * @param limit the limit
+     */
+    private void registerGauges(Downstream downstream, String target, AimdLimit limit) {
+        String tag = downstream.name().toLowerCase();
+        Gauge.builder("fhhs.downstream.inflight", limit, AimdLimit::getInFlight)
+                .description("Calls in progress to a downstream dependency of the report pipeline")
+                .tag("downstream", tag)
+                .tag("target", target)
+                .register(meterRegistry);
+        Gauge.builder("fhhs.downstream.limit", limit, AimdLimit::getLimit)
+                .description("Current concurrency limit of a downstream dependency of the report pipeline")
+                .tag("downstream", tag)
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets the limit of a downstream target, creating it on first use.
+     *
+     * @param downstream the dependency
+     * @param target the target, or {@code null} for the downstream as a whole
+     * @return the limit
+     */
+    private AimdLimit limitOf(Downstream downstream, String target) {
+        Map<String, AimdLimit> byTarget = targetLimits.get(downstream);
+        if (byTarget == null || target == null) {
+            return limits.get(downstream);
+        }
+        return byTarget.computeIfAbsent(target, key -> {
+            AimdLimit limit = newLimit(downstream);
+            registerGauges(downstream, key, limit);
+            Log.debugf("Created %s limit for %s", downstream, key);
+            return limit;
+        });
+    }
+
+    /**
+     * Runs work while holding a permit of a downstream.
+     *
+     * @param downstream the dependency the work calls
+     * @param work the work
+     * @param <T> the result type
+     * @param <E> the checked exception the work may throw
+     * @return the result of the work
+     * @throws E if the work fails
+     * @throws RejectedExecutionException if no permit became available within the acquire timeout
+     */
+    public <T, E extends Exception> T call(Downstream downstream, Work<T, E> work) throws E {
+        return call(downstream, null, work);
+    }
+
+    /**
+     * Runs work while holding a permit of a downstream target.
+     *
+     * @param downstream the dependency the work calls
+     * @param target the target of the call, such as a report URL; ignored for downstreams
+     *        that are not limited per target
+     * @param work the work
+     * @param <T> the result type
+     * @param <E> the checked exception the work may throw
+     * @return the result of the work
+     * @throws E if the work fails
+     * @throws RejectedExecutionException if no permit became available within the acquire timeout
+     */
+    public <T, E extends Exception> T call(Downstream downstream, String target, Work<T, E> work) throws E {
+        Permit permit = acquire(downstream, target);
+        boolean failed = true;
+        try {
+            T result = work.call();
+            failed = false;
+            return result;
+        } finally {
+            permit.release(failed);
+        }
+    }
+
+    /**
+     * Waits for a permit of a downstream. Every permit must be released in a {@code finally}
+     * block or when the asynchronous call completes; prefer {@link #call} where the work fits
+     * a lambda.
+     *
+     * @param downstream the dependency about to be called
+     * @return the permit, to be released once the call completed
+     * @throws RejectedExecutionException if no permit became available within the acquire timeout,
+     *         or before the {@linkplain Deadline#current() current deadline}
+     */
+    public Permit acquire(Downstream downstream) {
+        return acquire(downstream, null);
+    }
+
+    /**
+     * Waits for a permit of a downstream target, as {@link #acquire(Downstream)} does.
+     *
+     * @param downstream the dependency about to be called
+     * @param target the target about to be called, such as a report URL; ignored for
+     *        downstreams that are not limited per target
+     * @return the permit, to be released once the call completed
+     * @throws RejectedExecutionException if no permit became available within the acquire timeout,
+     *         or before the {@linkplain Deadline#current() current deadline}
+     */
+    public Permit acquire(Downstream downstream, String target) {
+        AimdLimit limit = limitOf(downstream, target);
+        Duration wait = Deadline.boundCurrent(acquireTimeout);
+        try {
+            if (!limit.tryAcquire(wait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Timed out after " + wait
+                        + " waiting for a " + downstream + " permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a " + downstream + " permit", e);
+        }
+        return new Permit(limit);
+    }
+
+    /**
+     * Gets the current limit of a downstream, or of its default target for downstreams
+     * limited per target.
+     *
+     * @param downstream the dependency
+     * @return the maximum number of concurrent calls right now
+     */
+    public int getLimit(Downstream downstream) {
+        return limits.get(downstream).getLimit();
+    }
+
+    /**
+     * Gets the current limit of a downstream target.
+     *
+     * @param downstream the dependency
+     * @param target the target
+     * @return the maximum number of concurrent calls to the target right now
+     */
+    public int getLimit(Downstream downstream, String target) {
+        return limitOf(downstream, target).getLimit();
+    }
+
+    /**
+     * Gets the number of calls in progress to a downstream, over all of its targets.
+     *
+     * @param downstream the dependency
+     * @return the number of permits in use
+     */
+    public int inFlight(Downstream downstream) {
+        int inFlight = limits.get(downstream).getInFlight();
+        Map<String, AimdLimit> byTarget = targetLimits.get(downstream);
+        if (byTarget != null) {
+            for (AimdLimit limit : byTarget.values()) {
+                inFlight += limit.getInFlight();
+            }
+        }
+        return inFlight;
+    }
+}
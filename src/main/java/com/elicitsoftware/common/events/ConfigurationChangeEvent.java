@@ -0,0 +1,74 @@
+package com.elicitsoftware.common.events;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+/**
+ * CDI event published when survey configuration tables change.
+ * <p>
+ * Raised by {@link RespondentChangeListener} from notifications on
+ * {@value RespondentChangeListener#CONFIGURATION_CHANNEL}. The payload is the name of the
+ * modified table ({@code surveys}, {@code reports} or {@code post_survey_actions}). A resync
+ * event ({@link #isResync()}) is published after a reconnect and means any table may have changed.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+public final class ConfigurationChangeEvent {
+
+    /**
+     * The modified table, or {@code null} for a resync event.
+     */
+    private final String table;
+
+    /**
+     * Creates a new configuration change event.
+     *
+     * @param table the modified table, or {@code null} for a resync event
+     */
+    public ConfigurationChangeEvent(String table) {
+        this.table = table;
+    }
+
+    /**
+     * Creates an event telling observers that notifications may have been missed.
+     *
+     * @return a resync event
+     */
+    public static ConfigurationChangeEvent resync() {
+        return new ConfigurationChangeEvent(null);
+    }
+
+    /**
+     * Gets the modified table.
+     *
+     * @return the table name, or {@code null} for a resync event
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Indicates whether observers should drop everything they cached.
+     *
+     * @return {@code true} for a resync event
+     */
+    public boolean isResync() {
+        return table == null;
+    }
+
+    @Override
+    public String toString() {
+        return table == null ? "*" : table;
+    }
+}
@@ -0,0 +1,181 @@
+package com.elicitsoftware.common.events;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+/**
+ * CDI event published when data feeding the reports of a respondent changes.
+ * <p>
+ * Events are raised by {@link RespondentChangeListener} from PostgreSQL notifications,
+ * so every node of the cluster receives them. Observers should be quick; they run on
+ * the listener thread.
+ * </p>
+ * <p>
+ * An event without a respondent ID ({@link #isResync()}) is published after the listener
+ * reconnects to the database. Notifications raised while it was disconnected are lost, so
+ * observers must treat it as "any respondent may have changed".
+ * </p>
+ * <p>
+ * A leadership event ({@link #isLeadership()}) is published on the one node that took over
+ * acting on notifications, see {@link RespondentChangeListener#isLeader()}.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+public final class RespondentChangeEvent {
+
+    /**
+     * Source table for changes to the respondent's survey answers.
+     */
+    public static final String SOURCE_FACT_SECTIONS = "fact_sections";
+
+    /**
+     * Source table for (re)finalization of a respondent.
+     */
+    public static final String SOURCE_RESPONDENTS = "respondents";
+
+    /**
+     * Source table for participant status changes.
+     */
+    public static final String SOURCE_STATUS = "status";
+
+    /**
+     * Source used for resync events.
+     */
+    public static final String SOURCE_RESYNC = "resync";
+
+    /**
+     * Source used for leadership events.
+     */
+    public static final String SOURCE_LEADERSHIP = "leadership";
+
+    /**
+     * The respondent whose data changed, or {@code null} for a resync or leadership event.
+     */
+    private final Long respondentId;
+
+    /**
+     * The table the change originated from.
+     */
+    private final String source;
+
+    /**
+     * Creates a new change event.
+     *
+     * @param respondentId the respondent whose data changed, or {@code null} for a resync event
+     * @param source the table the change originated from
+     */
+    public RespondentChangeEvent(Long respondentId, String source) {
+        this.respondentId = respondentId;
+        this.source = source;
+    }
+
+    /**
+     * Creates an event telling observers that notifications may have been missed.
+     *
+     * @return a resync event
+     */
+    public static RespondentChangeEvent resync() {
+        return new RespondentChangeEvent(null, SOURCE_RESYNC);
+    }
+
+    /**
+     * Creates an event telling observers that this node now acts on notifications.
+     *
+     * @return a leadership event
+     */
+    public static RespondentChangeEvent leadership() {
+        return new RespondentChangeEvent(null, SOURCE_LEADERSHIP);
+    }
+
+    /**
+     * Parses a notification payload of the form {@code <table>:<respondent id>}.
+     *
+     * @param payload the notification payload
+     * @return the parsed event, or {@code null} if the payload is malformed
+     */
+    public static RespondentChangeEvent fromPayload(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        int separator = payload.lastIndexOf(':');
+        if (separator <= 0 || separator == payload.length() - 1) {
+            return null;
+        }
+        try {
+            long respondentId = Long.parseLong(payload.substring(separator + 1).trim());
+            return new RespondentChangeEvent(respondentId, payload.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the respondent whose data changed.
+     *
+     * @return the respondent ID, or {@code null} for a resync or leadership event
+     */
+    public Long getRespondentId() {
+        return respondentId;
+    }
+
+    /**
+     * Gets the table the change originated from.
+     *
+     * @return the source table name
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Indicates whether this event asks observers to drop everything they cached.
+     *
+     * @return {@code true} for a resync event
+     */
+    public boolean isResync() {
+        return respondentId == null && SOURCE_RESYNC.equals(source);
+    }
+
+    /**
+     * Indicates whether this node just became the one acting on notifications.
+     *
+     * @return {@code true} for a leadership event
+     */
+    public boolean isLeadership() {
+        return respondentId == null && SOURCE_LEADERSHIP.equals(source);
+    }
+
+    /**
+     * Indicates whether the respondent's survey answers (and therefore the family history) changed.
+     *
+     * @return {@code true} if the change came from {@code fact_sections}, or for a resync event
+     */
+    public boolean isFamilyHistoryChange() {
+        return isResync() || SOURCE_FACT_SECTIONS.equals(source);
+    }
+
+    /**
+     * Indicates whether the respondent's status or finalization changed.
+     *
+     * @return {@code true} if the change came from {@code status} or {@code respondents}, or for a resync event
+     */
+    public boolean isStatusChange() {
+        return isResync() || SOURCE_STATUS.equals(source) || SOURCE_RESPONDENTS.equals(source);
+    }
+
+    @Override
+    public String toString() {
+        return source + ":" + (respondentId == null ? "*" : respondentId);
+    }
+}
@@ -0,0 +1,315 @@
+package com.elicitsoftware.common.events;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * Subscribes to PostgreSQL change notifications and republishes them as CDI events.
+ * <p>
+ * The triggers created by {@code V0.0.10__CREATE_RESPONDENT_CHANGE_NOTIFY.sql} raise a
+ * {@code NOTIFY} on {@value #CHANNEL} whenever a respondent's {@code fact_sections} rows,
+ * finalization or status change. This listener keeps one dedicated connection open with
+ * {@code LISTEN} and fires a {@link RespondentChangeEvent} for each notification, so any
+ * number of nodes can invalidate their local caches without polling or a message broker.
+ * Changes to the survey configuration tables arrive on {@value #CONFIGURATION_CHANNEL} and are
+ * published as {@link ConfigurationChangeEvent}s.
+ * </p>
+ * <p>
+ * The connection is opened with {@link DriverManager} rather than borrowed from the pool:
+ * it is held for the lifetime of the application and would otherwise permanently take a
+ * pooled connection and trip the leak detector. When the connection drops the listener
+ * reconnects with exponential back-off and publishes resync events, since notifications
+ * raised in the meantime are lost.
+ * </p>
+ * <p>
+ * Every node receives every notification, which is what cache invalidation needs, but work
+ * such as generating a report must happen once. The listener therefore also tries to take a
+ * session-level advisory lock on its connection; the node holding it is the
+ * {@linkplain #isLeader() leader} and the only one acting on notifications. Nodes without
+ * the lock try again every poll, so when the leader's connection drops, another node takes
+ * over within {@code family.history.notify.poll-millis} and publishes a leadership event to
+ * catch up on what it may have missed.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ * @see RespondentChangeEvent
+ */
+@ApplicationScoped
+public class RespondentChangeListener {
+
+    /**
+     * Notification channel used by the database triggers.
+     */
+    public static final String CHANNEL = "fhhs_respondent_change";
+
+    /**
+     * Notification channel used by the configuration table triggers.
+     */
+    public static final String CONFIGURATION_CHANNEL = "fhhs_configuration_change";
+
+    /**
+     * Upper bound for the reconnect back-off in milliseconds.
+     */
+    private static final long MAX_BACKOFF_MILLIS = 60_000L;
+
+    /**
+     * Class id of the Postgres advisory lock held by the leader. The object id is {@code 0}.
+     */
+    static final int LEADER_LOCK_CLASS_ID = 0x46484c44;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public RespondentChangeListener() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Whether the listener is started.
+     * Configured via the {@code family.history.notify.enabled} property. Defaults to {@code true}.
+     */
+    @ConfigProperty(name = "family.history.notify.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /**
+     * How long one poll for notifications blocks, in milliseconds.
+     * Configured via the {@code family.history.notify.poll-millis} property. Defaults to 10000.
+     */
+    @ConfigProperty(name = "family.history.notify.poll-millis", defaultValue = "10000")
+    int pollMillis;
+
+    /**
+     * JDBC URL of the default datasource.
+     */
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    String jdbcUrl;
+
+    /**
+     * Username of the default datasource.
+     */
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> username;
+
+    /**
+     * Password of the default datasource.
+     */
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    /**
+     * CDI event used to publish changes inside the application.
+     */
+    @Inject
+    Event<RespondentChangeEvent> changeEvents;
+
+    /**
+     * CDI event used to publish configuration changes inside the application.
+     */
+    @Inject
+    Event<ConfigurationChangeEvent> configurationEvents;
+
+    /**
+     * Whether the listener thread should keep running.
+     */
+    private volatile boolean running;
+
+    /**
+     * The thread holding the {@code LISTEN} connection.
+     */
+    private Thread listenerThread;
+
+    /**
+     * Whether this node holds the leader lock on its listener connection.
+     */
+    private volatile boolean leader;
+
+    /**
+     * Starts the listener thread once the application is up.
+     *
+     * @param event the startup event
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            Log.info("Respondent change notifications are disabled via family.history.notify.enabled=false");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "fhhs-respondent-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    /**
+     * Stops the listener thread when the application shuts down.
+     *
+     * @param event the shutdown event
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * Indicates whether this node acts on notifications.
+     * <p>
+     * Only one node of the cluster is leader at a time. The lock is released by Postgres when
+     * the leader's connection ends, so a node that died cannot keep it.
+     * </p>
+     *
+     * @return {@code true} while this node holds the leader lock
+     */
+    public boolean isLeader() {
+        return leader;
+    }
+
+    /**
+     * Indicates whether the listener is started, and with it the leader election.
+     *
+     * @return {@code false} if disabled via {@code family.history.notify.enabled}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Listener loop: connects, issues {@code LISTEN} and dispatches notifications until stopped.
+     */
+    private void listen() {
+        long backoff = 1_000L;
+        boolean reconnect = false;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username.orElse(null), password.orElse(null));
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                statement.execute("LISTEN " + CONFIGURATION_CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                Log.infof("Listening for change notifications on channels %s and %s", CHANNEL, CONFIGURATION_CHANNEL);
+                backoff = 1_000L;
+
+                if (reconnect) {
+                    // Anything raised while we were disconnected is gone.
+                    publish(RespondentChangeEvent.resync());
+                    publishConfiguration(ConfigurationChangeEvent.resync());
+                }
+                reconnect = true;
+
+                while (running) {
+                    if (!leader && tryLead(connection)) {
+                        Log.infof("This node now acts on change notifications");
+                        publish(RespondentChangeEvent.leadership());
+                    }
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        if (CONFIGURATION_CHANNEL.equals(notification.getName())) {
+                            publishConfiguration(new ConfigurationChangeEvent(notification.getParameter()));
+                            continue;
+                        }
+                        RespondentChangeEvent change = RespondentChangeEvent.fromPayload(notification.getParameter());
+                        if (change == null) {
+                            Log.warnf("Ignoring malformed respondent change payload: %s", notification.getParameter());
+                            continue;
+                        }
+                        publish(change);
+                    }
+                }
+            } catch (SQLException e) {
+                // The lock went with the connection
+                leader = false;
+                if (!running) {
+                    break;
+                }
+                Log.warnf("Respondent change listener lost its connection (%s); retrying in %d ms",
+                        e.getMessage(), backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+        leader = false;
+        Log.info("Respondent change listener stopped");
+    }
+
+    /**
+     * Tries to take the leader lock on the listener connection.
+     *
+     * @param connection the listener connection
+     * @return {@code true} if this node is now the leader
+     * @throws SQLException if the connection failed
+     */
+    private boolean tryLead(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, 0)")) {
+            statement.setInt(1, LEADER_LOCK_CLASS_ID);
+            try (ResultSet result = statement.executeQuery()) {
+                leader = result.next() && result.getBoolean(1);
+            }
+        }
+        return leader;
+    }
+
+    /**
+     * Fires a change event, shielding the listener loop from observer failures.
+     *
+     * @param change the event to publish
+     */
+    private void publish(RespondentChangeEvent change) {
+        try {
+            Log.debugf("Respondent change received: %s", change);
+            changeEvents.fire(change);
+        } catch (Exception e) {
+            Log.errorf(e, "Respondent change observer failed for %s: %s", change, e.getMessage());
+        }
+    }
+
+    /**
+     * Fires a configuration change event, shielding the listener loop from observer failures.
+     *
+     * @param change the event to publish
+     */
+    private void publishConfiguration(ConfigurationChangeEvent change) {
+        try {
+            Log.debugf("Configuration change received: %s", change);
+            configurationEvents.fire(change);
+        } catch (Exception e) {
+            Log.errorf(e, "Configuration change observer failed for %s: %s", change, e.getMessage());
+        }
+    }
+}
@@ -17,8 +17,6 @@ import org.eclipse.microprofile.health.Readiness;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import javax.sql.DataSource;
-import java.sql.Connection;
 
 /**
  * Health check implementation for database connectivity.
@@ -27,6 +25,10 @@ import java.sql.Connection;
  * and execute queries. It is marked as a readiness check, meaning the application
  * will not receive traffic until this check passes.
  * </p>
+ * <p>
+ * The {@link DatabaseProbe} runs the query in the background; the check answers from its
+ * last result, so a probe of the endpoint takes no pooled connection.
+ * </p>
  *
  * @author Elicit Software
  * @version 1.0
@@ -37,11 +39,11 @@ import java.sql.Connection;
 public class DatabaseHealthCheck implements HealthCheck {
 
     /**
-     * The data source used to obtain database connections.
+     * Keeps the result of the last database probe.
      * Injected by the CDI container.
      */
     @Inject
-    DataSource dataSource;
+    DependencyMonitor dependencyMonitor;
 
     /**
      * Default constructor.
@@ -53,14 +55,6 @@ public class DatabaseHealthCheck implements HealthCheck {
 
     @Override
     public HealthCheckResponse call() {
-        try (Connection connection = dataSource.getConnection();
-             var statement = connection.createStatement()) {
-            // Simple connectivity test
-            statement.execute("SELECT 1");
-            
-            return HealthCheckResponse.up("Database connection healthy");
-        } catch (Exception e) {
-            return HealthCheckResponse.down("Database connection failed: " + e.getMessage());
-        }
+        return dependencyMonitor.response("Database connection", DatabaseProbe.DEPENDENCY);
     }
 }
@@ -0,0 +1,64 @@
+package com.elicitsoftware.common.health;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Probes the database by running {@code SELECT 1} on a pooled connection.
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ * @see DatabaseHealthCheck
+ */
+@ApplicationScoped
+public class DatabaseProbe implements DependencyProbe {
+
+    /**
+     * Name of the database dependency.
+     */
+    public static final String DEPENDENCY = "database";
+
+    /**
+     * The data source used to obtain database connections.
+     */
+    @Inject
+    DataSource dataSource;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public DatabaseProbe() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public List<String> dependencies() {
+        return List.of(DEPENDENCY);
+    }
+
+    @Override
+    public void check(String dependency) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // Simple connectivity test
+            statement.execute("SELECT 1");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.elicitsoftware.common.health;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.HealthGroup;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Map;
+
+/**
+ * Health check listing every external dependency the {@link DependencyMonitor} checks.
+ * <p>
+ * It belongs to the {@code dependencies} health group ({@code /q/health/group/dependencies})
+ * rather than to readiness: a slow pedigree or report service should raise an alert, not
+ * take the node out of the load balancer, since the retry job catches up once it recovers.
+ * The check answers from the cached results and is down while any dependency is.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+@HealthGroup("dependencies")
+@ApplicationScoped
+public class DependencyHealthCheck implements HealthCheck {
+
+    /**
+     * Keeps the results of the probes.
+     */
+    @Inject
+    DependencyMonitor dependencyMonitor;
+
+    /**
+     * Default constructor.
+     * CDI container will instantiate this class and inject dependencies.
+     */
+    public DependencyHealthCheck() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        Map<String, DependencyMonitor.Result> results = dependencyMonitor.results();
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("External dependencies");
+        boolean up = true;
+        for (Map.Entry<String, DependencyMonitor.Result> entry : results.entrySet()) {
+            DependencyMonitor.Result result = entry.getValue();
+            up &= result.isUp();
+            builder.withData(entry.getKey(), result.isUp() ? "UP" : "DOWN");
+            result.describe(builder, entry.getKey() + ".");
+        }
+        return builder.status(up).build();
+    }
+}
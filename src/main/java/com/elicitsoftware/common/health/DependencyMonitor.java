@@ -0,0 +1,415 @@
+package com.elicitsoftware.common.health;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Probes the external dependencies in the background and caches the results.
+ * <p>
+ * Every {@link DependencyProbe} bean runs on its own schedule, starting at a random point
+ * within {@code family.history.health.jitter} after startup and then every
+ * {@code family.history.health.interval}, give or take the jitter, so the nodes of a cluster
+ * do not probe a dependency in lockstep. The dependencies of a round are checked in
+ * parallel on virtual threads, each bounded by {@code family.history.health.timeout}.
+ * </p>
+ * <p>
+ * Health checks answer from the cached {@link Result}s, so a Kubernetes probe costs no
+ * connection or network round trip. A result older than three intervals is stale and
+ * reported down, in case the probe itself got stuck. The last latency and state of every
+ * dependency are published as the {@code fhhs.dependency.latency} and
+ * {@code fhhs.dependency.up} gauges, tagged with the dependency, which shows a slowing
+ * dependency before it fails.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+@ApplicationScoped
+public class DependencyMonitor {
+
+    /**
+     * The cached outcome of the last check of a dependency.
+     */
+    public static final class Result {
+
+        /**
+         * Whether the dependency was healthy.
+         */
+        private final boolean up;
+
+        /**
+         * How long the check took.
+         */
+        private final Duration latency;
+
+        /**
+         * When the check finished.
+         */
+        private final Instant checkedAt;
+
+        /**
+         * Age after which the result is stale.
+         */
+        private final Duration validFor;
+
+        /**
+         * Failure message, {@code null} if the dependency was healthy.
+         */
+        private final String error;
+
+        /**
+         * Creates a result.
+         *
+         * @param up whether the dependency was healthy
+         * @param latency how long the check took
+         * @param checkedAt when the check finished
+         * @param validFor age after which the result is stale
+         * @param error failure message, {@code null} if healthy
+         */
+        Result(boolean up, Duration latency, Instant checkedAt, Duration validFor, String error) {
+            this.up = up;
+            this.latency = latency;
+            this.checkedAt = checkedAt;
+            this.validFor = validFor;
+            this.error = error;
+        }
+
+        /**
+         * Checks whether the dependency is healthy according to a result that is not stale.
+         *
+         * @return {@code true} if the dependency was healthy when last checked, recently enough
+         */
+        public boolean isUp() {
+            return up && !isStale();
+        }
+
+        /**
+         * Checks whether the result is too old to be trusted.
+         *
+         * @return {@code true} if the probe has not run for three intervals
+         */
+        public boolean isStale() {
+            return checkedAt.plus(validFor).isBefore(Instant.now());
+        }
+
+        /**
+         * Gets how long the check took.
+         *
+         * @return the latency of the check
+         */
+        public Duration getLatency() {
+            return latency;
+        }
+
+        /**
+         * Gets when the check finished.
+         *
+         * @return the time of the check
+         */
+        public Instant getCheckedAt() {
+            return checkedAt;
+        }
+
+        /**
+         * Gets why the check failed.
+         *
+         * @return the failure message, or empty if the dependency was healthy
+         */
+        public Optional<String> getError() {
+            return Optional.ofNullable(error);
+        }
+
+        /**
+         * Adds the result to a health check response.
+         *
+         * @param builder the response builder
+         * @param prefix prefix of the data keys, empty for none
+         * @return the builder
+         */
+        public HealthCheckResponseBuilder describe(HealthCheckResponseBuilder builder, String prefix) {
+            builder.withData(prefix + "latencyMillis", latency.toMillis())
+                    .withData(prefix + "checkedAt", checkedAt.toString());
+            if (isStale()) {
+                builder.withData(prefix + "error", "stale result, last checked " + checkedAt);
+            } else if (error != null) {
+                builder.withData(prefix + "error", error);
+            }
+            return builder;
+        }
+    }
+
+    /**
+     * Default interval between two rounds of a probe.
+     */
+    @ConfigProperty(name = "family.history.health.interval", defaultValue = "PT30S")
+    Duration interval;
+
+    /**
+     * Largest random shift of a round, before or after its interval.
+     */
+    @ConfigProperty(name = "family.history.health.jitter", defaultValue = "PT5S")
+    Duration jitter;
+
+    /**
+     * Longest time a dependency check may take before it counts as down.
+     */
+    @ConfigProperty(name = "family.history.health.timeout", defaultValue = "PT10S")
+    Duration timeout;
+
+    /**
+     * All probe beans.
+     */
+    @Inject
+    @Any
+    Instance<DependencyProbe> probes;
+
+    /**
+     * Registry the dependency gauges are published to.
+     */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Last result per dependency.
+     */
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+
+    /**
+     * Dependencies whose gauges are registered.
+     */
+    private final Set<String> gauged = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Times the rounds of the probes.
+     */
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "dependency-monitor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Runs the dependency checks, one virtual thread each.
+     */
+    private final ExecutorService checkers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dependency-probe-", 0).factory());
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public DependencyMonitor() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Schedules the first round of every probe once the application started.
+     *
+     * @param event the startup event
+     */
+    void onStart(@Observes StartupEvent event) {
+        int count = 0;
+        for (DependencyProbe probe : probes) {
+            schedule(probe, randomMillis(0, jitter.toMillis()));
+            count++;
+        }
+        Log.infof("Dependency monitor started with %d probe(s), interval %s, jitter %s", count, interval, jitter);
+    }
+
+    /**
+     * Stops the probes.
+     */
+    @PreDestroy
+    void destroy() {
+        timer.shutdownNow();
+        checkers.shutdownNow();
+    }
+
+    /**
+     * Gets the last result of a dependency.
+     *
+     * @param dependency the dependency name
+     * @return the result, or empty if the dependency was not checked yet
+     */
+    public Optional<Result> result(String dependency) {
+        return Optional.ofNullable(results.get(dependency));
+    }
+
+    /**
+     * Gets the last result of every dependency checked so far.
+     *
+     * @return the results by dependency name, sorted by name
+     */
+    public Map<String, Result> results() {
+        return new TreeMap<>(results);
+    }
+
+    /**
+     * Builds a health check response for one dependency from its last result.
+     *
+     * @param name the name of the health check
+     * @param dependency the dependency name
+     * @return down until the dependency was checked, and while its result is down or stale
+     */
+    public HealthCheckResponse response(String name, String dependency) {
+        Optional<Result> result = result(dependency);
+        if (result.isEmpty()) {
+            return HealthCheckResponse.named(name).down().withData("error", "not checked yet").build();
+        }
+        return result.get().describe(HealthCheckResponse.named(name).status(result.get().isUp()), "").build();
+    }
+
+    /**
+     * Schedules the next round of a probe.
+     *
+     * @param probe the probe
+     * @param delayMillis the delay before the round
+     */
+    private void schedule(DependencyProbe probe, long delayMillis) {
+        if (timer.isShutdown()) {
+            return;
+        }
+        timer.schedule(() -> checkers.execute(() -> runRound(probe)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks every dependency of a probe in parallel, records the results and schedules the
+     * next round.
+     *
+     * @param probe the probe
+     */
+    private void runRound(DependencyProbe probe) {
+        Duration probeInterval = probe.interval().orElse(interval);
+        try {
+            List<String> dependencies = probe.dependencies();
+            List<Future<?>> checks = new ArrayList<>(dependencies.size());
+            for (String dependency : dependencies) {
+                checks.add(checkers.submit(() -> check(probe, dependency, probeInterval)));
+            }
+            for (Future<?> check : checks) {
+                check.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            Log.warnf(e, "Dependency probe %s failed: %s", probe.getClass().getSimpleName(), e.getMessage());
+        }
+        long millis = probeInterval.toMillis();
+        long spread = jitter.toMillis();
+        schedule(probe, Math.max(1000, millis + randomMillis(-spread, spread)));
+    }
+
+    /**
+     * Checks one dependency within the timeout and records the result.
+     *
+     * @param probe the probe
+     * @param dependency the dependency name
+     * @param probeInterval the interval of the probe
+     */
+    private void check(DependencyProbe probe, String dependency, Duration probeInterval) {
+        long start = System.nanoTime();
+        String error = null;
+        Future<?> check = checkers.submit(() -> {
+            probe.check(dependency);
+            return null;
+        });
+        try {
+            check.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            check.cancel(true);
+            error = "no answer within " + timeout;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            check.cancel(true);
+            return;
+        }
+        Result result = new Result(error == null, Duration.ofNanos(System.nanoTime() - start), Instant.now(),
+                probeInterval.multipliedBy(3), error);
+        Result previous = results.put(dependency, result);
+        if (previous == null || previous.up != result.up) {
+            if (result.up) {
+                Log.infof("Dependency %s is up (%d ms)", dependency, result.latency.toMillis());
+            } else {
+                Log.warnf("Dependency %s is down: %s", dependency, error);
+            }
+        }
+        register(dependency);
+    }
+
+    /**
+     * Registers the gauges of a dependency the first time it is checked.
+     *
+     * @param dependency the dependency name
+     */
+    private void register(String dependency) {
+        if (!gauged.add(dependency)) {
+            return;
+        }
+        TimeGauge.builder("fhhs.dependency.latency", this, TimeUnit.MILLISECONDS,
+                        monitor -> monitor.result(dependency).map(r -> (double) r.latency.toMillis()).orElse(Double.NaN))
+                .description("Latency of the last health check of an external dependency")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+        Gauge.builder("fhhs.dependency.up", this,
+                        monitor -> monitor.result(dependency).map(r -> r.isUp() ? 1.0 : 0.0).orElse(Double.NaN))
+                .description("Whether an external dependency passed its last health check")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Picks a random number of milliseconds.
+     *
+     * @param from the lowest value
+     * @param to the highest value
+     * @return a value between the two, inclusive
+     */
+    private static long randomMillis(long from, long to) {
+        return to <= from ? from : ThreadLocalRandom.current().nextLong(from, to + 1);
+    }
+}
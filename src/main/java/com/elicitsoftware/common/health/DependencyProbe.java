@@ -0,0 +1,56 @@
+package com.elicitsoftware.common.health;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checks one or more external dependencies on behalf of the {@link DependencyMonitor}.
+ * <p>
+ * Implementations are CDI beans. The monitor calls them in the background and keeps the
+ * results, so a probe may block and take as long as its own timeout allows; it never runs
+ * on the request path of a health endpoint.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+public interface DependencyProbe {
+
+    /**
+     * Names the dependencies to check in the next round, for example one per report host.
+     * Called before every round, so the set may change at runtime.
+     *
+     * @return the dependency names, empty if there is nothing to check
+     */
+    List<String> dependencies();
+
+    /**
+     * Checks a dependency.
+     *
+     * @param dependency one of the names returned by {@link #dependencies()}
+     * @throws Exception if the dependency is unreachable or unhealthy
+     */
+    void check(String dependency) throws Exception;
+
+    /**
+     * Gets how often the probe runs, if it differs from {@code family.history.health.interval}.
+     *
+     * @return the interval, or empty for the default
+     */
+    default Optional<Duration> interval() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,68 @@
+package com.elicitsoftware.common.health;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Checks that an HTTP service answers, for probes of HTTP dependencies.
+ * <p>
+ * The check sends a {@code HEAD} request to the service URL. Any answer below 500 counts as
+ * healthy, since an endpoint that only accepts {@code POST} answers 404 or 405 while the
+ * service itself is fine; 5xx answers, timeouts and connection failures do not.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+public final class HttpProbe {
+
+    /**
+     * Client shared by all HTTP probes.
+     */
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    /**
+     * Not instantiable.
+     */
+    private HttpProbe() {
+    }
+
+    /**
+     * Checks that the service at a URL answers.
+     *
+     * @param uri the service URL
+     * @param timeout how long to wait for the answer
+     * @throws IOException if the service does not answer or answers with a server error
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void check(URI uri, Duration timeout) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        int status = CLIENT.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status >= 500) {
+            throw new IOException(uri.getHost() + " answered HTTP " + status);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.health.DependencyMonitor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Readiness check for the report delivery sinks.
+ * <p>
+ * Testing an SFTP server means an SSH handshake, a directory check and a stat, which takes
+ * up to {@code family.history.sftp.timeout} when the server is unreachable. The sinks are
+ * therefore probed in the background by the {@link DeliveryProbe}, and the readiness check
+ * answers from the last result kept by the {@link DependencyMonitor}. The node starts
+ * without waiting for the probe and becomes ready once the sinks are reachable. Nothing is
+ * probed when {@code family.history.sftp.enabled=false}.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see com.elicitsoftware.familyhistory.delivery.ReportDelivery#testConnection()
+ */
+@Readiness
+@ApplicationScoped
+public class DeliveryHealthCheck implements HealthCheck {
+
+    /**
+     * Whether report delivery is enabled at all.
+     */
+    @ConfigProperty(name = "family.history.sftp.enabled", defaultValue = "true")
+    boolean sftpEnabled;
+
+    /**
+     * Keeps the result of the last probe.
+     */
+    @Inject
+    DependencyMonitor dependencyMonitor;
+
+    /**
+     * Default constructor.
+     * CDI container will instantiate this class and inject dependencies.
+     */
+    public DeliveryHealthCheck() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        if (!sftpEnabled) {
+            return HealthCheckResponse.up("Report delivery disabled");
+        }
+        return dependencyMonitor.response("Report delivery", DeliveryProbe.DEPENDENCY);
+    }
+}
@@ -0,0 +1,86 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.health.DependencyProbe;
+import com.elicitsoftware.familyhistory.delivery.ReportDelivery;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Probes the report delivery sinks with {@link ReportDelivery#testConnection()}.
+ * <p>
+ * Testing an SFTP server costs an SSH handshake, so the sinks are probed every
+ * {@code family.history.delivery.probe-interval} rather than at the default health interval.
+ * Nothing is probed when {@code family.history.sftp.enabled=false}.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see DeliveryHealthCheck
+ */
+@ApplicationScoped
+public class DeliveryProbe implements DependencyProbe {
+
+    /**
+     * Name of the delivery dependency.
+     */
+    static final String DEPENDENCY = "delivery";
+
+    /**
+     * Whether report delivery is enabled at all.
+     */
+    @ConfigProperty(name = "family.history.sftp.enabled", defaultValue = "true")
+    boolean sftpEnabled;
+
+    /**
+     * Interval between two probes of the sinks.
+     */
+    @ConfigProperty(name = "family.history.delivery.probe-interval", defaultValue = "PT1M")
+    Duration probeInterval;
+
+    /**
+     * The sinks that are probed.
+     */
+    @Inject
+    ReportDelivery reportDelivery;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public DeliveryProbe() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public List<String> dependencies() {
+        return sftpEnabled ? List.of(DEPENDENCY) : List.of();
+    }
+
+    @Override
+    public void check(String dependency) {
+        if (!reportDelivery.testConnection()) {
+            throw new IllegalStateException("Delivery sinks are not reachable or not writable");
+        }
+    }
+
+    @Override
+    public Optional<Duration> interval() {
+        return Optional.of(probeInterval);
+    }
+}
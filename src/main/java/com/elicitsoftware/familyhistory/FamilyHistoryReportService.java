@@ -11,27 +11,53 @@ package com.elicitsoftware.familyhistory;
  * ***LICENSE_END***
  */
 
-import com.elicitsoftware.model.PostSurveyAction;
+import com.elicitsoftware.common.concurrency.Deadline;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter.Downstream;
+import com.elicitsoftware.familyhistory.ReportScheduler.Lane;
+import com.elicitsoftware.familyhistory.delivery.DeliveryFile;
+import com.elicitsoftware.familyhistory.delivery.ReportDelivery;
+import com.elicitsoftware.model.ReportDefinition;
 import com.elicitsoftware.model.RespondentPSA;
 import com.elicitsoftware.model.Status;
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.arc.Arc;
+import io.quarkus.agroal.DataSource;
 import io.quarkus.arc.ManagedContext;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownDelayInitiatedEvent;
+import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import io.quarkus.logging.Log;
 
 import java.nio.charset.StandardCharsets;
-import java.time.OffsetDateTime;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service for generating family history reports as PDF and XML metadata files
@@ -47,10 +73,49 @@ import java.util.concurrent.Executors;
  * <ul>
  * <li>Generating PDF reports containing family history data</li>
  * <li>Creating XML metadata files with document information</li>
- * <li>Uploading both files to an SFTP server</li>
+ * <li>Delivering both files to the configured sink (SFTP, file system or object store)</li>
  * <li>Managing request context for proper bean lifecycle</li>
+ * <li>Running at most one report job per respondent across the cluster</li>
  * </ul>
  * 
+ * <p>Concurrent requests for the same respondent (for example a retried or
+ * double-fired post-survey action) are coalesced: a request made while a job is
+ * running on this node attaches to that job's future. Across nodes, a job holds a
+ * Postgres advisory lock on the respondent; a job that cannot take the lock leaves the
+ * report to the node holding it.</p>
+ * 
+ * <p>A job does not hold a pooled connection while it calls the report services. The
+ * report URLs are usually endpoints of this application, and each of them needs a pooled
+ * connection of its own; jobs holding the pool while waiting for their report calls would
+ * deadlock it. The respondent's lock is therefore held on a connection of its own, opened
+ * for the job outside the pool, and only the reads of the report definitions and of the
+ * upload status run in short transactions under the {@code DATABASE} permit.</p>
+ * 
+ * <p>Jobs run in the priority lanes of the {@link ReportScheduler}: first-time generations
+ * in the interactive lane, retries in the retry lane and backfills in the bulk lane, each
+ * with a bounded queue. {@link #submit(Status, Lane)} estimates how long a new job would
+ * wait in its lane and rejects it when the lane is full or the wait exceeds
+ * {@code family.history.async.max-wait}. Admission outcomes are counted in the
+ * {@code fhhs.report.admissions} metric.</p>
+ * 
+ * <p>With {@code family.history.async.mode=virtual} jobs run on virtual threads. A job
+ * blocked on a report call, the pedigree service or SFTP then no longer ties up a platform
+ * thread, and concurrency is bounded per dependency by the {@link DownstreamLimiter}
+ * rather than by the thread count.</p>
+ * 
+ * <p>On shutdown the service drains: the scheduler stops accepting jobs, so readiness
+ * reports down and {@code /generate} answers 503, and jobs that have not started are
+ * recorded as FAILED for the retry job of another node. Running jobs get
+ * {@code family.history.shutdown.grace-period} to finish; those still running afterwards
+ * are recorded the same way before they are interrupted. Deferred jobs do not count as
+ * a try.</p>
+ * 
+ * <p>Every job gets a {@link Deadline} when it is submitted:
+ * {@code family.history.async.deadline} plus the wait estimated at admission. The report
+ * calls, the pedigree service behind them, rendering and delivery all draw on it, so a
+ * job stuck on a slow dependency fails once its budget is spent and frees its slot for
+ * the retry job, instead of waiting out the timeout of every stage in turn.</p>
+ * 
  * <p>Configuration is handled through MicroProfile Config properties for
  * SFTP connection details and XML template customization.</p>
  * 
@@ -58,6 +123,7 @@ import java.util.concurrent.Executors;
  * @version 1.0
  * @since 1.0
  * @see SftpService
+ * @see ReportDelivery
  * @see PDFService
  * @see Status
  */
@@ -72,11 +138,49 @@ public class FamilyHistoryReportService {
     }
 
     /**
-     * Dedicated executor service for async report generation tasks.
-     * This ensures reliable async execution in Docker containers where
-     * the common ForkJoinPool might not work properly.
+     * Class id of the Postgres advisory lock held while a report is generated.
+     * The object id is the respondent id.
+     */
+    static final int REPORT_LOCK_CLASS_ID = 0x46484853;
+
+    /**
+     * Status of a RespondentPSA claimed by a retry sweep whose retry has not finished yet.
+     */
+    static final String RETRYING = "RETRYING";
+
+    /**
+     * Claims up to a number of FAILED, unsent uploads of one retry partition, skipping rows
+     * locked by a concurrent sweep, and returns their respondent IDs.
+     */
+    static final String CLAIM_RETRIES_SQL = """
+            UPDATE survey.respondent_psa
+               SET status = 'RETRYING', claimed_dt = now()
+             WHERE id IN (SELECT id FROM survey.respondent_psa
+                           WHERE post_survey_action_id = ?1 AND status = 'FAILED'
+                             AND uploaded_dt IS NULL AND tries < ?2 AND mod(respondent_id, ?3) = ?4
+                           ORDER BY id
+                           LIMIT ?5
+                           FOR UPDATE SKIP LOCKED)
+            RETURNING respondent_id
+            """;
+
+    /**
+     * Checks whether a session holds the advisory lock of a respondent, without taking it.
+     * The two keys of the lock are stored as {@code oid}s, so they are compared as such.
      */
-    private ExecutorService asyncExecutor;
+    static final String RESPONDENT_LOCKED_SQL = """
+            SELECT EXISTS (SELECT 1 FROM pg_locks
+                            WHERE locktype = 'advisory' AND granted
+                              AND database = (SELECT oid FROM pg_database WHERE datname = current_database())
+                              AND classid = CAST(CAST(? AS integer) AS oid)
+                              AND objid = CAST(CAST(? AS integer) AS oid)
+                              AND objsubid = 2)
+            """;
+
+    /**
+     * Report jobs running on this node, by respondent id.
+     */
+    private final ConcurrentMap<Long, Job> inFlight = new ConcurrentHashMap<>();
 
     /**
      * SFTP server hostname or IP address for file uploads.
@@ -86,21 +190,55 @@ public class FamilyHistoryReportService {
     Optional<String> sftpHost;
 
     /**
-     * Whether the SFTP upload feature is enabled.
+     * Whether the SFTP upload feature is enabled. Despite its name, it switches report
+     * delivery off for every sink.
      * Configured via the {@code family.history.sftp.enabled} property.
-     * Defaults to {@code true}. When {@code false}, no connection test,
+     * Defaults to {@code true}. When {@code false}, no connection probe,
      * report generation/upload, or retry processing is performed.
      */
     @ConfigProperty(name = "family.history.sftp.enabled", defaultValue = "true")
     boolean sftpEnabled;
 
     /**
-     * Number of threads for the async executor pool.
-     * Configured via the {@code family.history.async.threads} property.
-     * Defaults to 2 threads if not specified.
+     * Longest estimated wait a new report job is accepted with.
+     * Configured via the {@code family.history.async.max-wait} property.
+     * Defaults to 10 minutes if not specified.
+     */
+    @ConfigProperty(name = "family.history.async.max-wait", defaultValue = "PT10M")
+    Duration maxWait;
+
+    /**
+     * Time a report job may take once it started, on top of its estimated wait.
+     * Configured via the {@code family.history.async.deadline} property.
+     * Defaults to 3 minutes if not specified.
+     */
+    @ConfigProperty(name = "family.history.async.deadline", defaultValue = "PT3M")
+    Duration jobDeadline;
+
+    /**
+     * How long running report jobs may take to finish when the application shuts down.
+     * Configured via the {@code family.history.shutdown.grace-period} property.
+     * Defaults to 25 seconds, within the usual 30 second termination grace period.
+     */
+    @ConfigProperty(name = "family.history.shutdown.grace-period", defaultValue = "PT25S")
+    Duration shutdownGracePeriod;
+
+    /**
+     * Number of respondent-hash partitions the retry set is split into across nodes.
+     * Configured via the {@code family.history.retry.partitions} property.
+     * Defaults to 16 if not specified.
+     */
+    @ConfigProperty(name = "family.history.retry.partitions", defaultValue = "16")
+    int retryPartitions;
+
+    /**
+     * How long a retry claimed by a sweep may stay unfinished before it is given up and
+     * can be claimed again, which covers a node that died while the retry was queued.
+     * Configured via the {@code family.history.retry.claim-timeout} property.
+     * Defaults to 30 minutes, well beyond the longest wait plus deadline of a job.
      */
-    @ConfigProperty(name = "family.history.async.threads", defaultValue = "2")
-    int asyncThreads;
+    @ConfigProperty(name = "family.history.retry.claim-timeout", defaultValue = "PT30M")
+    Duration retryClaimTimeout;
 
     /**
      * Post survey action ID for tracking upload status.
@@ -140,62 +278,147 @@ public class FamilyHistoryReportService {
     String xmlTemplate;
 
         /**
-     * Injected SFTP service for file upload operations.
+     * Injected router delivering the report files to the configured sink.
      */
     @Inject
-    SftpService sftpService;
+    ReportDelivery reportDelivery;
 
     /**
      * Injected PDF service for report generation.
      */
     @Inject
     PDFService pdfService;
+
+    /**
+     * Injected service that materializes the respondent's family history before the reports read it.
+     */
+    @Inject
+    FamilyHistorySnapshotService snapshotService;
+
+    /**
+     * Injected JPA EntityManager used for the retry claim queries.
+     */
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Pool of the connections holding respondent locks. It is kept apart from the default
+     * pool, which the report endpoints called by a job need while the job holds its lock,
+     * and does not take part in transactions.
+     */
+    @Inject
+    @DataSource("locks")
+    AgroalDataSource lockDataSource;
+
+    /**
+     * Registry the admission metrics are published to.
+     */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Scheduler running the report jobs in priority lanes.
+     */
+    @Inject
+    ReportScheduler scheduler;
+
+    /**
+     * Write-behind recorder of the RespondentPSA statuses.
+     */
+    @Inject
+    RespondentPSARecorder psaRecorder;
+
+    /**
+     * Per-downstream concurrency limits shared with the report, pedigree and SFTP clients.
+     */
+    @Inject
+    DownstreamLimiter downstreamLimiter;
     
     /**
      * Initializes the service and logs configuration information.
      * This method is called automatically after dependency injection is complete.
      * 
+     * <p>The delivery sinks are not tested here, so a slow or unreachable SFTP server does not
+     * hold up startup; {@link DeliveryHealthCheck} probes them in the background.</p>
+     * 
      * @see PostConstruct
      */
     @PostConstruct
     void init() {
-        // Initialize dedicated executor for async tasks to ensure reliable execution in Docker
-        this.asyncExecutor = Executors.newFixedThreadPool(asyncThreads, r -> {
-            Thread t = new Thread(r, "family-history-async-" + System.currentTimeMillis());
-            t.setDaemon(true);
-            return t;
-        });
-        
-        Log.infov("Family History Report Service initialized with SFTP host: {} and {} async threads (SFTP enabled: {})",
-                sftpHost.orElse("<not configured>"), asyncThreads, sftpEnabled);
+        Log.infov("Family History Report Service initialized with SFTP host: {} (SFTP enabled: {})",
+                sftpHost.orElse("<not configured>"), sftpEnabled);
 
         if (!sftpEnabled) {
             Log.info("SFTP upload is disabled via family.history.sftp.enabled=false - skipping connection test");
-            return;
         }
+    }
 
-        // Test SFTP connection during initialization to identify configuration issues early
-        try {
-            boolean connectionTest = sftpService.testConnection();
-            if (connectionTest) {
-                Log.info("SFTP connection test successful during service initialization");
+    /**
+     * Stops accepting report jobs as soon as the shutdown delay starts, so readiness
+     * reports down while the load balancer still routes requests to this node.
+     * 
+     * @param event the shutdown delay event
+     */
+    void onShutdownDelay(@Observes ShutdownDelayInitiatedEvent event) {
+        deferUnstartedJobs();
+    }
+
+    /**
+     * Drains the report jobs before the application stops.
+     * 
+     * <p>Jobs that have not started are recorded as FAILED right away. Running jobs get
+     * the grace period to finish, after which reports held back by a batching sink are
+     * delivered. Jobs still unfinished then are recorded as FAILED too, so the retry job of
+     * another node picks them up, and are interrupted when the scheduler is destroyed. The advisory lock keeps another node from generating the same
+     * report while an interrupted job is still rolling back. The recorded statuses are
+     * written before the method returns.</p>
+     * 
+     * @param event the shutdown event
+     */
+    void onShutdown(@Observes ShutdownEvent event) {
+        deferUnstartedJobs();
+        if (inFlight.isEmpty()) {
+            scheduler.awaitTermination(Duration.ZERO);
+        } else {
+            Log.infov("Waiting up to {} for {} running family history report job(s)", shutdownGracePeriod, inFlight.size());
+            scheduler.awaitTermination(shutdownGracePeriod);
+            // Deliver what batching sinks still hold, completing the jobs waiting on it
+            reportDelivery.flush();
+            if (inFlight.isEmpty()) {
+                Log.info("All family history report jobs finished before shutdown");
             } else {
-                Log.warn("SFTP connection test failed during service initialization - file uploads may fail");
+                List<Long> unfinished = new ArrayList<>(inFlight.keySet());
+                Log.warnv("{} family history report job(s) still running after {} - deferring them to the retry job",
+                        unfinished.size(), shutdownGracePeriod);
+                deferRespondentPSAStatus(unfinished, "Interrupted by shutdown");
             }
+        }
+
+        try {
+            psaRecorder.flush();
         } catch (Exception e) {
-            Log.errorv(e, "SFTP connection test threw exception during service initialization: {}", e.getMessage());
+            Log.errorv(e, "Failed to write RespondentPSA statuses on shutdown: {}", e.getMessage());
         }
     }
 
     /**
-     * Cleanup method called when the application shuts down.
-     * Properly shuts down the executor service.
+     * Stops the scheduler and records the jobs that have not started yet as FAILED.
+     * Claiming a job keeps it from starting if a thread picks it up afterwards.
      */
-    @PreDestroy
-    void destroy() {
-        if (asyncExecutor != null && !asyncExecutor.isShutdown()) {
-            asyncExecutor.shutdown();
-            Log.info("Family History Report Service async executor shutdown completed");
+    private void deferUnstartedJobs() {
+        scheduler.stopAccepting();
+        List<Long> unstarted = new ArrayList<>();
+        for (Map.Entry<Long, Job> entry : inFlight.entrySet()) {
+            Job job = entry.getValue();
+            if (job.claim()) {
+                unstarted.add(entry.getKey());
+                inFlight.remove(entry.getKey(), job);
+                job.future.completeExceptionally(new CancellationException("Report job deferred by shutdown"));
+            }
+        }
+        if (!unstarted.isEmpty()) {
+            Log.infov("Deferring {} queued family history report job(s) to the retry job", unstarted.size());
+            deferRespondentPSAStatus(unstarted, "Deferred by shutdown before it started");
         }
     }
 
@@ -206,58 +429,267 @@ public class FamilyHistoryReportService {
      * <ol>
      * <li>Generates a PDF report containing family history data</li>
      * <li>Creates an XML metadata file with document information</li>
-     * <li>Uploads both files to the configured SFTP server</li>
+     * <li>Delivers both files to the configured sink, by default the SFTP server</li>
      * </ol>
      * 
-     * <p>The operation runs asynchronously using a dedicated {@link ExecutorService} to ensure
-     * reliable execution in Docker containers where the default ForkJoinPool might not work properly.
+     * <p>The operation runs asynchronously in the interactive lane of the {@link ReportScheduler},
+     * which uses a dedicated executor to ensure reliable execution in Docker containers where the
+     * default ForkJoinPool might not work properly.
      * File names are derived from the external ID (Xid) in the status record.</p>
      * 
      * <p>The method is transactional to ensure data consistency during the process.</p>
      * 
+     * <p>If a job for the same respondent is already running on this node, no new job is
+     * started and the returned future completes with the running one. If the node is
+     * saturated the future completes exceptionally with a {@link RejectedExecutionException}
+     * and the report is left to the retry job.</p>
+     * 
      * @param status the status record containing respondent information and metadata
      *               required for report generation and file naming
-     * @return a {@link CompletableFuture} that completes when the operation finishes
+     * @return a {@link CompletableFuture} that completes when the operation finishes,
+     *         after the RespondentPSA status was updated
      * @throws RuntimeException if report generation or upload fails
      * @see #generateFamilyHistoryPdf(Long)
      * @see #generateXmlMetadata(Status)
      * @see SftpService#uploadFile(String, byte[])
      */
     public CompletableFuture<Void> generateAndUploadFamilyHistoryReport(Status status) {
+        return submit(status, Lane.INTERACTIVE).getFuture();
+    }
+
+    /**
+     * Generates and uploads a family history report asynchronously in a given lane.
+     * 
+     * @param status the status record containing respondent information and metadata
+     *               required for report generation and file naming
+     * @param lane the priority lane to run the job in
+     * @return a {@link CompletableFuture} that completes when the operation finishes
+     * @see #generateAndUploadFamilyHistoryReport(Status)
+     */
+    public CompletableFuture<Void> generateAndUploadFamilyHistoryReport(Status status, Lane lane) {
+        return submit(status, lane).getFuture();
+    }
+
+    /**
+     * Submits a first-time family history report job, applying admission control.
+     * 
+     * @param status the status record containing respondent information and metadata
+     *               required for report generation and file naming
+     * @return the admission outcome, the estimated wait and the job's future
+     * @see #submit(Status, Lane)
+     */
+    public ReportAdmission submit(Status status) {
+        return submit(status, Lane.INTERACTIVE);
+    }
+
+    /**
+     * Submits a family history report job to a lane, applying admission control.
+     * 
+     * <p>A job for a respondent that already has one running or queued on this node
+     * attaches to it, whatever its lane. A first-time job for a respondent whose report
+     * another node is generating is not started; that node records the outcome. Otherwise
+     * the job is rejected when the estimated
+     * wait in the lane exceeds {@link #maxWait} or the lane's queue is full. Rejected
+     * interactive and bulk jobs are recorded as FAILED so the retry job picks them up if
+     * the caller does not come back; rejected retries simply stay FAILED.</p>
+     * 
+     * @param status the status record containing respondent information and metadata
+     *               required for report generation and file naming
+     * @param lane the priority lane to run the job in
+     * @return the admission outcome, the estimated wait and the job's future
+     */
+    public ReportAdmission submit(Status status, Lane lane) {
         if (!sftpEnabled) {
             Log.infov("SFTP upload is disabled via family.history.sftp.enabled=false - skipping report generation for respondent {}",
                     status.getRespondentId());
-            return CompletableFuture.completedFuture(null);
+            return admitted(ReportAdmission.Outcome.DISABLED, lane, Duration.ZERO, CompletableFuture.completedFuture(null));
         }
 
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-            // Call the transactional method to do the actual work
-            try {
-                doGenerateAndUploadFamilyHistoryReport(status);
-            } catch (Exception e) {
-                Log.errorv(e, "Failed to generate and upload family history report for respondent {}: {}",
-                        status.getRespondentId(), e.getMessage());
-                throw new RuntimeException("Failed to process family history report", e);
-            }
-        }, asyncExecutor); // Use dedicated executor instead of default ForkJoinPool
-        
-        // Add exception handling to catch any issues with the CompletableFuture
-        future.whenComplete((result, throwable) -> {
+        Long respondentId = status.getRespondentId();
+        Job job = new Job();
+        Job running = inFlight.putIfAbsent(respondentId, job);
+        if (running != null) {
+            Log.infov("Family history report for respondent {} is already being generated - attaching to the running job",
+                    respondentId);
+            return admitted(ReportAdmission.Outcome.ATTACHED, lane, Duration.ZERO, running.future);
+        }
+
+        if (lane != Lane.RETRY && isLockedElsewhere(respondentId)) {
+            Log.infov("Family history report for respondent {} is being generated by another node - not starting another",
+                    respondentId);
+            inFlight.remove(respondentId, job);
+            job.future.complete(null);
+            return admitted(ReportAdmission.Outcome.LOCKED, lane, Duration.ZERO, job.future);
+        }
+
+        Duration wait = scheduler.estimatedWait(lane);
+        if (wait.compareTo(maxWait) > 0) {
+            return reject(respondentId, lane, job, wait, "estimated wait " + wait + " exceeds " + maxWait);
+        }
+        boolean slotFree = scheduler.hasFreeSlot(lane);
+        // A job running later than estimated eats into its budget
+        job.deadline = Deadline.after(wait.plus(jobDeadline));
+
+        if (!scheduler.offer(lane, () -> runJob(respondentId, job, status, lane))) {
+            return reject(respondentId, lane, job, wait,
+                    scheduler.isAccepting() ? "the " + lane + " lane is full" : "the node is shutting down");
+        }
+
+        return admitted(slotFree ? ReportAdmission.Outcome.STARTED : ReportAdmission.Outcome.QUEUED, lane, wait, job.future);
+    }
+
+    /**
+     * Runs a report job on a scheduler thread and completes its future.
+     * 
+     * @param respondentId the respondent ID
+     * @param job the job registered for the respondent
+     * @param status the status record of the respondent
+     * @param lane the lane the job was submitted to
+     */
+    private void runJob(Long respondentId, Job job, Status status, Lane lane) {
+        if (!job.claim()) {
+            // Deferred by the shutdown drain before a thread picked it up
+            return;
+        }
+        job.startedNanos = System.nanoTime();
+        CompletableFuture<Boolean> delivered;
+        // Every stage of the job bounds its timeouts by the job's deadline
+        Deadline deadline = job.deadline;
+        try {
+            deadline.check("the job started");
+            delivered = deadline.call(() -> doGenerateAndUploadFamilyHistoryReport(status, lane));
+        } catch (Exception e) {
+            delivered = CompletableFuture.failedFuture(e);
+        }
+        // A batching sink completes the delivery later; the scheduler slot is free either way
+        delivered.whenComplete((generated, failure) -> finishJob(respondentId, job, lane, generated, failure));
+    }
+
+    /**
+     * Records the outcome of a report job and completes its future.
+     * 
+     * @param respondentId the respondent ID
+     * @param job the job registered for the respondent
+     * @param lane the lane the job was submitted to
+     * @param generated whether the report was generated and delivered
+     * @param thrown the failure of the job, {@code null} if it succeeded or was skipped
+     */
+    private void finishJob(Long respondentId, Job job, Lane lane, Boolean generated, Throwable thrown) {
+        Throwable failure = null;
+        if (thrown != null) {
+            Throwable cause = thrown instanceof CompletionException && thrown.getCause() != null ? thrown.getCause() : thrown;
+            Log.errorv(cause, "Failed to generate and upload family history report for respondent {}: {}",
+                    respondentId, cause.getMessage());
+            failure = new RuntimeException("Failed to process family history report", cause);
+        }
+
+        try {
             // Update RespondentPSA status using a separate transactional method
-            // since this callback executes outside the main transaction context
-            updateRespondentPSAStatus(status.getRespondentId(), throwable);
-        });
-        
-        return future;
+            // since this runs outside the job's transaction.
+            // A job skipped because another node holds the lock, or because a retry was already
+            // uploaded by another node, leaves the status alone, apart from the claim of a retry.
+            if (failure != null || Boolean.TRUE.equals(generated)) {
+                updateRespondentPSAStatus(respondentId, failure);
+            } else if (lane == Lane.RETRY) {
+                releaseRetryClaims(List.of(respondentId));
+            }
+        } finally {
+            inFlight.remove(respondentId, job);
+            if (failure != null) {
+                job.future.completeExceptionally(failure);
+            } else {
+                job.future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Describes the report job of a respondent.
+     * 
+     * @param respondentId the respondent ID
+     * @return {@code QUEUED} or {@code RUNNING} while the job is on this node, otherwise the
+     *         RespondentPSA status ({@code COMPLETED}, {@code FAILED}, ...), or empty if there is none
+     */
+    @Transactional
+    public Optional<String> getJobState(long respondentId) {
+        Job job = inFlight.get(respondentId);
+        if (job != null) {
+            return Optional.of(job.startedNanos == 0L ? "QUEUED" : "RUNNING");
+        }
+        Optional<String> pending = psaRecorder.pendingStatus(respondentId);
+        if (pending.isPresent()) {
+            return pending;
+        }
+        RespondentPSA respondentPSA = RespondentPSA.find("respondentId = ?1 and psaId = ?2",
+                respondentId, (long) psaId).firstResult();
+        return respondentPSA == null ? Optional.empty() : Optional.ofNullable(respondentPSA.status);
+    }
+
+    /**
+     * Rejects a job that the node cannot take on.
+     * 
+     * @param respondentId the respondent ID
+     * @param lane the lane the job was submitted to
+     * @param job the job that was registered for the respondent
+     * @param wait the estimated wait at submission
+     * @param reason why the job is rejected, for the log
+     * @return the rejected admission
+     */
+    private ReportAdmission reject(Long respondentId, Lane lane, Job job, Duration wait, String reason) {
+        Log.warnv("Rejecting family history report for respondent {}: {}", respondentId, reason);
+        RejectedExecutionException rejection = new RejectedExecutionException("Report queue saturated: " + reason);
+        inFlight.remove(respondentId, job);
+        if (lane != Lane.RETRY) {
+            // Recorded as FAILED so processUnsentUploads generates it if the caller does not
+            // retry; the report was never tried, so the rejection does not count as a try
+            psaRecorder.record(respondentId, rejection, false);
+        }
+        job.future.completeExceptionally(rejection);
+        return admitted(ReportAdmission.Outcome.REJECTED, lane, wait, job.future);
+    }
+
+    /**
+     * Counts an admission outcome and wraps it.
+     * 
+     * @param outcome what happened to the job
+     * @param lane the lane the job was submitted to
+     * @param wait the estimated wait at submission
+     * @param future the job's future
+     * @return the admission, holding a copy of the future so that cancelling it
+     *         cannot affect requests attached to the same job
+     */
+    private ReportAdmission admitted(ReportAdmission.Outcome outcome, Lane lane, Duration wait,
+                                     CompletableFuture<Void> future) {
+        Counter.builder("fhhs.report.admissions")
+                .description("Family history report submissions by lane and admission outcome")
+                .tag("lane", lane.name().toLowerCase())
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+        return new ReportAdmission(outcome, wait, future.copy());
     }
 
     /**
      * Scheduled task that processes failed uploads and retries them.
      * Runs every 15 minutes to check for RespondentPSA records with FAILED status
      * that haven't been uploaded yet and haven't exceeded retry limits.
+     * The retries run in the retry lane, so they never hold up first-time generations;
+     * each run queues at most as many as the lane has room for.
+     * 
+     * <p>The sweep runs on every node, on the wall-clock quarter hour by default, so the
+     * sweeps of a cluster overlap. The FAILED rows are split into
+     * {@code family.history.retry.partitions} partitions by respondent ID, and a sweep
+     * starts at a random partition and stops when its retry lane is full. It claims the
+     * rows it queues by setting them to {@code RETRYING} in a transaction of its own per
+     * partition, skipping rows locked by a concurrent sweep, before it submits them.
+     * Concurrent sweeps therefore never queue the same report, and every node adds retry
+     * capacity. The job's outcome replaces the claim; a retry that turns out not to be
+     * needed, or that could not be queued, is set back to {@code FAILED}. Claims older than
+     * {@code family.history.retry.claim-timeout} are given up first, in case the node that
+     * made them died.</p>
      */
-    @Scheduled(every = "15m")
-    @Transactional
+    @Scheduled(cron = "${family.history.retry.cron:0 */15 * * * ?}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
     void processUnsentUploads(){
 
         if (!sftpEnabled) {
@@ -266,50 +698,214 @@ public class FamilyHistoryReportService {
         }
 
         if (psaId != 0) {
-            // Get RespondentPSA records that have failed (status = FAILED and uploadedDt is null)
-            // and haven't exceeded retry limits (tries < 50)
-            List<RespondentPSA> unsentPSAs = RespondentPSA.find("psaId = ?1 AND status = ?2 AND uploadedDt IS NULL AND tries < ?3",
-                    psaId, "FAILED", 50).list();
-            
-            Log.infov("Found {} unsent uploads to retry", unsentPSAs.size());
-
-            for (RespondentPSA respondentPSA : unsentPSAs) {
-                try {
-                    Log.infov("Retrying upload for respondent {} (attempt {})",
-                            respondentPSA.respondentId, respondentPSA.tries + 1);
-                    
-                    // Get the status for this respondent
-                    Status status = Status.find("respondentId = ?1", respondentPSA.respondentId).firstResult();
-                    if (status != null) {
-                        // Try the upload again
-                        doGenerateAndUploadFamilyHistoryReport(status);
-                        // Update the RespondentPSA with no error
-                        updateRespondentPSAStatus(respondentPSA.respondentId, null);
-                    } else {
-                        Log.warnv("No status record found for respondent {}, skipping retry", respondentPSA.respondentId);
+            if (scheduler.remainingCapacity(Lane.RETRY) == 0) {
+                Log.infov("Retry lane is full ({} queued) - skipping this retry run", scheduler.queued(Lane.RETRY));
+                return;
+            }
+
+            int expired = QuarkusTransaction.requiringNew().call(this::expireRetryClaims);
+            if (expired > 0) {
+                Log.warnv("Gave up {} retry claim(s) older than {}", expired, retryClaimTimeout);
+            }
+
+            int partitions = Math.max(1, retryPartitions);
+            int first = ThreadLocalRandom.current().nextInt(partitions);
+            int claimed = 0;
+            int submitted = 0;
+            for (int i = 0; i < partitions; i++) {
+                int partition = (first + i) % partitions;
+                int room = scheduler.remainingCapacity(Lane.RETRY);
+                if (room == 0) {
+                    break;
+                }
+
+                // Claim RespondentPSA records that have failed (status = FAILED and uploadedDt
+                // is null) and haven't exceeded retry limits (tries < 50); the claim is
+                // committed before the retries are queued
+                List<Status> statuses = QuarkusTransaction.requiringNew().call(() -> claimRetries(partitions, partition, room));
+                claimed += statuses.size();
+
+                int queued = 0;
+                for (Status status : statuses) {
+                    Log.infov("Retrying upload for respondent {}", status.getRespondentId());
+                    // The job updates the RespondentPSA when it completes
+                    if (submit(status, Lane.RETRY).getOutcome() == ReportAdmission.Outcome.REJECTED) {
+                        break;
                     }
-                } catch (Exception e) {
-                    // Update the RespondentPSA with the new failure
-                    updateRespondentPSAStatus(respondentPSA.respondentId, e);
+                    queued++;
+                }
+                submitted += queued;
+                if (queued < statuses.size()) {
+                    // The lane filled up; give the rest back to the next sweep
+                    releaseRetryClaims(statuses.subList(queued, statuses.size()).stream()
+                            .map(Status::getRespondentId).toList());
+                    break;
                 }
             }
+
+            Log.infov("Retry sweep claimed {} and queued {} unsent upload(s)", claimed, submitted);
         } else {
             Log.warn("No Post Survey Action found with name 'Generate Family History Report'");
         }
     }
 
     /**
-     * Performs the actual report generation and upload work within a transaction.
-     * This method is called from the async executor to ensure proper transaction handling.
+     * Claims the FAILED, unsent uploads of a retry partition in the current transaction.
+     * Claimed rows without a status record are set back to {@code FAILED}.
+     * 
+     * @param partitions the number of partitions
+     * @param partition the partition
+     * @param limit the most rows to claim
+     * @return the status records of the claimed respondents
+     */
+    List<Status> claimRetries(int partitions, int partition, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Number> respondentIds = entityManager.createNativeQuery(CLAIM_RETRIES_SQL)
+                .setParameter(1, (long) psaId)
+                .setParameter(2, 50L)
+                .setParameter(3, (long) partitions)
+                .setParameter(4, (long) partition)
+                .setParameter(5, limit)
+                .getResultList();
+        List<Status> statuses = new ArrayList<>();
+        List<Long> orphans = new ArrayList<>();
+        for (Number id : respondentIds) {
+            long respondentId = id.longValue();
+            Status status = Status.find("respondentId = ?1", respondentId).firstResult();
+            if (status == null) {
+                Log.warnv("No status record found for respondent {}, skipping retry", respondentId);
+                orphans.add(respondentId);
+            } else {
+                statuses.add(status);
+            }
+        }
+        if (!orphans.isEmpty()) {
+            updateRetryClaims(orphans);
+        }
+        return statuses;
+    }
+
+    /**
+     * Sets the retries of respondents that are still claimed back to {@code FAILED}, in a
+     * transaction of its own, so the next sweep can claim them again.
+     * 
+     * @param respondentIds the respondent IDs
+     */
+    void releaseRetryClaims(List<Long> respondentIds) {
+        if (respondentIds.isEmpty()) {
+            return;
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> updateRetryClaims(respondentIds));
+        } catch (RuntimeException e) {
+            // The claim timeout gives them up eventually
+            Log.warnv("Could not release the retry claims of respondents {}: {}", respondentIds, e.getMessage());
+        }
+    }
+
+    /**
+     * Sets claimed retries back to {@code FAILED} in the current transaction.
+     * 
+     * @param respondentIds the respondent IDs
+     * @return the number of claims released
+     */
+    private int updateRetryClaims(List<Long> respondentIds) {
+        return entityManager.createNativeQuery("UPDATE survey.respondent_psa SET status = 'FAILED' "
+                        + "WHERE post_survey_action_id = ?1 AND status = 'RETRYING' AND respondent_id IN (?2)")
+                .setParameter(1, (long) psaId)
+                .setParameter(2, respondentIds)
+                .executeUpdate();
+    }
+
+    /**
+     * Gives up the retry claims older than the claim timeout in the current transaction.
+     * 
+     * @return the number of claims given up
+     */
+    int expireRetryClaims() {
+        return entityManager.createNativeQuery("UPDATE survey.respondent_psa SET status = 'FAILED' "
+                        + "WHERE post_survey_action_id = ?1 AND status = 'RETRYING' "
+                        + "AND claimed_dt < now() - make_interval(secs => ?2)")
+                .setParameter(1, (long) psaId)
+                .setParameter(2, (double) retryClaimTimeout.toSeconds())
+                .executeUpdate();
+    }
+
+    /**
+     * Performs the actual report generation and upload work.
+     * This method is called from the report scheduler.
+     * 
+     * <p>The respondent's advisory lock is taken first and held until the files were
+     * handed to the sink, so two nodes never write the same {@code {xid}.pdf} at the same time.</p>
+     * 
+     * @param status the status record containing respondent information
+     * @return {@code true} if the report was generated and uploaded, {@code false} if
+     *         another job holds the respondent's lock
+     * @throws Exception if report generation or upload fails
+     */
+    public boolean doGenerateAndUploadFamilyHistoryReport(Status status) throws Exception {
+        return doGenerateAndUploadFamilyHistoryReport(status, Lane.INTERACTIVE).join();
+    }
+
+    /**
+     * Performs the actual report generation and upload work.
+     * 
+     * <p>The respondent's lock is held on a connection of its own for the duration of the
+     * work; the database reads run in short transactions of their own, so no pooled
+     * connection is held while the report services are called or the files delivered.</p>
+     * 
+     * <p>A retry found by the sweep of one node may already have been uploaded by another
+     * node by the time it runs, so retries check again under the respondent's lock that the
+     * upload is still pending.</p>
+     * 
+     * <p>Bulk reports may go to a sink that bundles them into archives, in which case the
+     * returned future only completes once the archive was delivered, after the respondent's
+     * lock was released. Other sinks deliver before the method returns.</p>
+     * 
+     * @param status the status record containing respondent information
+     * @param lane the lane the job runs in
+     * @return completes with {@code true} once the report was generated and delivered, or
+     *         with {@code false} if another job holds the respondent's lock or the retry is
+     *         no longer needed
+     * @throws Exception if report generation or upload fails
+     * @see #doGenerateAndUploadFamilyHistoryReport(Status)
+     */
+    public CompletableFuture<Boolean> doGenerateAndUploadFamilyHistoryReport(Status status, Lane lane) throws Exception {
+        try (RespondentLock lock = tryLockRespondent(status.getRespondentId())) {
+            if (lock == null) {
+                Log.infov("Family history report for respondent {} is being generated by another job - skipping",
+                        status.getRespondentId());
+                return CompletableFuture.completedFuture(false);
+            }
+            return generateAndDeliver(status, lane);
+        }
+    }
+
+    /**
+     * Generates and delivers the report of a respondent whose lock is held.
      * 
      * @param status the status record containing respondent information
+     * @param lane the lane the job runs in
+     * @return completes with {@code true} once the report was delivered, or with
+     *         {@code false} if the retry is no longer needed
      * @throws Exception if report generation or upload fails
      */
-    @Transactional
-    public void doGenerateAndUploadFamilyHistoryReport(Status status) throws Exception {
+    private CompletableFuture<Boolean> generateAndDeliver(Status status, Lane lane) throws Exception {
+        if (lane == Lane.RETRY && !downstreamLimiter.call(Downstream.DATABASE,
+                () -> QuarkusTransaction.requiringNew().call(() -> isUploadPending(status.getRespondentId()))).booleanValue()) {
+            Log.infov("Family history report for respondent {} was already uploaded by another node - skipping retry",
+                    status.getRespondentId());
+            return CompletableFuture.completedFuture(false);
+        }
+
         Log.infov("Generating family history report for respondent {} with external ID {}",
                 status.getRespondentId(), status.getXid());
 
+        // Materialize the family history so the report services read indexed rows instead of
+        // pivoting fact_sections_view; done here rather than at admission so attached, locked
+        // and rejected requests do not pay for it
+        downstreamLimiter.call(Downstream.DATABASE, () -> snapshotService.refreshRespondent(status.getRespondentId()));
+
         // Generate PDF report
         Log.infov("Starting PDF generation for respondent: {}", status.getRespondentId());
         byte[] pdfData = generateFamilyHistoryPdf(status.getRespondentId());
@@ -323,99 +919,137 @@ public class FamilyHistoryReportService {
         Log.infov("XML metadata generated successfully: {} ({} bytes)", xmlFileName, xmlMetadata.length());
 
 
-        // Upload files to SFTP server
-        Log.infov("Starting SFTP upload for files: {} and {}", pdfFileName, xmlFileName);
+        // Deliver the files; the XML index goes last so consumers never see it before the PDF
+        Deadline.checkCurrent("delivery");
+        boolean bulk = lane == Lane.BULK;
+        Log.infov("Starting delivery of files {} and {} to the {} sink",
+                pdfFileName, xmlFileName, bulk ? "bulk" : reportDelivery.sinkFor(status).getName());
+        CompletableFuture<Void> delivered;
         try {
-            Log.infov("Uploading PDF file: {}", pdfFileName);
-            sftpService.uploadFile(pdfFileName, pdfData);
-            Log.infov("PDF file uploaded successfully: {}", pdfFileName);
+            delivered = reportDelivery.deliver(status, List.of(
+                    new DeliveryFile(pdfFileName, pdfData),
+                    new DeliveryFile(xmlFileName, xmlMetadata.getBytes(StandardCharsets.UTF_8))), bulk);
+            Log.debugv("XML content: {}", xmlMetadata);
         } catch (Exception e) {
-            Log.errorv(e, "Failed to upload PDF file {}: {}", pdfFileName, e.getMessage());
+            Log.errorv(e, "Failed to deliver files {} and {}: {}", pdfFileName, xmlFileName, e.getMessage());
             throw e;
         }
-        try {
-            Log.infov("Uploading XML file: {}", xmlFileName);
-            sftpService.uploadFile(xmlFileName, xmlMetadata.getBytes(StandardCharsets.UTF_8));
-            Log.infov("XML file uploaded successfully: {}", xmlFileName);
-            Log.infov("XML content: {}", xmlMetadata);
-        } catch (Exception e) {
-            Log.errorv(e, "Failed to upload XML file {}: {}", xmlFileName, e.getMessage());
-            throw e;
-        }
-        Log.infov("Successfully uploaded family history report files for external ID: {}", status.getXid());
+        return delivered.thenApply(ignored -> {
+            Log.infov("Successfully uploaded family history report files for external ID: {}", status.getXid());
+            return true;
+        });
     }
 
     /**
-     * Updates the RespondentPSA status tracking record in a separate transaction.
+     * Tries to take the advisory lock of a respondent on a connection of its own.
      * 
-     * <p>This method is called asynchronously from the CompletableFuture completion
-     * callback to update the execution status of a post-survey action. It runs in
-     * its own transaction context to ensure proper database operations.</p>
-     * 
-     * <p>The method will only create/update RespondentPSA records if the psaId
-     * corresponds to a valid post-survey action to avoid foreign key constraint
-     * violations.</p>
+     * <p>The connection is borrowed from {@link #lockDataSource} rather than the default
+     * pool, which the report endpoints called by the job need. Postgres releases the lock
+     * when the connection ends, so it cannot outlive a node that died.</p>
      * 
      * @param respondentId the respondent ID
-     * @param throwable the exception if the operation failed, null if successful
+     * @return the lock, to be closed once the files were handed to the sink, or {@code null} if
+     *         another session holds it
+     * @throws SQLException if no connection could be borrowed
      */
-    @Transactional
-    public void updateRespondentPSAStatus(Long respondentId, Throwable throwable) {
-        try {
-            // Skip if psaId is null or 0 to avoid foreign key constraint violations
-            if (this.psaId == 0) {
-                Log.warnv("Skipping RespondentPSA status update for respondent {} - invalid psaId: {}",
-                        respondentId, psaId);
-                return;
-            }
-
-            // Verify the post-survey action exists before creating RespondentPSA record
-            Long psaCount = PostSurveyAction.count("id = ?1", psaId);
-            if (psaCount == 0) {
-                Log.warnv("Skipping RespondentPSA status update for respondent {} - " +
-                        "post-survey action {} does not exist", respondentId, psaId);
-                return;
+    RespondentLock tryLockRespondent(long respondentId) throws SQLException {
+        Connection connection = lockDataSource.getConnection();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+            statement.setInt(1, REPORT_LOCK_CLASS_ID);
+            statement.setInt(2, Long.hashCode(respondentId));
+            try (ResultSet result = statement.executeQuery()) {
+                if (result.next() && result.getBoolean(1)) {
+                    return new RespondentLock(connection);
+                }
             }
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        connection.close();
+        return null;
+    }
 
-            // Find or create RespondentPSA record to track execution status
-            RespondentPSA respondentPSA = RespondentPSA.find("respondentId = ?1 and psaId = ?2",
-                    respondentId, psaId).firstResult();
-
-            if (respondentPSA == null) {
-                respondentPSA = new RespondentPSA();
-                respondentPSA.respondentId = respondentId;
-                respondentPSA.psaId = psaId;
-                respondentPSA.status = "STARTED";
-                Log.debugv("Created new RespondentPSA record for respondent {} and PSA {}",
-                        respondentId, psaId);
+    /**
+     * Checks whether another node is generating the report of a respondent.
+     * 
+     * <p>Reads {@code pg_locks} instead of trying the lock, on a connection of
+     * {@link #lockDataSource}. The check runs while the request admitting the job waits, so
+     * it neither suspends the request's transaction nor queues for a database permit behind
+     * running jobs. A node that takes the lock after the check is still caught by the lock
+     * taken when the job runs. If the check fails, the job is admitted and left to that
+     * lock.</p>
+     * 
+     * @param respondentId the respondent ID
+     * @return {@code true} if a session holds the advisory lock of the respondent
+     */
+    boolean isLockedElsewhere(long respondentId) {
+        try (Connection connection = lockDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(RESPONDENT_LOCKED_SQL)) {
+            statement.setInt(1, REPORT_LOCK_CLASS_ID);
+            statement.setInt(2, Long.hashCode(respondentId));
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
             }
+        } catch (SQLException | RuntimeException e) {
+            Log.warnv("Could not check the report lock of respondent {}: {}", respondentId, e.getMessage());
+            return false;
+        }
+    }
 
-            if (throwable != null) {
-                Log.errorv(throwable, "CompletableFuture completed exceptionally for respondent {}: {}",
-                        respondentId, throwable.getMessage());
-
-                // Update RespondentPSA with error status
-                respondentPSA.status = "FAILED";
-                respondentPSA.error = throwable.getMessage();
-
-            } else {
-                Log.infov("CompletableFuture completed successfully for respondent {}", respondentId);
+    /**
+     * Checks whether the upload of a respondent is still waiting to be retried.
+     * 
+     * @param respondentId the respondent ID
+     * @return {@code true} unless the RespondentPSA is no longer a FAILED or claimed, unsent upload
+     */
+    boolean isUploadPending(long respondentId) {
+        Optional<String> pending = psaRecorder.pendingStatus(respondentId);
+        if (pending.isPresent() && !"FAILED".equals(pending.get())) {
+            return false;
+        }
+        RespondentPSA respondentPSA = RespondentPSA.find("respondentId = ?1 and psaId = ?2",
+                respondentId, (long) psaId).firstResult();
+        return respondentPSA == null
+                || (("FAILED".equals(respondentPSA.status) || RETRYING.equals(respondentPSA.status))
+                    && respondentPSA.uploadedDt == null);
+    }
 
-                // Update RespondentPSA with success status
-                respondentPSA.status = "COMPLETED";
-                respondentPSA.error = null;
-                respondentPSA.uploadedDt = OffsetDateTime.now();
-            }
-            // Increment the tries value
-            respondentPSA.tries = respondentPSA.tries + 1;
-            respondentPSA.persist();
-            Log.debugv("Updated RespondentPSA status to {} for respondent {} and PSA {}",
-                    respondentPSA.status, respondentId, psaId);
+    /**
+     * Records the RespondentPSA status of a report job.
+     * 
+     * <p>This method is called when a report job completes to record the execution
+     * status of the post-survey action. The status is handed to the
+     * {@link RespondentPSARecorder}, which writes a failure at once and a success with
+     * other completions in one batched upsert shortly afterwards.</p>
+     * 
+     * <p>The recorder only writes RespondentPSA records if the psaId corresponds to a
+     * valid post-survey action to avoid foreign key constraint violations.</p>
+     * 
+     * @param respondentId the respondent ID
+     * @param throwable the exception if the operation failed, null if successful
+     */
+    public void updateRespondentPSAStatus(Long respondentId, Throwable throwable) {
+        if (throwable != null) {
+            Log.errorv(throwable, "CompletableFuture completed exceptionally for respondent {}: {}",
+                    respondentId, throwable.getMessage());
+        } else {
+            Log.infov("CompletableFuture completed successfully for respondent {}", respondentId);
+        }
+        psaRecorder.record(respondentId, throwable, true);
+    }
 
-        } catch (Exception e) {
-            Log.errorv(e, "Failed to update RespondentPSA status for respondent {} and PSA {}: {}",
-                    respondentId, psaId, e.getMessage());
-            // Don't rethrow - this is a status tracking operation that shouldn't fail the main process
+    /**
+     * Records report jobs that were not completed because the application shut down as
+     * FAILED, so the retry job picks them up, without counting a try.
+     * 
+     * @param respondentIds the respondents whose jobs were deferred
+     * @param reason the error recorded on the RespondentPSA
+     */
+    public void deferRespondentPSAStatus(List<Long> respondentIds, String reason) {
+        for (Long respondentId : respondentIds) {
+            Log.infov("Recording deferred report for respondent {}: {}", respondentId, reason);
+            psaRecorder.record(respondentId, new CancellationException(reason), false);
         }
     }
 
@@ -430,15 +1064,17 @@ public class FamilyHistoryReportService {
      * <p>The method checks if a request context is already active and activates
      * one if necessary, ensuring that request-scoped dependencies can be properly
      * injected and used during PDF generation.</p>
-     *
+     * 
+     * <p>The report definitions are read in a short transaction of their own under the
+     * {@code DATABASE} permit; the report services are called without holding a connection.</p>
+     * 
      * @param respondentId the respondent's unique identifier used to retrieve
      *                     family history data for the report
      * @return byte array containing the generated PDF data
      * @throws RuntimeException if PDF generation fails or respondent data cannot be retrieved
-     * @see PDFService#generatePDF(long)
+     * @see PDFService#generatePDF(long, List)
      * @see ManagedContext
      */
-    @Transactional
     public byte[] generateFamilyHistoryPdf(Long respondentId) {
         Log.debugv("Generating PDF for respondent: {}", respondentId);
 
@@ -447,18 +1083,30 @@ public class FamilyHistoryReportService {
 
         if (requestContext.isActive()) {
             // Request context is already active, proceed normally
-            return pdfService.generatePDF(respondentId);
+            return readAndGeneratePdf(respondentId);
         } else {
             // Activate request context programmatically
             requestContext.activate();
             try {
-                return pdfService.generatePDF(respondentId);
+                return readAndGeneratePdf(respondentId);
             } finally {
                 requestContext.terminate();
             }
         }
     }
 
+    /**
+     * Reads the report definitions in a short transaction, then generates the PDF.
+     *
+     * @param respondentId the respondent ID
+     * @return byte array containing the generated PDF data
+     */
+    private byte[] readAndGeneratePdf(long respondentId) {
+        List<ReportDefinition> reports = downstreamLimiter.call(Downstream.DATABASE,
+                () -> QuarkusTransaction.requiringNew().call(() -> pdfService.findReports(respondentId)));
+        return pdfService.generatePDF(respondentId, reports);
+    }
+
     /**
      * Generates XML metadata for a family history report.
      * 
@@ -510,4 +1158,76 @@ public class FamilyHistoryReportService {
     private String nullSafe(String value) {
         return value != null ? value : "";
     }
+
+    /**
+     * The advisory lock of a respondent, held on a pooled connection of its own.
+     */
+    static final class RespondentLock implements AutoCloseable {
+
+        /**
+         * The connection holding the lock.
+         */
+        private final Connection connection;
+
+        /**
+         * Creates the lock.
+         * 
+         * @param connection the connection holding the lock
+         */
+        RespondentLock(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Releases the lock and returns its connection to the pool.
+         * 
+         * <p>Every advisory lock of the session is released, so a pooled connection is never
+         * handed out again still holding one. If that fails the connection is broken, and
+         * Postgres releases the lock with the session.</p>
+         */
+        @Override
+        public void close() {
+            try (Connection held = connection;
+                 Statement statement = held.createStatement()) {
+                statement.execute("SELECT pg_advisory_unlock_all()");
+            } catch (SQLException e) {
+                Log.warnv("Could not release the respondent lock: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A report job registered for a respondent on this node.
+     */
+    private static final class Job {
+
+        /**
+         * Completes when the job finishes.
+         */
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        /**
+         * {@link System#nanoTime()} when a thread picked the job up, {@code 0} while queued.
+         */
+        volatile long startedNanos;
+
+        /**
+         * By when the job must be finished, set before the job is queued.
+         */
+        volatile Deadline deadline;
+
+        /**
+         * Set by whoever takes the job first: the thread running it or the shutdown drain.
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * Claims the job for running or for deferral.
+         * 
+         * @return {@code true} if the caller is the first to claim it
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
 }
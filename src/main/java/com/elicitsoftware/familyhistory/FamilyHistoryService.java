@@ -22,6 +22,9 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import io.quarkus.logging.Log;
 
+import java.net.URI;
+import java.util.Optional;
+
 /**
  * REST service for handling family history report generation and upload requests.
  * 
@@ -57,6 +60,12 @@ public class FamilyHistoryService {
     @Inject
     FamilyHistoryReportService reportService;
 
+    /**
+     * Injected watcher that pre-generates reports when automatic ingestion is enabled.
+     */
+    @Inject
+    FinalizationWatcher finalizationWatcher;
+
     /**
      * Endpoint for generating and uploading a family history report.
      * 
@@ -67,14 +76,24 @@ public class FamilyHistoryService {
      * 
      * <p>The operation is transactional to ensure data consistency during
      * the report generation process initiation.</p>
+     *
+     * <p>When {@code family.history.ingest.mode} is enabled the report is normally generated
+     * as soon as the survey is finalized, and this endpoint only checks its state: it reports
+     * an already uploaded or in-flight report, and otherwise hands the respondent to the
+     * {@link FinalizationWatcher} instead of generating inline.</p>
      * 
      * @param request the report generation request containing the respondent ID
      *                and other necessary information for report generation
      * @return HTTP response indicating success or failure:
      *         <ul>
-     *         <li>200 OK - Report generation successfully initiated</li>
+     *         <li>200 OK - Report generation successfully initiated, or already in progress on
+     *         this or another node</li>
+     *         <li>202 Accepted - Report queued behind other jobs; the {@code Location} header
+     *         points at {@link #jobStatus(long)}</li>
      *         <li>400 Bad Request - Missing or invalid respondent ID</li>
      *         <li>500 Internal Server Error - Unexpected error during processing</li>
+     *         <li>503 Service Unavailable - The node is saturated; retry after the number of
+     *         seconds in the {@code Retry-After} header</li>
      *         </ul>
      * @throws IllegalArgumentException if the request parameter is null
      * @see ReportRequest
@@ -111,13 +130,40 @@ public class FamilyHistoryService {
 
             Log.infov("Found status record for respondent {}: external ID = {}", request.id, status.getXid());
 
-            // Start the asynchronous report generation and upload
-            reportService.generateAndUploadFamilyHistoryReport(status);
+            if (finalizationWatcher.isEnabled()) {
+                return checkPreGeneratedReport(request.id);
+            }
 
-            Log.infov("Family history report generation initiated for respondent: {}", request.id);
+            // Start the asynchronous report generation and upload
+            ReportAdmission admission = reportService.submit(status);
 
-            return Response.ok(new FamilyHistoryReportResponse("Family history report generation initiated", true))
-                    .build();
+            switch (admission.getOutcome()) {
+                case REJECTED:
+                    Log.warnv("Family history report generation rejected for respondent {}, retry after {}s",
+                            request.id, admission.getRetryAfterSeconds());
+                    return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                            .header("Retry-After", admission.getRetryAfterSeconds())
+                            .entity(new FamilyHistoryReportResponse("Family history report queue is full, retry later", false))
+                            .build();
+                case QUEUED:
+                    Log.infov("Family history report generation queued for respondent {}, estimated wait {}",
+                            request.id, admission.getEstimatedWait());
+                    return Response.accepted(new FamilyHistoryReportResponse("Family history report generation queued", true))
+                            .location(URI.create("familyhistory/jobs/" + request.id))
+                            .build();
+                case ATTACHED:
+                    Log.infov("Family history report generation already in progress for respondent: {}", request.id);
+                    return Response.ok(new FamilyHistoryReportResponse("Family history report generation in progress", true))
+                            .build();
+                case LOCKED:
+                    Log.infov("Family history report generation in progress on another node for respondent: {}", request.id);
+                    return Response.ok(new FamilyHistoryReportResponse("Family history report generation in progress on another node", true))
+                            .build();
+                default:
+                    Log.infov("Family history report generation initiated for respondent: {}", request.id);
+                    return Response.ok(new FamilyHistoryReportResponse("Family history report generation initiated", true))
+                            .build();
+            }
 
         } catch (Exception e) {
             Log.errorv(e, "Failed to initiate family history report generation: {}", e.getMessage());
@@ -127,6 +173,55 @@ public class FamilyHistoryService {
         }
     }
     
+    /**
+     * Reports the state of a pre-generated report, scheduling it if the watcher has not yet.
+     *
+     * @param respondentId the respondent ID
+     * @return HTTP 200 OK response describing the report state
+     */
+    private Response checkPreGeneratedReport(long respondentId) {
+        if (finalizationWatcher.isReportCurrent(respondentId)) {
+            Log.infov("Family history report already generated for respondent: {}", respondentId);
+            return Response.ok(new FamilyHistoryReportResponse("Family history report already generated", true))
+                    .build();
+        }
+
+        if (finalizationWatcher.submit(respondentId) == FinalizationWatcher.Submission.IN_PROGRESS) {
+            Log.infov("Family history report generation already in progress for respondent: {}", respondentId);
+            return Response.ok(new FamilyHistoryReportResponse("Family history report generation in progress", true))
+                    .build();
+        }
+
+        Log.infov("Family history report generation scheduled for respondent: {}", respondentId);
+        return Response.ok(new FamilyHistoryReportResponse("Family history report generation scheduled", true))
+                .build();
+    }
+
+    /**
+     * Reports the state of a respondent's report job.
+     * 
+     * <p>This is the {@code Location} returned with 202 Accepted by
+     * {@link #generateFamilyHistoryReport(ReportRequest)}.</p>
+     * 
+     * @param respondentId the respondent ID
+     * @return HTTP 200 OK with {@code QUEUED}, {@code RUNNING}, {@code COMPLETED} or
+     *         {@code FAILED} as message, or 404 Not Found if the respondent has no job
+     */
+    @Path("/jobs/{respondentId}")
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @PermitAll
+    public Response jobStatus(@PathParam("respondentId") long respondentId) {
+        Optional<String> state = reportService.getJobState(respondentId);
+        if (state.isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new FamilyHistoryReportResponse("No family history report job for respondent " + respondentId, false))
+                    .build();
+        }
+        return Response.ok(new FamilyHistoryReportResponse(state.get(), !"FAILED".equals(state.get())))
+                .build();
+    }
+
         /**
      * Health check endpoint to verify the service is running.
      * 
@@ -0,0 +1,175 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.events.RespondentChangeEvent;
+import com.elicitsoftware.common.events.RespondentChangeListener;
+import com.elicitsoftware.model.CancerHistoryRepository;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+
+/**
+ * Keeps the materialized {@code surveyreport.fhhs_family_history} table up to date.
+ *
+ * <p>Respondents are materialized in two ways:</p>
+ * <ul>
+ * <li>Eagerly, when a report job of the respondent starts generating</li>
+ * <li>By a scheduled sweep that only processes respondents whose snapshot is missing,
+ *     older than their last finalization or marked stale</li>
+ * </ul>
+ *
+ * <p>Each respondent is refreshed in its own transaction so a failure for one respondent
+ * never rolls back the others. Until a respondent is refreshed, {@link CancerHistoryRepository}
+ * keeps reading it from {@code fact_sections_view}.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ * @see CancerHistoryRepository#refreshFamilyHistorySnapshot(long)
+ */
+@ApplicationScoped
+public class FamilyHistorySnapshotService {
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public FamilyHistorySnapshotService() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Whether the materialized family history table is used.
+     * Configured via the {@code family.history.snapshot.enabled} property.
+     * Defaults to {@code true}.
+     */
+    @ConfigProperty(name = "family.history.snapshot.enabled", defaultValue = "true")
+    boolean snapshotEnabled;
+
+    /**
+     * Maximum number of respondents refreshed by one scheduled sweep.
+     * Configured via the {@code family.history.snapshot.refresh.batch-size} property.
+     * Defaults to 100.
+     */
+    @ConfigProperty(name = "family.history.snapshot.refresh.batch-size", defaultValue = "100")
+    int batchSize;
+
+    /**
+     * Repository that owns the snapshot queries.
+     */
+    @Inject
+    CancerHistoryRepository cancerHistoryRepository;
+
+    /**
+     * Listener whose leadership decides which node invalidates snapshots.
+     */
+    @Inject
+    RespondentChangeListener changeListener;
+
+    /**
+     * Materializes the family history of a single respondent in a new transaction.
+     *
+     * <p>Failures are logged and swallowed; the respondent simply keeps being read from
+     * the view and will be picked up again by the next sweep.</p>
+     *
+     * @param respondentId the respondent identifier
+     * @return {@code true} if the snapshot was refreshed, {@code false} otherwise
+     */
+    public boolean refreshRespondent(long respondentId) {
+        if (!snapshotEnabled) {
+            return false;
+        }
+        try {
+            int rows = QuarkusTransaction.requiringNew()
+                    .call(() -> cancerHistoryRepository.refreshFamilyHistorySnapshot(respondentId));
+            Log.debugf("Materialized %d family history row(s) for respondent %d", rows, respondentId);
+            return true;
+        } catch (Exception e) {
+            Log.warnf(e, "Failed to materialize family history for respondent %d: %s", respondentId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Drops the snapshot of a respondent whose survey answers changed.
+     *
+     * <p>Driven by database notifications, so edits made after finalization are never served
+     * from a stale snapshot. Every node receives the same notification, so only the leader of
+     * the listeners acts on it. The respondent is read from the view until the next sweep
+     * materializes it again.</p>
+     *
+     * <p>The sweep only compares finalization dates, so it cannot see an edit whose
+     * notification was lost while no node was listening. When a node becomes leader it
+     * therefore marks every snapshot stale rather than deleting them; reports read the view
+     * until the sweep has refreshed the respondents again.</p>
+     *
+     * @param event the change event published by {@link RespondentChangeListener}
+     */
+    void onRespondentChange(@Observes RespondentChangeEvent event) {
+        if (!snapshotEnabled || !changeListener.isLeader()) {
+            return;
+        }
+        if (event.isResync() || event.isLeadership()) {
+            try {
+                QuarkusTransaction.requiringNew()
+                        .run(() -> cancerHistoryRepository.markAllFamilyHistorySnapshotsStale());
+                Log.info("Change notifications may have been lost - marked family history snapshots stale");
+            } catch (Exception e) {
+                Log.warnf(e, "Failed to mark family history snapshots stale: %s", e.getMessage());
+            }
+            return;
+        }
+        if (!event.isFamilyHistoryChange()) {
+            return;
+        }
+        long respondentId = event.getRespondentId();
+        try {
+            int rows = QuarkusTransaction.requiringNew()
+                    .call(() -> cancerHistoryRepository.invalidateFamilyHistorySnapshot(respondentId));
+            Log.debugf("Invalidated %d family history row(s) for respondent %d", rows, respondentId);
+        } catch (Exception e) {
+            Log.warnf(e, "Failed to invalidate family history for respondent %d: %s", respondentId, e.getMessage());
+        }
+    }
+
+    /**
+     * Scheduled sweep that refreshes new or re-finalized respondents.
+     * Runs every {@code family.history.snapshot.refresh.every} (default 5 minutes).
+     */
+    @Scheduled(every = "${family.history.snapshot.refresh.every:5m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refreshStaleSnapshots() {
+        if (!snapshotEnabled) {
+            return;
+        }
+
+        List<Long> respondentIds = QuarkusTransaction.requiringNew()
+                .call(() -> cancerHistoryRepository.findStaleSnapshotRespondentIds(batchSize));
+        if (respondentIds.isEmpty()) {
+            return;
+        }
+
+        int refreshed = 0;
+        for (Long respondentId : respondentIds) {
+            if (refreshRespondent(respondentId)) {
+                refreshed++;
+            }
+        }
+        Log.infof("Refreshed family history snapshot for %d of %d respondent(s)", refreshed, respondentIds.size());
+    }
+}
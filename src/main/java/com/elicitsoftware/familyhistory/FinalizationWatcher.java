@@ -0,0 +1,441 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.events.RespondentChangeEvent;
+import com.elicitsoftware.common.events.RespondentChangeListener;
+import com.elicitsoftware.familyhistory.ReportScheduler.Lane;
+import com.elicitsoftware.model.Status;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts family history report generation as soon as a survey is finalized.
+ *
+ * <p>Without this watcher, generation only starts when the post-survey action calls
+ * {@code /familyhistory/generate}. With {@code family.history.ingest.mode} set, newly finalized
+ * respondents are picked up automatically, so the report is usually uploaded before anyone
+ * asks and the endpoint only has to report its state.</p>
+ *
+ * <p>Supported modes:</p>
+ * <ul>
+ * <li>{@code none} - default; generation is driven by the endpoint only</li>
+ * <li>{@code notify} - reacts to {@link RespondentChangeEvent}s raised by the database triggers</li>
+ * <li>{@code poll} - pages through {@code survey.respondents} with a keyset on
+ *     {@code (finalized_dt, id)} every {@code family.history.ingest.poll.every}</li>
+ * </ul>
+ *
+ * <p>Requests are debounced per respondent: repeated triggers within
+ * {@code family.history.ingest.debounce-millis} collapse into one generation, and a respondent
+ * whose report is already in flight is not generated twice. Only respondents of surveys that
+ * carry the configured post-survey action ({@code family.history.upload.psa.id}) are processed,
+ * and respondents whose report was uploaded after their last finalization are skipped.</p>
+ *
+ * <p>Every node receives the notifications, but only the
+ * {@linkplain RespondentChangeListener#isLeader() leader} acts on them or polls, so a
+ * finalization is scheduled by one node rather than by every replica. Both modes therefore
+ * need the listener to be enabled. In {@code notify} mode the leader runs a catch-up scan
+ * when it takes over and after it reconnects, for finalizations raised while no node was
+ * leading.</p>
+ *
+ * <p>Respondents found by a catch-up scan that were finalized longer than
+ * {@code family.history.ingest.backfill-after} ago are generated in the bulk lane of the
+ * {@link ReportScheduler}, so a large backlog after downtime does not hold up fresh
+ * finalizations, which use the interactive lane.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ * @see FamilyHistoryReportService#generateAndUploadFamilyHistoryReport(Status)
+ */
+@ApplicationScoped
+public class FinalizationWatcher {
+
+    /**
+     * Ingestion modes supported by the watcher.
+     */
+    public enum IngestMode {
+        /** Generation is only started by the endpoint. */
+        NONE,
+        /** Generation is started by database notifications. */
+        NOTIFY,
+        /** Generation is started by polling for finalized respondents. */
+        POLL
+    }
+
+    /**
+     * Outcome of {@link #submit(long)}.
+     */
+    public enum Submission {
+        /** Generation was scheduled (or rescheduled) after the debounce delay. */
+        SCHEDULED,
+        /** A generation for the respondent is already running. */
+        IN_PROGRESS
+    }
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public FinalizationWatcher() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Configured ingestion mode: {@code none}, {@code notify} or {@code poll}.
+     * Configured via the {@code family.history.ingest.mode} property. Defaults to {@code none}.
+     */
+    @ConfigProperty(name = "family.history.ingest.mode", defaultValue = "none")
+    String ingestModeName;
+
+    /**
+     * Delay applied to each trigger before generation starts, in milliseconds.
+     * Configured via the {@code family.history.ingest.debounce-millis} property. Defaults to 5000.
+     */
+    @ConfigProperty(name = "family.history.ingest.debounce-millis", defaultValue = "5000")
+    long debounceMillis;
+
+    /**
+     * Maximum number of respondents read by one keyset page.
+     * Configured via the {@code family.history.ingest.poll.batch-size} property. Defaults to 100.
+     */
+    @ConfigProperty(name = "family.history.ingest.poll.batch-size", defaultValue = "100")
+    int pollBatchSize;
+
+    /**
+     * How far back the first scan after startup looks for finalized respondents.
+     * Configured via the {@code family.history.ingest.poll.lookback} property. Defaults to one hour.
+     */
+    @ConfigProperty(name = "family.history.ingest.poll.lookback", defaultValue = "PT1H")
+    Duration lookback;
+
+    /**
+     * Age of a finalization beyond which a catch-up scan generates the report in the bulk lane.
+     * Configured via the {@code family.history.ingest.backfill-after} property. Defaults to 10 minutes.
+     */
+    @ConfigProperty(name = "family.history.ingest.backfill-after", defaultValue = "PT10M")
+    Duration backfillAfter;
+
+    /**
+     * Post survey action whose surveys are watched and whose upload status is checked.
+     * Configured via the {@code family.history.upload.psa.id} property. Defaults to 1.
+     */
+    @ConfigProperty(name = "family.history.upload.psa.id", defaultValue = "1")
+    int psaId;
+
+    /**
+     * Injected JPA EntityManager for the keyset and status queries.
+     */
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Injected service that generates and uploads the reports.
+     */
+    @Inject
+    FamilyHistoryReportService reportService;
+
+    /**
+     * Injected listener telling whether this node acts on notifications.
+     */
+    @Inject
+    RespondentChangeListener changeListener;
+
+    /**
+     * The parsed ingestion mode.
+     */
+    private IngestMode ingestMode = IngestMode.NONE;
+
+    /**
+     * Single thread that runs debounced generations and catch-up scans.
+     */
+    private ScheduledExecutorService debouncer;
+
+    /**
+     * Debounced generations that have not started yet, by respondent ID.
+     */
+    private final Map<Long, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Respondents whose report is currently being generated.
+     */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Finalization date of the last respondent seen by the keyset scan.
+     */
+    private OffsetDateTime cursorFinalizedDt;
+
+    /**
+     * ID of the last respondent seen by the keyset scan.
+     */
+    private int cursorId;
+
+    /**
+     * Parses the configuration and starts the debounce thread when ingestion is enabled.
+     */
+    @PostConstruct
+    void init() {
+        try {
+            ingestMode = IngestMode.valueOf(ingestModeName.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            Log.warnf("Unknown family.history.ingest.mode '%s' - finalization watcher disabled", ingestModeName);
+            ingestMode = IngestMode.NONE;
+        }
+        if (ingestMode == IngestMode.NONE) {
+            return;
+        }
+
+        cursorFinalizedDt = OffsetDateTime.now().minus(lookback);
+        cursorId = 0;
+        debouncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "family-history-ingest");
+            t.setDaemon(true);
+            return t;
+        });
+        Log.infof("Finalization watcher started in %s mode (debounce %d ms, lookback %s)",
+                ingestMode, debounceMillis, lookback);
+        if (!changeListener.isEnabled()) {
+            Log.warn("Respondent change notifications are disabled - no node leads, so finalized respondents are not picked up");
+        }
+    }
+
+    /**
+     * Stops the debounce thread. Pending generations are dropped; the next catch-up scan
+     * after a restart picks them up again.
+     */
+    @PreDestroy
+    void destroy() {
+        if (debouncer != null) {
+            debouncer.shutdownNow();
+        }
+    }
+
+    /**
+     * Indicates whether automatic ingestion is enabled.
+     *
+     * @return {@code true} unless the mode is {@code none}
+     */
+    public boolean isEnabled() {
+        return ingestMode != IngestMode.NONE;
+    }
+
+    /**
+     * Schedules report generation for a respondent after the debounce delay.
+     * A generation already pending for the respondent is pushed back rather than duplicated.
+     *
+     * @param respondentId the respondent identifier
+     * @return whether generation was scheduled or is already running
+     * @throws IllegalStateException if ingestion is disabled
+     */
+    public Submission submit(long respondentId) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Finalization watcher is disabled");
+        }
+        if (inFlight.contains(respondentId)) {
+            return Submission.IN_PROGRESS;
+        }
+        schedule(respondentId, Lane.INTERACTIVE);
+        return Submission.SCHEDULED;
+    }
+
+    /**
+     * Checks whether the respondent's report was uploaded after its last finalization.
+     *
+     * @param respondentId the respondent identifier
+     * @return {@code true} if the uploaded report is current
+     */
+    public boolean isReportCurrent(long respondentId) {
+        return Boolean.TRUE.equals(findReportCurrent(respondentId));
+    }
+
+    /**
+     * Compares the respondent's last finalization with its last successful upload.
+     *
+     * @param respondentId the respondent identifier
+     * @return {@code null} if the respondent is unknown, not finalized or not in a survey of
+     *         the watched post-survey action, otherwise whether the uploaded report is current
+     */
+    private Boolean findReportCurrent(long respondentId) {
+        List<Object[]> rows = entityManager.createQuery("""
+                        SELECT r.finalizedDt, MAX(p.uploadedDt)
+                        FROM Respondent r
+                        LEFT JOIN RespondentPSA p
+                            ON p.respondentId = r.id AND p.psaId = :uploadPsaId AND p.status = 'COMPLETED'
+                        WHERE r.id = :respondentId
+                          AND r.survey.id IN (SELECT a.survey.id FROM PostSurveyAction a WHERE a.id = :psaId)
+                        GROUP BY r.finalizedDt
+                        """, Object[].class)
+                // RespondentPSA stores the action ID as a long, PostSurveyAction as an Integer
+                .setParameter("uploadPsaId", (long) psaId)
+                .setParameter("psaId", psaId)
+                .setParameter("respondentId", Math.toIntExact(respondentId))
+                .getResultList();
+        if (rows.isEmpty() || rows.get(0)[0] == null) {
+            return null;
+        }
+        OffsetDateTime finalized = (OffsetDateTime) rows.get(0)[0];
+        OffsetDateTime uploaded = (OffsetDateTime) rows.get(0)[1];
+        return uploaded != null && !uploaded.isBefore(finalized);
+    }
+
+    /**
+     * Schedules generation for respondents whose finalization or status changed, on the
+     * leader only. A leadership or resync event triggers a catch-up scan, since notifications
+     * may have been lost; this includes the first one after startup.
+     *
+     * @param event the change event
+     */
+    void onRespondentChange(@Observes RespondentChangeEvent event) {
+        if (ingestMode != IngestMode.NOTIFY || !changeListener.isLeader()) {
+            return;
+        }
+        if (event.isResync() || event.isLeadership()) {
+            debouncer.execute(this::catchUp);
+        } else if (RespondentChangeEvent.SOURCE_RESPONDENTS.equals(event.getSource())
+                || RespondentChangeEvent.SOURCE_STATUS.equals(event.getSource())) {
+            submit(event.getRespondentId());
+        }
+    }
+
+    /**
+     * Scheduled keyset scan used in {@code poll} mode, on the leader only.
+     * Runs every {@code family.history.ingest.poll.every} (default 30 seconds).
+     */
+    @Scheduled(every = "${family.history.ingest.poll.every:30s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void pollFinalized() {
+        if (ingestMode == IngestMode.POLL && changeListener.isLeader()) {
+            catchUp();
+        }
+    }
+
+    /**
+     * Pages through respondents finalized after the cursor and schedules each of them.
+     * Respondents finalized again move to the end of the keyset and are seen again.
+     * Finalizations older than {@link #backfillAfter} go to the bulk lane.
+     */
+    synchronized void catchUp() {
+        try {
+            int submitted = 0;
+            List<Object[]> page;
+            do {
+                page = QuarkusTransaction.requiringNew().call(this::findFinalizedAfterCursor);
+                OffsetDateTime backfillBefore = OffsetDateTime.now().minus(backfillAfter);
+                for (Object[] row : page) {
+                    cursorId = (Integer) row[0];
+                    cursorFinalizedDt = (OffsetDateTime) row[1];
+                    schedule(cursorId, cursorFinalizedDt.isBefore(backfillBefore) ? Lane.BULK : Lane.INTERACTIVE);
+                    submitted++;
+                }
+            } while (page.size() == pollBatchSize);
+
+            if (submitted > 0) {
+                Log.infof("Finalization watcher scheduled %d finalized respondent(s)", submitted);
+            }
+        } catch (Exception e) {
+            Log.errorf(e, "Finalization watcher scan failed: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the next keyset page of finalized respondents for the watched post-survey action.
+     *
+     * @return rows of {@code [id, finalizedDt]} ordered by finalization date and ID
+     */
+    private List<Object[]> findFinalizedAfterCursor() {
+        return entityManager.createQuery("""
+                        SELECT r.id, r.finalizedDt
+                        FROM Respondent r
+                        WHERE r.finalizedDt IS NOT NULL
+                          AND (r.finalizedDt > :finalizedDt OR (r.finalizedDt = :finalizedDt AND r.id > :id))
+                          AND r.survey.id IN (SELECT a.survey.id FROM PostSurveyAction a WHERE a.id = :psaId)
+                        ORDER BY r.finalizedDt, r.id
+                        """, Object[].class)
+                .setParameter("finalizedDt", cursorFinalizedDt)
+                .setParameter("id", cursorId)
+                .setParameter("psaId", psaId)
+                .setMaxResults(pollBatchSize)
+                .getResultList();
+    }
+
+    /**
+     * (Re)schedules the debounced generation of a respondent.
+     *
+     * @param respondentId the respondent identifier
+     * @param lane the lane the report is generated in
+     */
+    private void schedule(long respondentId, Lane lane) {
+        pending.compute(respondentId, (id, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return debouncer.schedule(() -> generate(id, lane), debounceMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Starts generation for a respondent once its debounce delay has elapsed.
+     *
+     * @param respondentId the respondent identifier
+     * @param lane the lane the report is generated in
+     */
+    private void generate(long respondentId, Lane lane) {
+        pending.remove(respondentId);
+        if (!inFlight.add(respondentId)) {
+            // Finalized again while the previous report was being generated
+            schedule(respondentId, lane);
+            return;
+        }
+
+        try {
+            Status status = QuarkusTransaction.requiringNew().call(() -> {
+                // Skip respondents that are not finalized or already have a current report
+                if (!Boolean.FALSE.equals(findReportCurrent(respondentId))) {
+                    return null;
+                }
+                return Status.<Status>find("respondentId", respondentId).firstResult();
+            });
+            if (status == null) {
+                Log.debugf("Respondent %d has no pending family history report", respondentId);
+                inFlight.remove(respondentId);
+                return;
+            }
+
+            Log.infof("Pre-generating family history report for finalized respondent %d", respondentId);
+            reportService.generateAndUploadFamilyHistoryReport(status, lane)
+                    .whenComplete((result, throwable) -> inFlight.remove(respondentId));
+        } catch (Exception e) {
+            inFlight.remove(respondentId);
+            Log.errorf(e, "Failed to start family history report for respondent %d: %s", respondentId, e.getMessage());
+        }
+    }
+}
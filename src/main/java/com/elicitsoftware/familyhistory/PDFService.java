@@ -11,6 +11,9 @@ package com.elicitsoftware.familyhistory;
  * ***LICENSE_END***
  */
 
+import com.elicitsoftware.common.concurrency.Deadline;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter.Downstream;
 import com.elicitsoftware.model.ReportDefinition;
 import com.elicitsoftware.model.Respondent;
 import com.elicitsoftware.request.ReportRequest;
@@ -24,6 +27,7 @@ import io.quarkus.logging.Log;
 import de.rototor.pdfbox.graphics2d.PdfBoxGraphics2D;
 import de.rototor.pdfbox.graphics2d.PdfBoxGraphics2DFontTextDrawer;
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
 import org.apache.batik.bridge.BridgeContext;
@@ -52,6 +56,9 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for generating PDF documents and reports.
@@ -162,64 +169,148 @@ public class PDFService {
     @ConfigProperty(name = "app.base.url")
     String baseUrl;
 
+    /**
+     * Caps the number of concurrent report URL calls.
+     */
+    @Inject
+    DownstreamLimiter downstreamLimiter;
+
     /**
      * Generates a PDF report for a specific respondent.
+     * <p>
+     * Reads the survey's report definitions and calls them, so it must run inside a
+     * transaction for its whole duration. Report jobs use {@link #findReports(long)} and
+     * {@link #generatePDF(long, List)} instead, so that they do not hold a connection while
+     * the report services are called.
+     * </p>
      *
      * @param respondentId the ID of the respondent
      * @return byte array containing the generated PDF
+     * @throws Deadline.ExceededException if the current deadline passed
+     * @throws RejectedExecutionException if a report service was not admitted in time
+     * @throws jakarta.ws.rs.WebApplicationException if a report service answered 503 or 504
      */
     public byte[] generatePDF(long respondentId) {
-        try {
-            //Get the respondent
-            Respondent respondent = Respondent.findById(respondentId);
-
-            // Create a new document
-            document = new PDDocument();
-            page = new PDPage(PDRectangle.LETTER);
-            document.addPage(page);
-            contentStream = new PDPageContentStream(document, page);
-            contentStream.setFont(TEXT_FONT, FONT_SIZE);
+        return generatePDF(respondentId, findReports(respondentId));
+    }
 
-            pageHeight = PDRectangle.LETTER.getHeight();
-            pageWidth = PDRectangle.LETTER.getWidth();
-            yPosition = pageHeight - TEXT_MARGIN;
+    /**
+     * Reads the report definitions of the respondent's survey. Must be called inside a
+     * transaction; the returned definitions can be used after it ended.
+     *
+     * @param respondentId the ID of the respondent
+     * @return the report definitions
+     */
+    public List<ReportDefinition> findReports(long respondentId) {
+        //Get the respondent
+        Respondent respondent = Respondent.findById(respondentId);
+        return new ArrayList<>(respondent.survey.reports);
+    }
 
+    /**
+     * Generates a PDF report for a specific respondent from the given report definitions.
+     * Needs no transaction.
+     * <p>
+     * Within a {@link Deadline}, every report call is bounded by the time left and told it
+     * in the {@value Deadline#HEADER} header, and the report fails rather than being
+     * rendered with error blocks once the time ran out.
+     * </p>
+     *
+     * @param respondentId the ID of the respondent
+     * @param reports the report definitions of the respondent's survey
+     * @return byte array containing the generated PDF
+     * @throws Deadline.ExceededException if the current deadline passed
+     * @throws RejectedExecutionException if a report service was not admitted in time
+     * @throws jakarta.ws.rs.WebApplicationException if a report service answered 503 or 504
+     */
+    public byte[] generatePDF(long respondentId, List<ReportDefinition> reports) {
+        try {
             //Make sure this is empty
             ArrayList<ReportResponse> reportResponses = new ArrayList<ReportResponse>();
             ReportResponse reportResponse;
-            for (ReportDefinition rpt : respondent.survey.reports) {
+            for (ReportDefinition rpt : reports) {
+                Deadline.checkCurrent("the " + rpt.name + " report");
                 reportResponse = callReport(rpt, respondentId);
                 reportResponses.add(reportResponse);
             }
 
-            for (ReportResponse response : reportResponses) {
-                if (response == null) {
-                    Log.warn("FHHS PDFService.generatePDF - Skipping null response");
-                    continue;
-                }
+            Deadline.checkCurrent("rendering");
 
-                Log.debugv("FHHS PDFService.generatePDF - Processing response: {}", response.title);
-                Log.debugv("  response.pdf is null: {}", (response.pdf == null));
-                if (response.pdf != null) {
-                    Log.debugv("  response.pdf.title: {}", response.pdf.title);
-                    Log.debugv("  response.pdf.content length: {}", (response.pdf.content != null ? response.pdf.content.length : "null"));
-                }
+            return render(reportResponses);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Renders report responses into a PDF document.
+     * <p>
+     * Text, table and SVG content are laid out in order. Also used by the
+     * {@link ReportWarmup} with synthetic responses, so the code paths are compiled before
+     * the first real report.
+     * </p>
+     *
+     * @param reportResponses the responses of the survey's report services, in order
+     * @return byte array containing the generated PDF
+     * @throws IOException if the PDF cannot be written
+     */
+    public byte[] render(List<ReportResponse> reportResponses) throws IOException {
+        // Create a new document
+        document = new PDDocument();
+        page = new PDPage(PDRectangle.LETTER);
+        document.addPage(page);
+        contentStream = new PDPageContentStream(document, page);
+        contentStream.setFont(TEXT_FONT, FONT_SIZE);
 
-                // If the PDF payload is missing, render a safe error block instead of crashing
-                if (response.pdf == null) {
-                    Log.warn("FHHS PDFService.generatePDF - PDF is null, rendering error block");
-                    String title = (response.title != null && !response.title.isEmpty()) ? response.title : "Report Generation Error";
-                    addTitleBlock(title);
-                    String errorText = (response.innerHTML != null && !response.innerHTML.isEmpty())
-                            ? response.innerHTML.replaceAll("[\\r\\n\\t]", " ").replaceAll("<[^>]+>", " ").replaceAll("&nbsp;", " ").trim()
-                            : "Failed to generate report content.";
-                    addTextBlock(errorText);
-                    // Move to next response
+        pageHeight = PDRectangle.LETTER.getHeight();
+        pageWidth = PDRectangle.LETTER.getWidth();
+        yPosition = pageHeight - TEXT_MARGIN;
+
+        for (ReportResponse response : reportResponses) {
+            if (response == null) {
+                Log.warn("FHHS PDFService.generatePDF - Skipping null response");
+                continue;
+            }
+
+            Log.debugv("FHHS PDFService.generatePDF - Processing response: {}", response.title);
+            Log.debugv("  response.pdf is null: {}", (response.pdf == null));
+            if (response.pdf != null) {
+                Log.debugv("  response.pdf.title: {}", response.pdf.title);
+                Log.debugv("  response.pdf.content length: {}", (response.pdf.content != null ? response.pdf.content.length : "null"));
+            }
+
+            // If the PDF payload is missing, render a safe error block instead of crashing
+            if (response.pdf == null) {
+                Log.warn("FHHS PDFService.generatePDF - PDF is null, rendering error block");
+                String title = (response.title != null && !response.title.isEmpty()) ? response.title : "Report Generation Error";
+                addTitleBlock(title);
+                String errorText = (response.innerHTML != null && !response.innerHTML.isEmpty())
+                        ? response.innerHTML.replaceAll("[\\r\\n\\t]", " ").replaceAll("<[^>]+>", " ").replaceAll("&nbsp;", " ").trim()
+                        : "Failed to generate report content.";
+                addTextBlock(errorText);
+                // Move to next response
+                continue;
+            }
+
+            // Close the current content stream if a new page is needed
+            if (response.pdf.pageBreak) {
+                contentStream.close();
+                page = new PDPage(PDRectangle.LETTER);
+                document.addPage(page);
+                contentStream = new PDPageContentStream(document, page);
+                contentStream.setFont(TEXT_FONT, FONT_SIZE);
+                yPosition = pageHeight - TEXT_MARGIN;
+            }
+
+            addTitleBlock(response.pdf.title);
+
+            for (Content content : response.pdf.content) {
+                if (content == null) {
+                    Log.warn("Content is null");
                     continue;
                 }
-
                 // Close the current content stream if a new page is needed
-                if (response.pdf.pageBreak) {
+                if (yPosition < TEXT_MARGIN + FONT_SIZE) {
                     contentStream.close();
                     page = new PDPage(PDRectangle.LETTER);
                     document.addPage(page);
@@ -228,47 +319,27 @@ public class PDFService {
                     yPosition = pageHeight - TEXT_MARGIN;
                 }
 
-                addTitleBlock(response.pdf.title);
-
-                for (Content content : response.pdf.content) {
-                    if (content == null) {
-                        Log.warn("Content is null");
-                        continue;
-                    }
-                    // Close the current content stream if a new page is needed
-                    if (yPosition < TEXT_MARGIN + FONT_SIZE) {
-                        contentStream.close();
-                        page = new PDPage(PDRectangle.LETTER);
-                        document.addPage(page);
-                        contentStream = new PDPageContentStream(document, page);
-                        contentStream.setFont(TEXT_FONT, FONT_SIZE);
-                        yPosition = pageHeight - TEXT_MARGIN;
-                    }
-
-                    // Add the content
-                    if (content.svg != null) {
-                        addSVG(content);
-                    } else if (content.table != null) {
-                        drawTable(createContent(content));
-                    } else {
-                        addTextBlock(content.text);
-                    }
+                // Add the content
+                if (content.svg != null) {
+                    addSVG(content);
+                } else if (content.table != null) {
+                    drawTable(createContent(content));
+                } else {
+                    addTextBlock(content.text);
                 }
             }
+        }
 
-            addHeadersAndFooters();
-
-            if (contentStream != null) {
-                contentStream.close();
-            }
+        addHeadersAndFooters();
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            document.save(outputStream);
-            document.close();
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        if (contentStream != null) {
+            contentStream.close();
         }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        document.save(outputStream);
+        document.close();
+        return outputStream.toByteArray();
     }
 
     /**
@@ -756,20 +827,45 @@ public class PDFService {
     /**
      * Calls a report service endpoint to generate report content.
      *
+     * <p>
+     * Errors of the report service are rendered as an error block in its place. A call
+     * that was not admitted, or whose deadline passed, fails the report instead, as does a
+     * 503 or 504 answer of the report service.
+     * </p>
+     *
      * @param rpt the report definition containing the service URL
      * @param respondentId the respondent ID for the report
      * @return the report response containing generated content
+     * @throws RejectedExecutionException if no report permit was granted in time or the
+     *         current deadline passed
+     * @throws jakarta.ws.rs.WebApplicationException if the report service answered 503 or 504
      */
     private ReportResponse callReport(ReportDefinition rpt, long respondentId) {
         try {
             ReportRequest request = new ReportRequest();
             request.id = respondentId;
-            ReportService reportService = RestClientBuilder.newBuilder()
-                    .baseUri(new URI(rpt.url))
-                    .build(ReportService.class);
-            ReportResponse reportResponse = reportService.callReport(request);
+            URI uri = new URI(rpt.url);
+            Optional<Deadline> deadline = Deadline.current();
+            // The timeouts and the header are taken after the permit, so the call gets what is left
+            ReportResponse reportResponse = downstreamLimiter.call(Downstream.REPORT, rpt.url, () -> {
+                RestClientBuilder builder = RestClientBuilder.newBuilder().baseUri(uri);
+                if (deadline.isPresent()) {
+                    long remainingMillis = Math.max(1L, deadline.get().remaining().toMillis());
+                    builder.connectTimeout(remainingMillis, TimeUnit.MILLISECONDS)
+                            .readTimeout(remainingMillis, TimeUnit.MILLISECONDS);
+                }
+                return builder.build(ReportService.class)
+                        .callReport(deadline.map(Deadline::headerValue).orElse(null), request);
+            });
             return reportResponse;
+        } catch (RejectedExecutionException e) {
+            // Includes Deadline.ExceededException; the job fails and is retried
+            throw e;
         } catch (jakarta.ws.rs.WebApplicationException e) {
+            if (e.getResponse() != null && (e.getResponse().getStatus() == 503 || e.getResponse().getStatus() == 504)) {
+                // The report service was overloaded or out of time; the job fails and is retried
+                throw e;
+            }
             // Extract detailed service error message
             String errorMessage = "Service error: " + e.getMessage();
             if (e.getResponse() != null) {
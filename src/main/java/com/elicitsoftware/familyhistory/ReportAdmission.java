@@ -0,0 +1,117 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Outcome of submitting a family history report job to the
+ * {@link FamilyHistoryReportService}.
+ *
+ * <p>Each lane of the {@link ReportScheduler} has a bounded queue. A submission is either
+ * started right away, queued behind other jobs, attached to a job already running for the
+ * same respondent, left to another node generating the same report, or rejected because
+ * the lane is full or the estimated wait is too long.
+ * The estimated wait is also what callers are told to wait before retrying a
+ * rejected submission.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see FamilyHistoryReportService#submit(com.elicitsoftware.model.Status)
+ */
+public final class ReportAdmission {
+
+    /**
+     * What happened to a submitted report job.
+     */
+    public enum Outcome {
+        /** A worker was free and the job started immediately. */
+        STARTED,
+        /** The job waits in the queue behind other jobs. */
+        QUEUED,
+        /** A job for the same respondent was already running or queued; the submission joined it. */
+        ATTACHED,
+        /** Another node is generating the respondent's report; no job was started. */
+        LOCKED,
+        /** The node is saturated; the job was not accepted. */
+        REJECTED,
+        /** SFTP upload is disabled, so there was nothing to do. */
+        DISABLED
+    }
+
+    /**
+     * What happened to the job.
+     */
+    private final Outcome outcome;
+
+    /**
+     * Estimated time until the job starts, at submission.
+     */
+    private final Duration estimatedWait;
+
+    /**
+     * Completes when the job finishes; completed exceptionally for rejected jobs.
+     */
+    private final CompletableFuture<Void> future;
+
+    /**
+     * Creates an admission result.
+     *
+     * @param outcome what happened to the job
+     * @param estimatedWait estimated time until the job starts
+     * @param future completes when the job finishes
+     */
+    ReportAdmission(Outcome outcome, Duration estimatedWait, CompletableFuture<Void> future) {
+        this.outcome = outcome;
+        this.estimatedWait = estimatedWait;
+        this.future = future;
+    }
+
+    /**
+     * Gets what happened to the job.
+     *
+     * @return the outcome
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Gets the estimated time until the job starts, at submission.
+     *
+     * @return the estimated wait, {@link Duration#ZERO} if a worker was free
+     */
+    public Duration getEstimatedWait() {
+        return estimatedWait;
+    }
+
+    /**
+     * Gets the number of seconds a rejected caller should wait before retrying.
+     *
+     * @return the estimated wait rounded up to whole seconds, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        long seconds = estimatedWait.toSeconds() + (estimatedWait.toMillisPart() > 0 ? 1 : 0);
+        return Math.max(1, seconds);
+    }
+
+    /**
+     * Gets the future that completes when the job finishes.
+     *
+     * @return the job's future
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+}
@@ -0,0 +1,610 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.concurrency.DownstreamLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs family history report jobs in priority lanes.
+ *
+ * <p>First-time generations, retries of failed uploads and bulk backfills each have their
+ * own bounded queue. Whenever a job slot frees up, the next job is taken from the lane with
+ * the lowest virtual time among the lanes that have queued work and are below their
+ * concurrency cap; running a job advances the lane's virtual time by {@code 1 / weight}
+ * (stride scheduling). A lane therefore receives slots in proportion to its weight while
+ * the others are busy, and all of them when they are idle, so fresh completions keep a low
+ * latency while a retry backlog drains.</p>
+ *
+ * <p>The number of job slots is the worker count ({@code family.history.async.threads}
+ * platform threads, or {@code family.history.async.virtual.max-jobs} virtual threads with
+ * {@code family.history.async.mode=virtual}). Jobs hold no transaction while they run;
+ * their short database reads are bounded by the {@code DATABASE} downstream limit of
+ * {@link DownstreamLimiter} instead. Queue depth, running jobs, capacity and the
+ * estimated wait of each lane are published as {@code fhhs.report.*} gauges tagged with
+ * the lane.</p>
+ *
+ * <p>On shutdown the {@link FamilyHistoryReportService} calls {@link #stopAccepting()} and
+ * {@link #awaitTermination(Duration)}: offers are refused from then on, queued jobs are
+ * dropped (the service persists them) and running jobs get a grace period to finish.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see FamilyHistoryReportService
+ */
+@ApplicationScoped
+public class ReportScheduler {
+
+    /**
+     * The priority lanes.
+     */
+    public enum Lane {
+        /** First-time generations for fresh survey completions. */
+        INTERACTIVE,
+        /** Retries of failed uploads by the scheduled retry job. */
+        RETRY,
+        /** Backfills of respondents finalized a while ago. */
+        BULK
+    }
+
+    /**
+     * How report jobs are executed.
+     */
+    public enum ExecutionMode {
+        /** A fixed pool of {@code family.history.async.threads} platform threads. */
+        PLATFORM,
+        /** Up to {@code family.history.async.virtual.max-jobs} virtual threads. */
+        VIRTUAL
+    }
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public ReportScheduler() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Number of threads for the async executor pool.
+     * Configured via the {@code family.history.async.threads} property.
+     * Defaults to 2 threads if not specified.
+     */
+    @ConfigProperty(name = "family.history.async.threads", defaultValue = "2")
+    int asyncThreads;
+
+    /**
+     * How report jobs are executed.
+     * Configured via the {@code family.history.async.mode} property.
+     * Defaults to {@link ExecutionMode#PLATFORM} if not specified.
+     */
+    @ConfigProperty(name = "family.history.async.mode", defaultValue = "platform")
+    ExecutionMode executionMode;
+
+    /**
+     * Maximum number of report jobs running at once in {@link ExecutionMode#VIRTUAL} mode.
+     * Configured via the {@code family.history.async.virtual.max-jobs} property.
+     * Defaults to 32 if not specified.
+     */
+    @ConfigProperty(name = "family.history.async.virtual.max-jobs", defaultValue = "32")
+    int virtualMaxJobs;
+
+    /**
+     * Job duration assumed until the first job has completed.
+     * Configured via the {@code family.history.async.initial-job-estimate} property.
+     * Defaults to 30 seconds if not specified.
+     */
+    @ConfigProperty(name = "family.history.async.initial-job-estimate", defaultValue = "PT30S")
+    Duration initialJobEstimate;
+
+    /**
+     * Share of the interactive lane.
+     * Configured via the {@code family.history.lanes.interactive.weight} property. Defaults to 8.
+     */
+    @ConfigProperty(name = "family.history.lanes.interactive.weight", defaultValue = "8")
+    int interactiveWeight;
+
+    /**
+     * Maximum number of interactive jobs running at once; {@code 0} means every slot.
+     * Configured via the {@code family.history.lanes.interactive.max-concurrency} property. Defaults to 0.
+     */
+    @ConfigProperty(name = "family.history.lanes.interactive.max-concurrency", defaultValue = "0")
+    int interactiveMaxConcurrency;
+
+    /**
+     * Maximum number of queued interactive jobs.
+     * Configured via the {@code family.history.lanes.interactive.queue-capacity} property. Defaults to 100.
+     */
+    @ConfigProperty(name = "family.history.lanes.interactive.queue-capacity", defaultValue = "100")
+    int interactiveQueueCapacity;
+
+    /**
+     * Share of the retry lane.
+     * Configured via the {@code family.history.lanes.retry.weight} property. Defaults to 2.
+     */
+    @ConfigProperty(name = "family.history.lanes.retry.weight", defaultValue = "2")
+    int retryWeight;
+
+    /**
+     * Maximum number of retry jobs running at once; {@code 0} means every slot.
+     * Configured via the {@code family.history.lanes.retry.max-concurrency} property. Defaults to 1.
+     */
+    @ConfigProperty(name = "family.history.lanes.retry.max-concurrency", defaultValue = "1")
+    int retryMaxConcurrency;
+
+    /**
+     * Maximum number of queued retry jobs.
+     * Configured via the {@code family.history.lanes.retry.queue-capacity} property. Defaults to 50.
+     */
+    @ConfigProperty(name = "family.history.lanes.retry.queue-capacity", defaultValue = "50")
+    int retryQueueCapacity;
+
+    /**
+     * Share of the bulk lane.
+     * Configured via the {@code family.history.lanes.bulk.weight} property. Defaults to 1.
+     */
+    @ConfigProperty(name = "family.history.lanes.bulk.weight", defaultValue = "1")
+    int bulkWeight;
+
+    /**
+     * Maximum number of bulk jobs running at once; {@code 0} means every slot.
+     * Configured via the {@code family.history.lanes.bulk.max-concurrency} property. Defaults to 1.
+     */
+    @ConfigProperty(name = "family.history.lanes.bulk.max-concurrency", defaultValue = "1")
+    int bulkMaxConcurrency;
+
+    /**
+     * Maximum number of queued bulk jobs.
+     * Configured via the {@code family.history.lanes.bulk.queue-capacity} property. Defaults to 1000.
+     */
+    @ConfigProperty(name = "family.history.lanes.bulk.queue-capacity", defaultValue = "1000")
+    int bulkQueueCapacity;
+
+    /**
+     * Registry the lane metrics are published to.
+     */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Dedicated executor for report jobs. This ensures reliable async execution in Docker
+     * containers where the common ForkJoinPool might not work properly. The scheduler never
+     * hands it more jobs than {@link #slots}, so its own queue stays empty.
+     */
+    private ExecutorService executor;
+
+    /**
+     * How many jobs can run at once: the worker count.
+     */
+    private int slots;
+
+    /**
+     * Number of jobs running across all lanes.
+     */
+    private int running;
+
+    /**
+     * State of each lane.
+     */
+    private final Map<Lane, LaneState> lanes = new EnumMap<>(Lane.class);
+
+    /**
+     * Set once the scheduler stops accepting jobs for shutdown.
+     */
+    private volatile boolean draining;
+
+    /**
+     * Exponentially weighted average duration of a report job in milliseconds,
+     * used to estimate how long a queued job waits.
+     */
+    private volatile long averageJobMillis;
+
+    /**
+     * Creates the executor and the lanes and registers the lane metrics.
+     */
+    @PostConstruct
+    void init() {
+        int workers;
+        ThreadFactory threadFactory;
+        if (executionMode == ExecutionMode.VIRTUAL) {
+            workers = virtualMaxJobs;
+            threadFactory = Thread.ofVirtual().name("family-history-async-vt-", 0).factory();
+            executor = Executors.newThreadPerTaskExecutor(threadFactory);
+        } else {
+            workers = asyncThreads;
+            threadFactory = Thread.ofPlatform().name("family-history-async-", 0).daemon(true).factory();
+            executor = Executors.newFixedThreadPool(workers, threadFactory);
+        }
+        slots = Math.max(1, workers);
+        averageJobMillis = initialJobEstimate.toMillis();
+
+        lanes.put(Lane.INTERACTIVE, new LaneState(interactiveWeight, interactiveMaxConcurrency, interactiveQueueCapacity));
+        lanes.put(Lane.RETRY, new LaneState(retryWeight, retryMaxConcurrency, retryQueueCapacity));
+        lanes.put(Lane.BULK, new LaneState(bulkWeight, bulkMaxConcurrency, bulkQueueCapacity));
+        registerMetrics();
+
+        Log.infof("Report scheduler started with %d %s worker(s), %d job slot(s) and lanes %s",
+                workers, executionMode, slots, lanes);
+    }
+
+    /**
+     * Interrupts the jobs still running after the drain.
+     */
+    @PreDestroy
+    void destroy() {
+        if (executor != null && !executor.isTerminated()) {
+            executor.shutdownNow();
+            Log.info("Report scheduler executor shutdown completed");
+        }
+    }
+
+    /**
+     * Stops accepting jobs and drops the queued ones. Jobs already handed to a thread keep
+     * running. The caller is responsible for persisting the dropped jobs.
+     *
+     * @return the number of queued jobs dropped
+     */
+    public synchronized int stopAccepting() {
+        draining = true;
+        int dropped = 0;
+        for (LaneState state : lanes.values()) {
+            dropped += state.queue.size();
+            state.queue.clear();
+        }
+        return dropped;
+    }
+
+    /**
+     * Indicates whether new jobs are accepted.
+     *
+     * @return {@code false} once {@link #stopAccepting()} was called
+     */
+    public boolean isAccepting() {
+        return !draining;
+    }
+
+    /**
+     * Shuts the executor down and waits for the running jobs to finish.
+     *
+     * @param timeout how long to wait
+     * @return {@code true} if every job finished in time
+     */
+    public boolean awaitTermination(Duration timeout) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Queues a job in a lane and starts it if a slot is free.
+     *
+     * @param lane the lane
+     * @param job the job
+     * @return {@code false} if the lane's queue is full or the scheduler is shutting down
+     */
+    public boolean offer(Lane lane, Runnable job) {
+        synchronized (this) {
+            LaneState state = lanes.get(lane);
+            if (draining || state.queue.size() >= state.queueCapacity) {
+                return false;
+            }
+            if (state.isIdle()) {
+                // A lane that was idle must not bank the turns it did not use
+                state.pass = Math.max(state.pass, minActivePass());
+            }
+            state.queue.add(job);
+        }
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Indicates whether a job offered to a lane now would start immediately.
+     *
+     * @param lane the lane
+     * @return {@code true} if the lane has no queue and a slot is free for it
+     */
+    public synchronized boolean hasFreeSlot(Lane lane) {
+        LaneState state = lanes.get(lane);
+        return state.queue.isEmpty() && running < slots && state.belowCap(slots);
+    }
+
+    /**
+     * Gets the number of jobs waiting in a lane.
+     *
+     * @param lane the lane
+     * @return the queue depth
+     */
+    public synchronized int queued(Lane lane) {
+        return lanes.get(lane).queue.size();
+    }
+
+    /**
+     * Gets the number of jobs running in a lane.
+     *
+     * @param lane the lane
+     * @return the running jobs
+     */
+    public synchronized int running(Lane lane) {
+        return lanes.get(lane).running;
+    }
+
+    /**
+     * Gets the number of jobs a lane can still queue.
+     *
+     * @param lane the lane
+     * @return the free queue capacity
+     */
+    public synchronized int remainingCapacity(Lane lane) {
+        LaneState state = lanes.get(lane);
+        return Math.max(0, state.queueCapacity - state.queue.size());
+    }
+
+    /**
+     * Estimates how long a job offered to a lane now waits before it starts.
+     *
+     * <p>The lane is assumed to get its weighted share of the slots among the lanes that
+     * have work, capped by its concurrency limit; the jobs queued ahead are worked off that
+     * many at a time, each taking the average job duration.</p>
+     *
+     * @param lane the lane
+     * @return the estimated wait
+     */
+    public synchronized Duration estimatedWait(Lane lane) {
+        LaneState state = lanes.get(lane);
+        if (state.queue.isEmpty() && running < slots && state.belowCap(slots)) {
+            return Duration.ZERO;
+        }
+        int activeWeight = state.weight;
+        for (LaneState other : lanes.values()) {
+            if (other != state && !other.isIdle()) {
+                activeWeight += other.weight;
+            }
+        }
+        int share = Math.max(1, Math.min(state.cap(slots), slots * state.weight / activeWeight));
+        long rounds = state.queue.size() / share + 1L;
+        return Duration.ofMillis(rounds * averageJobMillis);
+    }
+
+    /**
+     * Starts queued jobs while slots are free, picking lanes by weighted fair share.
+     */
+    private void dispatch() {
+        while (true) {
+            LaneState next = null;
+            Runnable job;
+            synchronized (this) {
+                if (running >= slots) {
+                    return;
+                }
+                for (LaneState state : lanes.values()) {
+                    // Ties go to the lane declared first, i.e. the interactive lane
+                    if (!state.queue.isEmpty() && state.belowCap(slots)
+                            && (next == null || state.pass < next.pass)) {
+                        next = state;
+                    }
+                }
+                if (next == null) {
+                    return;
+                }
+                job = next.queue.poll();
+                next.pass += 1.0 / next.weight;
+                next.running++;
+                running++;
+            }
+            next.dispatched.increment();
+            LaneState lane = next;
+            try {
+                executor.execute(() -> run(lane, job));
+            } catch (RejectedExecutionException e) {
+                // Shutting down: put the job back; the drain already persisted it
+                synchronized (this) {
+                    lane.running--;
+                    running--;
+                    lane.queue.addFirst(job);
+                }
+                Log.warnf("Report executor rejected a job: %s", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs a job and frees its slot.
+     *
+     * @param lane the lane the job came from
+     * @param job the job
+     */
+    private void run(LaneState lane, Runnable job) {
+        long start = System.nanoTime();
+        try {
+            job.run();
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Report job failed: %s", e.getMessage());
+        } finally {
+            recordJobDuration(System.nanoTime() - start);
+            synchronized (this) {
+                lane.running--;
+                running--;
+            }
+            dispatch();
+        }
+    }
+
+    /**
+     * Gets the lowest virtual time among lanes with queued or running jobs.
+     *
+     * @return the lowest active pass, or {@code 0} if every lane is idle
+     */
+    private double minActivePass() {
+        double min = Double.MAX_VALUE;
+        for (LaneState state : lanes.values()) {
+            if (!state.isIdle()) {
+                min = Math.min(min, state.pass);
+            }
+        }
+        return min == Double.MAX_VALUE ? 0 : min;
+    }
+
+    /**
+     * Folds the duration of a completed job into the average.
+     *
+     * @param nanos the job duration in nanoseconds
+     */
+    private synchronized void recordJobDuration(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        averageJobMillis += (millis - averageJobMillis) / 5;
+    }
+
+    /**
+     * Registers the gauges and counters of each lane.
+     */
+    private void registerMetrics() {
+        for (Map.Entry<Lane, LaneState> entry : lanes.entrySet()) {
+            Lane lane = entry.getKey();
+            LaneState state = entry.getValue();
+            String tag = lane.name().toLowerCase();
+            Gauge.builder("fhhs.report.queue.depth", this, scheduler -> scheduler.queued(lane))
+                    .description("Family history report jobs waiting in a lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("fhhs.report.queue.capacity", state, s -> s.queueCapacity)
+                    .description("Maximum number of family history report jobs waiting in a lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("fhhs.report.jobs.active", this, scheduler -> scheduler.running(lane))
+                    .description("Family history report jobs running from a lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("fhhs.report.queue.estimated.wait", this,
+                            scheduler -> scheduler.estimatedWait(lane).toMillis() / 1000.0)
+                    .description("Estimated wait of a family history report job submitted to a lane now")
+                    .baseUnit("seconds")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            state.dispatched = Counter.builder("fhhs.report.jobs.dispatched")
+                    .description("Family history report jobs started from a lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queue, limits and scheduling state of one lane. Guarded by the scheduler's monitor.
+     */
+    private static final class LaneState {
+
+        /**
+         * Relative share of the job slots.
+         */
+        final int weight;
+
+        /**
+         * Maximum number of running jobs, {@code 0} for no cap.
+         */
+        final int maxConcurrency;
+
+        /**
+         * Maximum number of queued jobs.
+         */
+        final int queueCapacity;
+
+        /**
+         * Jobs waiting for a slot.
+         */
+        final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+
+        /**
+         * Jobs running.
+         */
+        int running;
+
+        /**
+         * Virtual time; the lane with the lowest pass runs next.
+         */
+        double pass;
+
+        /**
+         * Counts the jobs started from this lane.
+         */
+        Counter dispatched;
+
+        /**
+         * Creates a lane.
+         *
+         * @param weight relative share of the job slots
+         * @param maxConcurrency maximum number of running jobs, {@code 0} for no cap
+         * @param queueCapacity maximum number of queued jobs
+         */
+        LaneState(int weight, int maxConcurrency, int queueCapacity) {
+            this.weight = Math.max(1, weight);
+            this.maxConcurrency = Math.max(0, maxConcurrency);
+            this.queueCapacity = Math.max(0, queueCapacity);
+        }
+
+        /**
+         * Indicates whether the lane has neither queued nor running jobs.
+         *
+         * @return {@code true} if idle
+         */
+        boolean isIdle() {
+            return queue.isEmpty() && running == 0;
+        }
+
+        /**
+         * Gets the effective concurrency cap of the lane.
+         *
+         * @param slots the total number of job slots
+         * @return the cap, at most {@code slots}
+         */
+        int cap(int slots) {
+            return maxConcurrency == 0 ? slots : Math.min(maxConcurrency, slots);
+        }
+
+        /**
+         * Indicates whether the lane may start another job.
+         *
+         * @param slots the total number of job slots
+         * @return {@code true} if the lane is below its cap
+         */
+        boolean belowCap(int slots) {
+            return running < cap(slots);
+        }
+
+        @Override
+        public String toString() {
+            return "{weight=" + weight + ", maxConcurrency=" + maxConcurrency + ", queueCapacity=" + queueCapacity + "}";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Readiness check for the family history report scheduler.
+ * <p>
+ * Reports down once the application starts draining its report jobs for shutdown, so the
+ * load balancer stops sending {@code /familyhistory/generate} requests to this node while
+ * the running jobs finish.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see FamilyHistoryReportService
+ */
+@Readiness
+@ApplicationScoped
+public class ReportSchedulerHealthCheck implements HealthCheck {
+
+    /**
+     * The scheduler whose state is reported.
+     */
+    @Inject
+    ReportScheduler scheduler;
+
+    /**
+     * Default constructor.
+     * CDI container will instantiate this class and inject dependencies.
+     */
+    public ReportSchedulerHealthCheck() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        if (scheduler.isAccepting()) {
+            return HealthCheckResponse.up("Family history report scheduler accepting jobs");
+        }
+        return HealthCheckResponse.down("Family history report scheduler draining for shutdown");
+    }
+}
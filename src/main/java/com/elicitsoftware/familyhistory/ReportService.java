@@ -11,9 +11,11 @@ package com.elicitsoftware.familyhistory;
  * ***LICENSE_END***
  */
 
+import com.elicitsoftware.common.concurrency.Deadline;
 import com.elicitsoftware.request.ReportRequest;
 import com.elicitsoftware.response.ReportResponse;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
@@ -38,6 +40,8 @@ public interface ReportService {
     /**
      * Calls the external report service to generate a report based on the provided request.
      *
+     * @param remainingMillis milliseconds left to the job's deadline, sent in the
+     *                        {@value Deadline#HEADER} header; {@code null} to send none
      * @param request The report request containing parameters for report generation
      * @return ReportResponse containing the generated report data
      * @throws jakarta.ws.rs.WebApplicationException if validation fails, service errors occur, or communication fails
@@ -45,5 +49,5 @@ public interface ReportService {
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    ReportResponse callReport(ReportRequest request);
+    ReportResponse callReport(@HeaderParam(Deadline.HEADER) String remainingMillis, ReportRequest request);
 }
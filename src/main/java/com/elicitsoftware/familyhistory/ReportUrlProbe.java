@@ -0,0 +1,102 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.health.DependencyProbe;
+import com.elicitsoftware.common.health.HttpProbe;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Probes the report services named by the {@code ReportDefinition} URLs.
+ * <p>
+ * The URLs are read again before every round, so reports added to a survey are picked up.
+ * Each host is probed once, as {@code report:<host>[:port]}, however many reports it serves.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see PDFService
+ */
+@ApplicationScoped
+public class ReportUrlProbe implements DependencyProbe {
+
+    /**
+     * Prefix of the report dependency names.
+     */
+    static final String PREFIX = "report:";
+
+    /**
+     * Longest time a report service may take to answer.
+     */
+    @ConfigProperty(name = "family.history.health.timeout", defaultValue = "PT10S")
+    Duration timeout;
+
+    /**
+     * Entity manager used to read the report URLs.
+     */
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * A report URL per dependency name, from the last round.
+     */
+    private volatile Map<String, URI> urls = Map.of();
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public ReportUrlProbe() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public List<String> dependencies() {
+        List<String> definitions = QuarkusTransaction.requiringNew().call(() -> entityManager
+                .createQuery("SELECT DISTINCT r.url FROM ReportDefinition r WHERE r.url IS NOT NULL", String.class)
+                .getResultList());
+        Map<String, URI> byHost = new TreeMap<>();
+        for (String url : definitions) {
+            try {
+                URI uri = URI.create(url.trim());
+                if (uri.getHost() != null) {
+                    byHost.putIfAbsent(PREFIX + uri.getAuthority(), uri);
+                }
+            } catch (IllegalArgumentException e) {
+                Log.warnv("Skipping invalid report URL {}: {}", url, e.getMessage());
+            }
+        }
+        urls = byHost;
+        return new ArrayList<>(byHost.keySet());
+    }
+
+    @Override
+    public void check(String dependency) throws Exception {
+        URI uri = urls.get(dependency);
+        if (uri == null) {
+            throw new IllegalStateException("No report URL for " + dependency);
+        }
+        HttpProbe.check(uri, timeout);
+    }
+}
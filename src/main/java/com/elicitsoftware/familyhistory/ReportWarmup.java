@@ -0,0 +1,317 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.model.CancerType;
+import com.elicitsoftware.model.Family;
+import com.elicitsoftware.model.FamilyHistoryRecord;
+import com.elicitsoftware.model.FamilyManager;
+import com.elicitsoftware.model.PedigreeWriter;
+import com.elicitsoftware.response.ReportResponse;
+import com.elicitsoftware.response.pdf.Content;
+import com.elicitsoftware.response.pdf.PDFDocument;
+import com.elicitsoftware.response.pdf.Table;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Warms up the report pipeline before the node reports ready.
+ * <p>
+ * The first reports after a deploy are several times slower than the rest: PDFBox loads
+ * its fonts, Batik loads and links its bridge classes, JSON-B builds its mappings, Hibernate
+ * prepares its queries and none of it is compiled yet. Right after startup this class
+ * renders synthetic report responses through the {@link PDFService} (title, text, table and
+ * SVG content), round-trips them through JSON-B, builds a synthetic family through the
+ * {@link FamilyManager} and writes its pedigree, and runs the family history query for a
+ * respondent that does not exist. It repeats this {@code family.history.warmup.iterations}
+ * times so the JIT compiles the hot paths.
+ * </p>
+ * <p>
+ * The {@link ReportWarmupHealthCheck} keeps readiness down until the warm-up finished, so
+ * the first real patient does not pay for it. A failing step is logged and skipped; it does
+ * not keep the node unready. The time taken is logged and recorded as
+ * {@code fhhs.warmup.duration}.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class ReportWarmup {
+
+    /**
+     * A small SVG using the shapes and text of a pedigree drawing.
+     */
+    private static final String SVG = """
+            <svg xmlns="http://www.w3.org/2000/svg" width="400" height="200" viewBox="0 0 400 200">
+              <rect x="40" y="20" width="30" height="30" fill="#ffffff" stroke="#000000"/>
+              <circle cx="185" cy="35" r="15" fill="#808080" stroke="#000000"/>
+              <line x1="70" y1="35" x2="170" y2="35" stroke="#000000"/>
+              <path d="M120 35 L120 100 L55 100 L55 130 M120 100 L185 100 L185 130" fill="none" stroke="#000000"/>
+              <rect x="40" y="130" width="30" height="30" fill="#000000"/>
+              <circle cx="185" cy="145" r="15" fill="#ffffff" stroke="#000000"/>
+              <text x="40" y="180" font-family="Helvetica" font-size="10">Proband, 45</text>
+              <text x="170" y="180" font-family="Helvetica" font-size="10">Sibling, 50</text>
+            </svg>
+            """;
+
+    /**
+     * Whether the warm-up runs.
+     */
+    @ConfigProperty(name = "family.history.warmup.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /**
+     * How many times the synthetic work is repeated.
+     */
+    @ConfigProperty(name = "family.history.warmup.iterations", defaultValue = "3")
+    int iterations;
+
+    /**
+     * Renders the synthetic reports.
+     */
+    @Inject
+    PDFService pdfService;
+
+    /**
+     * Builds the synthetic family and runs the family history query.
+     */
+    @Inject
+    FamilyManager familyManager;
+
+    /**
+     * Registry the warm-up time is recorded in.
+     */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Whether the warm-up finished or is disabled.
+     */
+    private volatile boolean done;
+
+    /**
+     * How long the warm-up took.
+     */
+    private volatile Duration duration = Duration.ZERO;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public ReportWarmup() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Starts the warm-up on a background thread once the application started.
+     *
+     * @param event the startup event
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled || iterations <= 0) {
+            Log.info("Report warm-up disabled via family.history.warmup.enabled/iterations");
+            done = true;
+            return;
+        }
+        Thread.ofPlatform().name("family-history-warmup").daemon().start(this::warmUp);
+    }
+
+    /**
+     * Checks whether the warm-up finished.
+     *
+     * @return {@code true} once the warm-up finished, or if it is disabled
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Gets how long the warm-up took.
+     *
+     * @return the duration, zero until it finished
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Runs the synthetic work {@link #iterations} times.
+     */
+    void warmUp() {
+        Log.infov("Warming up the report pipeline with {} iteration(s)", iterations);
+        long start = System.nanoTime();
+        try {
+            List<ReportResponse> responses = syntheticResponses();
+            List<FamilyHistoryRecord> records = syntheticFamily();
+            Jsonb jsonb = JsonbBuilder.create();
+            for (int i = 0; i < iterations; i++) {
+                step("JSON-B", () -> jsonb.fromJson(jsonb.toJson(responses.getFirst()), ReportResponse.class));
+                step("PDF", () -> render(responses));
+                step("family", () -> {
+                    Family family = familyManager.buildFamily(records);
+                    PedigreeWriter writer = PedigreeWriter.acquire();
+                    writer.writeFamily(family);
+                    writer.reset();
+                });
+                step("query", () -> QuarkusTransaction.requiringNew().run(() -> familyManager.findByRespondentid(-1L)));
+            }
+            jsonb.close();
+        } catch (Exception e) {
+            Log.warnv(e, "Report warm-up failed: {}", e.getMessage());
+        } finally {
+            duration = Duration.ofNanos(System.nanoTime() - start);
+            Timer.builder("fhhs.warmup.duration")
+                    .description("Time spent warming up the report pipeline at startup")
+                    .register(meterRegistry)
+                    .record(duration);
+            done = true;
+            Log.infov("Report pipeline warmed up in {} ms", duration.toMillis());
+        }
+    }
+
+    /**
+     * Renders the synthetic reports within a request context, as a report job does.
+     *
+     * @param responses the synthetic responses
+     * @throws Exception if rendering fails
+     */
+    private void render(List<ReportResponse> responses) throws Exception {
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            pdfService.render(responses);
+        } finally {
+            requestContext.terminate();
+        }
+    }
+
+    /**
+     * Runs one warm-up step, logging instead of propagating a failure.
+     *
+     * @param name the step name
+     * @param step the step
+     */
+    private static void step(String name, Step step) {
+        try {
+            step.run();
+        } catch (Exception e) {
+            Log.warnv("Report warm-up step {} failed: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * A warm-up step.
+     */
+    @FunctionalInterface
+    private interface Step {
+
+        /**
+         * Runs the step.
+         *
+         * @throws Exception if the step fails
+         */
+        void run() throws Exception;
+    }
+
+    /**
+     * Builds report responses covering the text, table and SVG content paths.
+     *
+     * @return the responses
+     */
+    private static List<ReportResponse> syntheticResponses() {
+        Content text = new Content();
+        text.text = "This synthetic report warms up the PDF pipeline. It wraps across more than one line "
+                + "so that line breaking and font metrics are exercised as they are for a real report.";
+
+        Table table = new Table();
+        table.headers = new String[]{"Relative", "Cancer", "Age at diagnosis"};
+        table.widths = new float[]{0.4f, 0.4f, 0.2f};
+        table.body = new String[][]{
+                {"Mother", "Breast", "48"},
+                {"Maternal Grandmother", "Ovarian", "61"},
+                {"Father", "Colon or rectal", "55"},
+        };
+
+        PDFDocument summary = new PDFDocument();
+        summary.title = "Warm-up summary";
+        summary.content = new Content[]{text, new Content(table)};
+
+        Content svg = new Content();
+        svg.svg = SVG;
+        PDFDocument pedigree = new PDFDocument();
+        pedigree.title = "Warm-up pedigree";
+        pedigree.pageBreak = true;
+        pedigree.content = new Content[]{svg};
+
+        return List.of(
+                new ReportResponse("Warm-up summary", "<p>Warm-up</p>", summary),
+                new ReportResponse("Warm-up pedigree", "<p>Warm-up</p>", pedigree));
+    }
+
+    /**
+     * Builds the records of a small family with a few cancers.
+     *
+     * @return the records
+     */
+    private static List<FamilyHistoryRecord> syntheticFamily() {
+        return List.of(
+                member("Proband", null, "Female", 45, "true", 42, null),
+                member("Mother", null, "Female", 70, "true", 48, null),
+                member("Father", null, "Male", 72, null, null, 55),
+                member("Maternal Grandmother", null, "Female", 90, null, null, null),
+                member("Maternal Grandfather", null, "Male", 88, null, null, null),
+                member("Paternal Grandmother", null, "Female", 85, null, null, null),
+                member("Paternal Grandfather", null, "Male", 80, null, null, 70),
+                member("Sibling", "1", "Male", 50, null, null, null),
+                member("Child", "1", "Female", 20, null, null, null));
+    }
+
+    /**
+     * Builds the record of one family member.
+     *
+     * @param step the relationship step
+     * @param stepInstance the instance of the step, for siblings and children
+     * @param gender the gender
+     * @param age the age
+     * @param breastCancer whether the member had breast cancer
+     * @param breastCancerAge age at the breast cancer diagnosis
+     * @param colonCancerAge age at a colon cancer diagnosis, {@code null} if none
+     * @return the record
+     */
+    private static FamilyHistoryRecord member(String step, String stepInstance, String gender, int age,
+                                              String breastCancer, Integer breastCancerAge, Integer colonCancerAge) {
+        FamilyHistoryRecord.Builder record = FamilyHistoryRecord.builder(step, stepInstance)
+                .relationship(step)
+                .person(gender, age, "Alive")
+                .ashkenazi("false")
+                .cancer(CancerType.BREAST, breastCancer, breastCancerAge, null);
+        if (colonCancerAge != null) {
+            record.cancer(CancerType.COLON_RECTAL, "true", colonCancerAge, null);
+        }
+        return record.build();
+    }
+}
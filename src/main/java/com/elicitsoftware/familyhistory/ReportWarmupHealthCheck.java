@@ -0,0 +1,61 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Readiness check for the report pipeline warm-up.
+ * <p>
+ * Reports down until the {@link ReportWarmup} finished, so the load balancer only sends
+ * requests once the PDF, pedigree and query paths are loaded and compiled.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see ReportWarmup
+ */
+@Readiness
+@ApplicationScoped
+public class ReportWarmupHealthCheck implements HealthCheck {
+
+    /**
+     * The warm-up whose state is reported.
+     */
+    @Inject
+    ReportWarmup warmup;
+
+    /**
+     * Default constructor.
+     * CDI container will instantiate this class and inject dependencies.
+     */
+    public ReportWarmupHealthCheck() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        if (!warmup.isDone()) {
+            return HealthCheckResponse.down("Report pipeline warming up");
+        }
+        return HealthCheckResponse.named("Report pipeline warm")
+                .up()
+                .withData("warmupMillis", warmup.getDuration().toMillis())
+                .build();
+    }
+}
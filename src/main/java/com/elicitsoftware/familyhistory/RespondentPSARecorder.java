@@ -0,0 +1,359 @@
+package com.elicitsoftware.familyhistory;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.model.PostSurveyAction;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind recorder for the RespondentPSA status of family history reports.
+ *
+ * <p>Recording a report outcome used to take its own transaction with three statements: a
+ * lookup of the post-survey action, a find of the RespondentPSA and a persist. Completed
+ * reports are now collected in memory, coalesced per respondent, and written every
+ * {@code family.history.psa.flush-interval} (or as soon as
+ * {@code family.history.psa.batch-size} respondents are pending) as one JDBC batch of
+ * {@code INSERT ... ON CONFLICT (respondent_id, post_survey_action_id)} upserts in a single
+ * transaction.</p>
+ *
+ * <p>Failures are written before {@link #record} returns: a FAILED row is what the retry
+ * sweep generates a report from, so losing it with the node would lose the report. A
+ * completed report that is lost is only a stale status, which the retry of the report
+ * corrects.</p>
+ *
+ * <p>Pending outcomes are flushed when the application shuts down, and outcomes recorded
+ * after that are written immediately. A batch that fails to write is put back and retried
+ * with the next flush. Until an outcome is written, {@link #pendingStatus(long)} returns it
+ * so readers of the status do not see a stale row.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see FamilyHistoryReportService#updateRespondentPSAStatus(Long, Throwable)
+ */
+@ApplicationScoped
+public class RespondentPSARecorder {
+
+    /**
+     * Upsert of one RespondentPSA. Tries are added to the stored count, and the upload date
+     * is only replaced by a new one, as the entity-based update did.
+     */
+    static final String UPSERT_SQL = """
+            INSERT INTO survey.respondent_psa
+                (id, respondent_id, post_survey_action_id, tries, status, error_msg, created_dt, uploaded_dt)
+            VALUES (nextval('survey.post_survey_actions_seq'), ?, ?, ?, ?, ?, now(), ?)
+            ON CONFLICT (respondent_id, post_survey_action_id) DO UPDATE
+                SET tries = survey.respondent_psa.tries + EXCLUDED.tries,
+                    status = EXCLUDED.status,
+                    error_msg = EXCLUDED.error_msg,
+                    uploaded_dt = COALESCE(EXCLUDED.uploaded_dt, survey.respondent_psa.uploaded_dt)
+            """;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public RespondentPSARecorder() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * How long outcomes are collected before they are written.
+     * Configured via the {@code family.history.psa.flush-interval} property. Defaults to 1 second.
+     */
+    @ConfigProperty(name = "family.history.psa.flush-interval", defaultValue = "PT1S")
+    Duration flushInterval;
+
+    /**
+     * Number of pending respondents that triggers a flush before the interval elapses.
+     * Configured via the {@code family.history.psa.batch-size} property. Defaults to 100.
+     */
+    @ConfigProperty(name = "family.history.psa.batch-size", defaultValue = "100")
+    int batchSize;
+
+    /**
+     * Post survey action the statuses are recorded for.
+     * Configured via the {@code family.history.upload.psa.id} property. Defaults to 1.
+     */
+    @ConfigProperty(name = "family.history.upload.psa.id", defaultValue = "1")
+    int psaId;
+
+    /**
+     * Injected JPA EntityManager whose connection runs the batch.
+     */
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Outcomes waiting to be written, by respondent ID.
+     */
+    private final Map<Long, Update> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Outcomes being written by the current flush, by respondent ID.
+     */
+    private volatile Map<Long, Update> flushing = Map.of();
+
+    /**
+     * Single thread that flushes the pending outcomes.
+     */
+    private ScheduledExecutorService flusher;
+
+    /**
+     * Set once the final flush ran; later outcomes are written immediately.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Starts the flush thread.
+     */
+    @PostConstruct
+    void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "family-history-psa-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        Log.infof("RespondentPSA write-behind started (flush every %s or %d respondents)", flushInterval, batchSize);
+    }
+
+    /**
+     * Stops the flush thread and writes what is still pending.
+     */
+    @PreDestroy
+    void destroy() {
+        closed = true;
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Records the outcome of a report job. A failure is written before the method returns,
+     * a success with the next flush.
+     *
+     * @param respondentId the respondent ID
+     * @param throwable the exception if the job failed, {@code null} if it succeeded
+     * @param countTry whether the outcome counts as a try
+     */
+    public void record(long respondentId, Throwable throwable, boolean countTry) {
+        if (throwable != null) {
+            writeNow(respondentId, new Update("FAILED", throwable.getMessage(), null, countTry ? 1 : 0));
+            return;
+        }
+        Update update = new Update("COMPLETED", null, OffsetDateTime.now(), countTry ? 1 : 0);
+        int size;
+        synchronized (pending) {
+            pending.merge(respondentId, update, Update::then);
+            size = pending.size();
+        }
+
+        if (closed) {
+            flushQuietly();
+        } else if (size >= batchSize) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Gets the status recorded for a respondent that is not written yet.
+     *
+     * @param respondentId the respondent ID
+     * @return the pending status, or empty if the stored row is current
+     */
+    public Optional<String> pendingStatus(long respondentId) {
+        Update update = pending.get(respondentId);
+        if (update == null) {
+            update = flushing.get(respondentId);
+        }
+        return update == null ? Optional.empty() : Optional.of(update.status);
+    }
+
+    /**
+     * Writes the pending outcomes in one transaction.
+     *
+     * @return the number of respondents written
+     */
+    public synchronized int flush() {
+        Map<Long, Update> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = new HashMap<>(pending);
+            pending.clear();
+            flushing = batch;
+        }
+
+        try {
+            int written = QuarkusTransaction.requiringNew().call(() -> write(batch));
+            Log.debugf("Wrote %d RespondentPSA status(es)", written);
+            return written;
+        } catch (RuntimeException e) {
+            // Put the batch back behind anything recorded since, and retry with the next flush
+            synchronized (pending) {
+                batch.forEach((respondentId, update) -> pending.merge(respondentId, update, (newer, older) -> older.then(newer)));
+            }
+            throw e;
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    /**
+     * Writes the outcome of one respondent in a transaction of its own, after anything
+     * still pending for the respondent. Synchronized with {@link #flush()}, so a batch being
+     * written cannot overwrite it. An outcome that fails to write is kept for the next flush.
+     *
+     * @param respondentId the respondent ID
+     * @param update the outcome
+     */
+    private synchronized void writeNow(long respondentId, Update update) {
+        Update combined;
+        synchronized (pending) {
+            Update earlier = pending.remove(respondentId);
+            combined = earlier == null ? update : earlier.then(update);
+        }
+
+        try {
+            QuarkusTransaction.requiringNew().call(() -> write(Map.of(respondentId, combined)));
+        } catch (RuntimeException e) {
+            Log.errorf(e, "Failed to write the RespondentPSA status of respondent %d, will retry: %s",
+                    respondentId, e.getMessage());
+            synchronized (pending) {
+                pending.merge(respondentId, combined, (newer, older) -> older.then(newer));
+            }
+        }
+    }
+
+    /**
+     * Flushes and logs a failure instead of throwing it.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            Log.errorf(e, "Failed to write RespondentPSA statuses, will retry: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a batch of outcomes in the current transaction.
+     *
+     * @param batch the outcomes by respondent ID
+     * @return the number of respondents written
+     */
+    private int write(Map<Long, Update> batch) {
+        // Skip if psaId is 0 or the post-survey action does not exist to avoid foreign key
+        // constraint violations. Resolved by ID so it is served from the second-level cache.
+        if (psaId == 0 || PostSurveyAction.findById(psaId) == null) {
+            Log.warnf("Skipping %d RespondentPSA status update(s) - post-survey action %d does not exist",
+                    batch.size(), psaId);
+            return 0;
+        }
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_SQL)) {
+                for (Map.Entry<Long, Update> entry : batch.entrySet()) {
+                    Update update = entry.getValue();
+                    statement.setLong(1, entry.getKey());
+                    statement.setLong(2, psaId);
+                    statement.setLong(3, update.tries);
+                    statement.setString(4, update.status);
+                    statement.setString(5, update.error);
+                    if (update.uploadedDt == null) {
+                        statement.setNull(6, Types.TIMESTAMP_WITH_TIMEZONE);
+                    } else {
+                        statement.setObject(6, update.uploadedDt);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+        return batch.size();
+    }
+
+    /**
+     * A pending RespondentPSA change.
+     */
+    private static final class Update {
+
+        /**
+         * The status to store.
+         */
+        final String status;
+
+        /**
+         * The error message to store, {@code null} to clear it.
+         */
+        final String error;
+
+        /**
+         * The upload date to store, {@code null} to keep the stored one.
+         */
+        final OffsetDateTime uploadedDt;
+
+        /**
+         * The number of tries to add.
+         */
+        final long tries;
+
+        /**
+         * Creates a change.
+         *
+         * @param status the status to store
+         * @param error the error message to store
+         * @param uploadedDt the upload date to store, {@code null} to keep the stored one
+         * @param tries the number of tries to add
+         */
+        Update(String status, String error, OffsetDateTime uploadedDt, long tries) {
+            this.status = status;
+            this.error = error;
+            this.uploadedDt = uploadedDt;
+            this.tries = tries;
+        }
+
+        /**
+         * Combines this change with a later one.
+         *
+         * @param later the later change
+         * @return the combined change
+         */
+        Update then(Update later) {
+            return new Update(later.status, later.error,
+                    later.uploadedDt != null ? later.uploadedDt : uploadedDt, tries + later.tries);
+        }
+    }
+}
@@ -11,16 +11,28 @@ package com.elicitsoftware.familyhistory;
  * ***LICENSE_END***
  */
 
+import com.elicitsoftware.common.concurrency.Deadline;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter.Downstream;
+import com.elicitsoftware.familyhistory.delivery.DeliveryFile;
 import com.jcraft.jsch.*;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import io.quarkus.logging.Log;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Service for handling SFTP file transfers using JSch library.
@@ -38,11 +50,29 @@ import java.util.Optional;
  *   <li><strong>family.history.sftp.path:</strong> Remote directory path for file uploads</li>
  *   <li><strong>family.history.sftp.port:</strong> SFTP server port (default: 22)</li>
  *   <li><strong>family.history.sftp.timeout:</strong> Connection timeout in milliseconds (default: 30000)</li>
+ *   <li><strong>family.history.sftp.channels:</strong> Maximum SFTP channels multiplexed over the upload session (default: 8)</li>
+ *   <li><strong>family.history.sftp.channel-backoff:</strong> How long to stay below a refused channel count (default: PT30S)</li>
  * </ul>
  * 
  * <p><strong>Authentication:</strong> The service supports both password and SSH key authentication.
  * If both password and privateKey are configured, SSH key authentication takes precedence.
  * The privateKey property accepts either a file path or the direct private key content (PEM format).</p>
+ * 
+ * <p><strong>Channels:</strong> uploads share one SSH session that stays open and carries
+ * up to {@code family.history.sftp.channels} SFTP channels, so concurrent uploads run in
+ * parallel without a handshake each. Idle channels are reused. When the server refuses to
+ * open another channel (OpenSSH allows 10 sessions per connection by default), the channel
+ * count is capped at the number already open and uploads wait for a free channel; after
+ * {@code family.history.sftp.channel-backoff} one more channel is tried again. A session
+ * that drops is reconnected by the next upload.</p>
+ * 
+ * <p><strong>Upload protocol:</strong> every file is written to a hidden temporary name
+ * ({@code .<name>.<random>.tmp}), its remote size is compared with {@code stat}, and it is
+ * then renamed to its final name. The files of one upload are renamed in order, so the last
+ * one (the XML index of a report) only appears once the others are complete. Consumers
+ * polling the directory never see a partial file and can ignore names starting with a dot.
+ * Re-uploads replace the old file atomically on servers with the {@code posix-rename}
+ * extension; on others the old file is briefly absent (see {@link #publish}).</p>
  *
  * @author Elicit Software
  * @version 1.0
@@ -51,6 +81,16 @@ import java.util.Optional;
 @ApplicationScoped
 public class SftpService {
 
+    /**
+     * SFTP extension that renames over an existing file atomically.
+     */
+    static final String POSIX_RENAME = "posix-rename@openssh.com";
+
+    /**
+     * Version of {@value #POSIX_RENAME} advertised by servers supporting it.
+     */
+    static final String POSIX_RENAME_VERSION = "1";
+
     /**
      * Default constructor.
      */
@@ -100,6 +140,18 @@ public class SftpService {
     @ConfigProperty(name = "family.history.sftp.timeout", defaultValue = "30000")
     int sftpTimeout;
 
+    /**
+     * Maximum SFTP channels open over the upload session (default 8).
+     */
+    @ConfigProperty(name = "family.history.sftp.channels", defaultValue = "8")
+    int maxChannels;
+
+    /**
+     * How long the channel count stays capped after the server refused a channel (default 30 seconds).
+     */
+    @ConfigProperty(name = "family.history.sftp.channel-backoff", defaultValue = "PT30S")
+    Duration channelBackoff;
+
     /**
      * SFTP server hostname, resolved from {@link #sftpHostConfig}.
      * Only populated (and only needed) when family.history.sftp.enabled=true.
@@ -118,11 +170,63 @@ public class SftpService {
      */
     String sftpPath;
 
+    /**
+     * Caps the number of concurrent uploads.
+     */
+    @Inject
+    DownstreamLimiter downstreamLimiter;
+
+    /**
+     * Guards the upload session and its channels; uploads wait on it for a free channel.
+     */
+    private final Object channelLock = new Object();
+
+    /**
+     * The SSH session uploads are multiplexed over, {@code null} until the first upload.
+     */
+    private Session uploadSession;
+
+    /**
+     * Connected channels of {@link #uploadSession} not in use, most recently used first.
+     */
+    private final Deque<ChannelSftp> idleChannels = new ArrayDeque<>();
+
+    /**
+     * Channels of {@link #uploadSession} currently open, idle or in use, or being opened.
+     */
+    private int openChannels;
+
+    /**
+     * Whether an upload is connecting a new upload session outside the lock.
+     */
+    private boolean connecting;
+
+    /**
+     * Channels that may be open, lowered when the server refuses one.
+     */
+    private int channelLimit;
+
+    /**
+     * {@link System#nanoTime()} after which the channel limit may grow again.
+     */
+    private long backoffUntilNanos;
+
     @PostConstruct
     void init() {
         sftpHost = sftpHostConfig.orElse(null);
         sftpUsername = sftpUsernameConfig.orElse(null);
         sftpPath = sftpPathConfig.orElse(null);
+        channelLimit = Math.max(1, maxChannels);
+    }
+
+    /**
+     * Closes the upload session and its channels.
+     */
+    @PreDestroy
+    void destroy() {
+        synchronized (channelLock) {
+            closeUploadSession();
+        }
     }
 
     /**
@@ -135,59 +239,401 @@ public class SftpService {
      * @param fileName the name of the file to upload
      * @param fileData the content of the file as byte array
      * @throws RuntimeException if upload fails due to connection issues or I/O errors
+     * @throws java.util.concurrent.RejectedExecutionException if no SFTP permit became available
+     * @see #uploadFiles(List)
      */
     public void uploadFile(String fileName, byte[] fileData) {
-        Session session = null;
+        uploadFiles(List.of(new DeliveryFile(fileName, fileData)));
+    }
+
+    /**
+     * Uploads files to the configured SFTP server over one session, publishing them in order.
+     * 
+     * <p>All files are written to temporary names and verified before the first one is
+     * renamed, so the last file only appears once every other file is in place. If any
+     * file fails, the temporary files are removed and none of the files is published.</p>
+     * 
+     * @param files the files, the index file last
+     * @throws RuntimeException if upload fails due to connection issues or I/O errors
+     * @throws java.util.concurrent.RejectedExecutionException if no SFTP permit became available
+     */
+    public void uploadFiles(List<DeliveryFile> files) {
+        downstreamLimiter.call(Downstream.SFTP, () -> {
+            doUploadFiles(files);
+            return null;
+        });
+    }
+
+    /**
+     * Uploads files to the SFTP server over a new session.
+     * 
+     * @param files the files, the index file last
+     * @throws RuntimeException if upload fails due to connection issues or I/O errors
+     */
+    private void doUploadFiles(List<DeliveryFile> files) {
         ChannelSftp sftpChannel = null;
+        boolean broken = false;
+        List<String> staged = new ArrayList<>(files.size());
         
         try {
-            Log.debugv("Connecting to SFTP server {}:{} for file upload: {}", sftpHost, sftpPort, fileName);
+            // Borrow a channel of the shared session, already in the target directory
+            sftpChannel = acquireChannel();
             
-            // Create JSch session with authentication
-            session = createAuthenticatedSession();
-            
-            // Connect to the session
-            session.connect();
-            Log.debugv("SSH session connected to {}:{}", sftpHost, sftpPort);
-            
-            // Open SFTP channel
-            sftpChannel = (ChannelSftp) session.openChannel("sftp");
-            sftpChannel.connect();
-            Log.debug("SFTP channel opened successfully");
-            
-            // Ensure the remote directory exists
-            ensureRemoteDirectoryExists(sftpChannel, sftpPath);
-            
-            // Change to the target directory
-            sftpChannel.cd(sftpPath);
-            
-            // Upload the file using OVERWRITE mode to ensure binary transfer
-            try (ByteArrayInputStream inputStream = new ByteArrayInputStream(fileData)) {
-                sftpChannel.put(inputStream, fileName, ChannelSftp.OVERWRITE);
+            // Stage every file under a temporary name before publishing any of them
+            for (DeliveryFile file : files) {
+                staged.add(putVerified(sftpChannel, file));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                publish(sftpChannel, staged.get(i), files.get(i).getName());
             }
+            staged.clear();
             
-            Log.infov("Successfully uploaded file: {} ({} bytes) to SFTP server {}:{}{}",
-                     fileName, fileData.length, sftpHost, sftpPort, sftpPath);
+            for (DeliveryFile file : files) {
+                Log.infov("Successfully uploaded file: {} ({} bytes) to SFTP server {}:{}{}",
+                         file.getName(), file.getSize(), sftpHost, sftpPort, sftpPath);
+            }
             
         } catch (JSchException e) {
-            Log.errorv(e, "SFTP connection failed for file {}: {}", fileName, e.getMessage());
+            Log.errorv(e, "SFTP connection failed for files {}: {}", files, e.getMessage());
             throw new RuntimeException("Failed to connect to SFTP server", e);
         } catch (SftpException e) {
-            Log.errorv(e, "SFTP operation failed for file {}: {}", fileName, e.getMessage());
+            // A lost connection takes the whole session with it; reconnect on the next upload
+            broken = sftpChannel != null && (e.id == ChannelSftp.SSH_FX_CONNECTION_LOST
+                    || e.id == ChannelSftp.SSH_FX_NO_CONNECTION || !sftpChannel.isConnected());
+            Log.errorv(e, "SFTP operation failed for files {}: {}", files, e.getMessage());
             throw new RuntimeException("Failed to upload file to SFTP server", e);
         } catch (IOException e) {
-            Log.errorv(e, "I/O error during file upload {}: {}", fileName, e.getMessage());
+            Log.errorv(e, "I/O error during file upload {}: {}", files, e.getMessage());
             throw new RuntimeException("I/O error during file upload", e);
         } finally {
-            // Clean up resources
-            if (sftpChannel != null && sftpChannel.isConnected()) {
+            if (sftpChannel != null) {
+                // Remove temporary files left by a failed upload
+                if (sftpChannel.isConnected()) {
+                    for (String temporary : staged) {
+                        removeQuietly(sftpChannel, temporary);
+                    }
+                }
+                releaseChannel(sftpChannel, broken);
+            }
+        }
+    }
+
+    /**
+     * Borrows an SFTP channel of the upload session, in the target directory.
+     * 
+     * <p>Reuses an idle channel, opens one while fewer than the channel limit are open, and
+     * otherwise waits for one to be released. Connects the session first if it is not.
+     * Connecting the session and opening a channel take network round trips, so they run
+     * outside {@link #channelLock}: the slot is reserved under the lock, and the opened
+     * session or channel published under it again, while other uploads keep borrowing and
+     * releasing channels.</p>
+     * 
+     * @return the channel, to be given back with {@link #releaseChannel(ChannelSftp, boolean)}
+     * @throws JSchException if the session or a channel cannot be opened, or no channel
+     *         became free within the connection timeout or before the job's deadline
+     * @throws SftpException if the target directory cannot be created
+     */
+    private ChannelSftp acquireChannel() throws JSchException, SftpException {
+        Duration wait = Deadline.boundCurrent(Duration.ofMillis(sftpTimeout));
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            Session reserved = null;
+            boolean connect = false;
+            synchronized (channelLock) {
+                while (reserved == null && !connect) {
+                    if (uploadSession == null || !uploadSession.isConnected()) {
+                        if (!connecting) {
+                            closeUploadSession();
+                            connecting = true;
+                            connect = true;
+                            break;
+                        }
+                    } else {
+                        ChannelSftp idle = idleChannels.pollFirst();
+                        if (idle != null) {
+                            if (idle.isConnected()) {
+                                return idle;
+                            }
+                            openChannels--;
+                            continue;
+                        }
+                        if (channelLimit < maxChannels && System.nanoTime() - backoffUntilNanos >= 0) {
+                            // Probe one more channel per back-off period
+                            channelLimit++;
+                            backoffUntilNanos = System.nanoTime() + channelBackoff.toNanos();
+                        }
+                        if (openChannels < channelLimit) {
+                            openChannels++;
+                            reserved = uploadSession;
+                            break;
+                        }
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new JSchException("No SFTP channel became free within " + wait.toMillis() + " ms");
+                    }
+                    try {
+                        channelLock.wait(Math.max(1, remaining / 1_000_000));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new JSchException("Interrupted while waiting for an SFTP channel", e);
+                    }
+                }
+            }
+
+            if (connect) {
+                openUploadSession();
+                continue;
+            }
+            ChannelSftp opened = openChannel(reserved);
+            if (opened != null) {
+                return opened;
+            }
+        }
+    }
+
+    /**
+     * Opens a channel of a session in a slot reserved under {@link #channelLock}, and
+     * changes to the target directory. Must not hold the lock.
+     * 
+     * @param session the session the slot was reserved on
+     * @return the channel, or {@code null} if the server refused it while other channels
+     *         are open, in which case the channel limit was lowered, or if the session was
+     *         replaced in the meantime
+     * @throws JSchException if the server refused the only channel
+     * @throws SftpException if the target directory cannot be created
+     */
+    private ChannelSftp openChannel(Session session) throws JSchException, SftpException {
+        ChannelSftp sftpChannel;
+        try {
+            sftpChannel = (ChannelSftp) session.openChannel("sftp");
+            sftpChannel.connect();
+        } catch (JSchException e) {
+            synchronized (channelLock) {
+                channelLock.notifyAll();
+                if (session != uploadSession) {
+                    return null;
+                }
+                openChannels--;
+                if (openChannels == 0) {
+                    closeUploadSession();
+                    throw e;
+                }
+                channelLimit = openChannels;
+                backoffUntilNanos = System.nanoTime() + channelBackoff.toNanos();
+                Log.warnv("SFTP server {}:{} refused channel {} - backing off to {} channel(s) for {}: {}",
+                        sftpHost, sftpPort, openChannels + 1, channelLimit, channelBackoff, e.getMessage());
+                return null;
+            }
+        }
+        try {
+            // Ensure the remote directory exists
+            ensureRemoteDirectoryExists(sftpChannel, sftpPath);
+            // Change to the target directory
+            sftpChannel.cd(sftpPath);
+        } catch (SftpException e) {
+            sftpChannel.disconnect();
+            synchronized (channelLock) {
+                if (session == uploadSession) {
+                    openChannels--;
+                }
+                channelLock.notifyAll();
+            }
+            throw e;
+        }
+        synchronized (channelLock) {
+            if (session != uploadSession) {
+                // The session dropped while the channel was opened
                 sftpChannel.disconnect();
-                Log.debug("SFTP channel disconnected");
+                return null;
             }
-            if (session != null && session.isConnected()) {
-                session.disconnect();
-                Log.debug("SSH session disconnected");
+            Log.debugv("SFTP channel {} of {} opened to {}:{}", openChannels, channelLimit, sftpHost, sftpPort);
+        }
+        return sftpChannel;
+    }
+
+    /**
+     * Gives a borrowed channel back.
+     * 
+     * @param sftpChannel the channel
+     * @param broken whether the session failed during the upload, so the session is
+     *        reconnected by the next upload
+     */
+    private void releaseChannel(ChannelSftp sftpChannel, boolean broken) {
+        synchronized (channelLock) {
+            boolean current = isOf(sftpChannel, uploadSession);
+            if (broken && current) {
+                closeUploadSession();
+            } else if (current && sftpChannel.isConnected()) {
+                idleChannels.addFirst(sftpChannel);
+            } else {
+                sftpChannel.disconnect();
+                if (current) {
+                    openChannels--;
+                }
+            }
+            channelLock.notifyAll();
+        }
+    }
+
+    /**
+     * Checks whether a channel belongs to a session.
+     * 
+     * @param sftpChannel the channel
+     * @param session the session, may be {@code null}
+     * @return {@code true} if the channel was opened over the session
+     */
+    private static boolean isOf(ChannelSftp sftpChannel, Session session) {
+        try {
+            return session != null && sftpChannel.getSession() == session;
+        } catch (JSchException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Connects a new upload session and publishes it. Called without holding
+     * {@link #channelLock} by the upload that set {@link #connecting}; other uploads wait
+     * until it is done.
+     * 
+     * @throws JSchException if the session cannot be connected
+     */
+    private void openUploadSession() throws JSchException {
+        Session session = null;
+        try {
+            Log.debugv("Connecting to SFTP server {}:{} for uploads", sftpHost, sftpPort);
+            session = createAuthenticatedSession();
+            session.connect();
+            Log.debugv("SSH session connected to {}:{}", sftpHost, sftpPort);
+        } finally {
+            synchronized (channelLock) {
+                connecting = false;
+                if (session != null && session.isConnected()) {
+                    uploadSession = session;
+                }
+                channelLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Disconnects the upload session and its idle channels. Channels in use are disconnected
+     * with the session and discarded when released. Must hold {@link #channelLock}.
+     */
+    private void closeUploadSession() {
+        for (ChannelSftp idle : idleChannels) {
+            idle.disconnect();
+        }
+        idleChannels.clear();
+        openChannels = 0;
+        if (uploadSession != null) {
+            uploadSession.disconnect();
+            Log.debug("SSH upload session disconnected");
+            uploadSession = null;
+        }
+        channelLock.notifyAll();
+    }
+
+    /**
+     * Returns the hidden name a file is written to before it is published.
+     * 
+     * @param fileName the final name
+     * @return {@code .<name>.<random>.tmp}
+     */
+    static String temporaryName(String fileName) {
+        return "." + fileName + "." + UUID.randomUUID() + ".tmp";
+    }
+
+    /**
+     * Writes a file under a hidden temporary name and checks its remote size.
+     * 
+     * @param sftpChannel the active SFTP channel, in the target directory
+     * @param file the file
+     * @return the temporary name
+     * @throws SftpException if the file cannot be written
+     * @throws IOException if the remote size differs from the file's
+     */
+    static String putVerified(ChannelSftp sftpChannel, DeliveryFile file) throws SftpException, IOException {
+        String temporary = temporaryName(file.getName());
+        // Upload the file using OVERWRITE mode to ensure binary transfer
+        try (InputStream inputStream = file.openStream()) {
+            sftpChannel.put(inputStream, temporary, ChannelSftp.OVERWRITE);
+        } catch (SftpException | IOException e) {
+            removeQuietly(sftpChannel, temporary);
+            throw e;
+        }
+        long remoteSize = sftpChannel.stat(temporary).getSize();
+        if (remoteSize != file.getSize()) {
+            removeQuietly(sftpChannel, temporary);
+            throw new IOException("Remote size of " + file.getName() + " is " + remoteSize
+                    + " bytes, expected " + file.getSize());
+        }
+        return temporary;
+    }
+
+    /**
+     * Renames a temporary file to its final name, replacing an earlier upload.
+     * 
+     * <p>When the server advertises the {@value #POSIX_RENAME} extension (OpenSSH does),
+     * JSch renames with it and the old file is replaced atomically. A plain SFTP v3 rename
+     * fails when the target exists, so on other servers the old file is removed first and
+     * the new one renamed in its place: between the two calls neither version is visible
+     * under the final name. Only a re-upload of the same name is affected, and the index file
+     * is published last, so consumers reading the index find the files it lists.</p>
+     * 
+     * @param sftpChannel the active SFTP channel, in the target directory
+     * @param temporary the temporary name
+     * @param fileName the final name
+     * @throws SftpException if the file cannot be renamed
+     */
+    static void publish(ChannelSftp sftpChannel, String temporary, String fileName) throws SftpException {
+        if (POSIX_RENAME_VERSION.equals(sftpChannel.getExtension(POSIX_RENAME))) {
+            sftpChannel.rename(temporary, fileName);
+            return;
+        }
+        try {
+            sftpChannel.rename(temporary, fileName);
+        } catch (SftpException e) {
+            if (!exists(sftpChannel, fileName)) {
+                throw e;
             }
+            Log.debugv("Rename of {} over {} refused, replacing it: {}", temporary, fileName, e.getMessage());
+            sftpChannel.rm(fileName);
+            sftpChannel.rename(temporary, fileName);
+        }
+    }
+
+    /**
+     * Checks whether a remote file exists.
+     *
+     * @param sftpChannel the active SFTP channel, in the target directory
+     * @param fileName the file
+     * @return {@code true} if the file exists
+     * @throws SftpException if the file cannot be checked
+     */
+    static boolean exists(ChannelSftp sftpChannel, String fileName) throws SftpException {
+        try {
+            sftpChannel.stat(fileName);
+            return true;
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes a remote file, ignoring failures.
+     * 
+     * @param sftpChannel the active SFTP channel, in the target directory
+     * @param fileName the file to remove
+     */
+    static void removeQuietly(ChannelSftp sftpChannel, String fileName) {
+        try {
+            sftpChannel.rm(fileName);
+        } catch (SftpException e) {
+            Log.debugv("Could not remove temporary file {}: {}", fileName, e.getMessage());
         }
     }
     
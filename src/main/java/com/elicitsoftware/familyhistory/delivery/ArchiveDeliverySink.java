@@ -0,0 +1,495 @@
+package com.elicitsoftware.familyhistory.delivery;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bundles the files of many reports into ZIP archives delivered through another sink.
+ *
+ * <p>Each report delivered to this sink is streamed into the open archive in the spool
+ * directory ({@code family.history.delivery.archive.spool-path}). The archive is rolled once
+ * it holds {@code max-reports} reports or {@code max-bytes} bytes, or is {@code max-age} old.
+ * A manifest listing every file with its size and SHA-256 is added as the last entry. The
+ * archive and then, as its index file, a copy of the manifest are delivered in a single
+ * transfer to the {@code family.history.delivery.archive.target} sink (SFTP by default), so
+ * a bulk regeneration costs a few large writes instead of two round trips per report.</p>
+ *
+ * <p>A report is only delivered once its archive is: {@link #deliverAsync(List)} returns a
+ * future that completes when the archive upload succeeds, and fails with it. Reports of a
+ * failed archive are therefore retried like any other failed upload. The archive is streamed
+ * from the spool file to the target sink rather than loaded into memory.</p>
+ *
+ * <p>Entry names are unique within an archive. A report regenerated while its earlier files
+ * are still in the open archive rolls that archive first, so the newer files go into the next
+ * archive and are delivered after it. If a report cannot be written to the spool, the open
+ * archive may hold part of it and is abandoned: the reports in it fail and are retried.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class ArchiveDeliverySink implements DeliverySink {
+
+    /**
+     * Name of the sink.
+     */
+    public static final String NAME = "archive";
+
+    /**
+     * Name of the manifest entry inside an archive.
+     */
+    static final String MANIFEST = "manifest.tsv";
+
+    /**
+     * Timestamp in archive names.
+     */
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    /**
+     * Name of the sink the archives are delivered to.
+     */
+    @ConfigProperty(name = "family.history.delivery.archive.target", defaultValue = SftpDeliverySink.NAME)
+    String targetName;
+
+    /**
+     * Directory the open archive is written to.
+     */
+    @ConfigProperty(name = "family.history.delivery.archive.spool-path")
+    Optional<String> spoolPathConfig;
+
+    /**
+     * Number of reports after which an archive is rolled.
+     */
+    @ConfigProperty(name = "family.history.delivery.archive.max-reports", defaultValue = "1000")
+    int maxReports;
+
+    /**
+     * Number of uncompressed bytes after which an archive is rolled.
+     */
+    @ConfigProperty(name = "family.history.delivery.archive.max-bytes", defaultValue = "67108864")
+    long maxBytes;
+
+    /**
+     * Age after which an archive is rolled, however small.
+     */
+    @ConfigProperty(name = "family.history.delivery.archive.max-age", defaultValue = "PT5M")
+    Duration maxAge;
+
+    /**
+     * All sink beans, to resolve the target.
+     */
+    @Inject
+    @Any
+    Instance<DeliverySink> sinkBeans;
+
+    /**
+     * Identifies this node in archive names.
+     */
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * The sink the archives are delivered to.
+     */
+    private DeliverySink target;
+
+    /**
+     * Directory the open archive is written to.
+     */
+    private Path spoolDirectory;
+
+    /**
+     * Single thread that rolls and uploads the archives, one after the other.
+     */
+    private ScheduledExecutorService uploader;
+
+    /**
+     * The archive being filled, {@code null} until the first report arrives. Guarded by this.
+     */
+    private Archive current;
+
+    /**
+     * Sequence number of the next archive.
+     */
+    private long sequence;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public ArchiveDeliverySink() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Starts the upload thread and the age check.
+     */
+    @PostConstruct
+    void init() {
+        spoolDirectory = Path.of(spoolPathConfig.orElse(
+                Path.of(System.getProperty("java.io.tmpdir"), "fhhs-archive").toString()));
+        uploader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "family-history-archive");
+            t.setDaemon(true);
+            return t;
+        });
+        uploader.scheduleWithFixedDelay(this::rollIfOld, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Delivers the archive still open and stops the upload thread.
+     */
+    @PreDestroy
+    void destroy() {
+        flush();
+        uploader.shutdown();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(List<DeliveryFile> files) throws IOException {
+        try {
+            deliverAsync(files).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the archive upload", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("Archive upload failed", e.getCause());
+        }
+    }
+
+    /**
+     * Adds the files of a report to the open archive.
+     *
+     * @param files the files of one report
+     * @return completes when the archive holding them was delivered
+     * @throws IOException if the files could not be written to the spool
+     */
+    @Override
+    public synchronized CompletableFuture<Void> deliverAsync(List<DeliveryFile> files) throws IOException {
+        if (current != null && current.containsAny(files)) {
+            // The report was regenerated while its earlier files are still in the open archive
+            roll();
+        }
+        if (current == null) {
+            current = open();
+        }
+        Archive archive = current;
+        try {
+            for (DeliveryFile file : files) {
+                archive.add(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            current = null;
+            abandon(archive, e);
+            throw e;
+        }
+        CompletableFuture<Void> delivered = new CompletableFuture<>();
+        archive.waiters.add(delivered);
+        if (archive.waiters.size() >= maxReports || archive.bytes >= maxBytes) {
+            roll();
+        }
+        return delivered;
+    }
+
+    /**
+     * Delivers the open archive now and waits for the upload.
+     */
+    @Override
+    public void flush() {
+        CompletableFuture<Void> uploaded;
+        synchronized (this) {
+            uploaded = roll();
+        }
+        try {
+            uploaded.join();
+        } catch (CompletionException e) {
+            Log.errorv(e.getCause(), "Failed to deliver archive on flush: {}", e.getCause().getMessage());
+        }
+    }
+
+    @Override
+    public boolean testConnection() {
+        try {
+            Files.createDirectories(spoolDirectory);
+            return Files.isWritable(spoolDirectory) && target().testConnection();
+        } catch (IOException | RuntimeException e) {
+            Log.errorv(e, "Archive delivery check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Rolls the open archive if it reached its maximum age.
+     */
+    private synchronized void rollIfOld() {
+        if (current != null && System.nanoTime() - current.openedNanos >= maxAge.toNanos()) {
+            roll();
+        }
+    }
+
+    /**
+     * Closes the open archive and queues its upload. Must hold the monitor.
+     *
+     * @return completes when the archive was uploaded, or right away if none was open
+     */
+    private CompletableFuture<Void> roll() {
+        Archive archive = current;
+        if (archive == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        current = null;
+        return CompletableFuture.runAsync(() -> upload(archive), uploader);
+    }
+
+    /**
+     * Closes an archive, delivers it and completes the futures of its reports.
+     *
+     * @param archive the archive
+     */
+    private void upload(Archive archive) {
+        try {
+            byte[] manifest = archive.close();
+            DeliverySink sink = target();
+            sink.deliver(List.of(
+                    new DeliveryFile(archive.name + ".zip", archive.path),
+                    new DeliveryFile(archive.name + "." + MANIFEST, manifest)));
+            Log.infov("Delivered archive {} with {} report(s) ({} bytes) to the {} sink",
+                    archive.name, archive.waiters.size(), archive.bytes, sink.getName());
+            archive.waiters.forEach(waiter -> waiter.complete(null));
+        } catch (Exception e) {
+            Log.errorv(e, "Failed to deliver archive {}: {}", archive.name, e.getMessage());
+            archive.waiters.forEach(waiter -> waiter.completeExceptionally(e));
+        } finally {
+            try {
+                Files.deleteIfExists(archive.path);
+            } catch (IOException e) {
+                Log.warnv("Could not delete spooled archive {}: {}", archive.path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Discards an archive that holds part of a report and fails the reports already in it.
+     * Must hold the monitor.
+     *
+     * @param archive the archive, no longer {@link #current}
+     * @param cause why the archive is discarded
+     */
+    private void abandon(Archive archive, Exception cause) {
+        Log.errorv(cause, "Abandoning archive {} with {} report(s): {}", archive.name, archive.waiters.size(), cause.getMessage());
+        try {
+            archive.zip.close();
+        } catch (IOException e) {
+            // The spool is deleted either way
+        }
+        try {
+            Files.deleteIfExists(archive.path);
+        } catch (IOException e) {
+            Log.warnv("Could not delete spooled archive {}: {}", archive.path, e.getMessage());
+        }
+        IOException failure = new IOException("Archive " + archive.name + " was abandoned", cause);
+        archive.waiters.forEach(waiter -> waiter.completeExceptionally(failure));
+    }
+
+    /**
+     * Opens a new archive in the spool directory. Must hold the monitor.
+     *
+     * @return the archive
+     * @throws IOException if the spool file cannot be created
+     */
+    private Archive open() throws IOException {
+        Files.createDirectories(spoolDirectory);
+        String name = "fhhs-reports-" + TIMESTAMP.format(LocalDateTime.now(ZoneOffset.UTC))
+                + "-" + nodeId + "-" + (sequence++);
+        return new Archive(name, spoolDirectory.resolve(name + ".zip"));
+    }
+
+    /**
+     * Resolves the target sink.
+     *
+     * @return the sink the archives are delivered to
+     * @throws IllegalStateException if the target does not exist or is this sink
+     */
+    private DeliverySink target() {
+        if (target == null) {
+            for (DeliverySink sink : sinkBeans) {
+                if (sink.getName().equals(targetName) && !NAME.equals(targetName)) {
+                    target = sink;
+                }
+            }
+            if (target == null) {
+                throw new IllegalStateException("Unknown archive target sink '" + targetName + "'");
+            }
+        }
+        return target;
+    }
+
+    /**
+     * An archive being written to the spool.
+     */
+    private static final class Archive {
+
+        /**
+         * Archive name without extension.
+         */
+        final String name;
+
+        /**
+         * Spool file.
+         */
+        final Path path;
+
+        /**
+         * ZIP stream over the spool file.
+         */
+        final ZipOutputStream zip;
+
+        /**
+         * Manifest lines: name, size and SHA-256 of every file.
+         */
+        final StringBuilder manifest = new StringBuilder("name\tbytes\tsha256\n");
+
+        /**
+         * Names of the entries in the archive.
+         */
+        final Set<String> names = new HashSet<>();
+
+        /**
+         * Futures of the reports in the archive.
+         */
+        final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+
+        /**
+         * {@link System#nanoTime()} when the archive was opened.
+         */
+        final long openedNanos = System.nanoTime();
+
+        /**
+         * Uncompressed bytes added so far.
+         */
+        long bytes;
+
+        /**
+         * Creates the spool file.
+         *
+         * @param name archive name without extension
+         * @param path spool file
+         * @throws IOException if the file cannot be created
+         */
+        Archive(String name, Path path) throws IOException {
+            this.name = name;
+            this.path = path;
+            OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024);
+            this.zip = new ZipOutputStream(out);
+        }
+
+        /**
+         * Streams a file into the archive and lists it in the manifest.
+         *
+         * @param file the file
+         * @throws IOException if the spool cannot be written
+         */
+        void add(DeliveryFile file) throws IOException {
+            names.add(file.getName());
+            zip.putNextEntry(new ZipEntry(file.getName()));
+            zip.write(file.getData());
+            zip.closeEntry();
+            bytes += file.getData().length;
+            manifest.append(file.getName()).append('\t').append(file.getData().length).append('\t')
+                    .append(sha256(file.getData())).append('\n');
+        }
+
+        /**
+         * Checks whether the archive holds an entry of the same name as one of some files.
+         *
+         * @param files the files
+         * @return {@code true} if adding the files would repeat an entry name
+         */
+        boolean containsAny(List<DeliveryFile> files) {
+            for (DeliveryFile file : files) {
+                if (names.contains(file.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds the manifest as the last entry and closes the archive.
+         *
+         * @return the manifest
+         * @throws IOException if the spool cannot be written
+         */
+        byte[] close() throws IOException {
+            byte[] content = manifest.toString().getBytes(StandardCharsets.UTF_8);
+            zip.putNextEntry(new ZipEntry(MANIFEST));
+            zip.write(content);
+            zip.closeEntry();
+            zip.close();
+            return content;
+        }
+
+        /**
+         * Hashes data with SHA-256.
+         *
+         * @param data the data
+         * @return the lowercase hex digest
+         */
+        private static String sha256(byte[] data) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.elicitsoftware.familyhistory.delivery;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A file handed to a {@link DeliverySink}.
+ *
+ * <p>A file either holds its content in memory or refers to a file on local disk, such as a
+ * spooled archive. Sinks read the content with {@link #openStream()} and {@link #getSize()},
+ * so that large spooled files are streamed rather than loaded.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ */
+public final class DeliveryFile {
+
+    /**
+     * File name, without a directory.
+     */
+    private final String name;
+
+    /**
+     * File content, {@code null} if the content is read from {@link #source}.
+     */
+    private final byte[] data;
+
+    /**
+     * Local file holding the content, {@code null} if the content is in memory.
+     */
+    private final Path source;
+
+    /**
+     * Size of the content in bytes.
+     */
+    private final long size;
+
+    /**
+     * Creates a file.
+     *
+     * @param name the file name, without a directory
+     * @param data the file content
+     */
+    public DeliveryFile(String name, byte[] data) {
+        this.name = name;
+        this.data = data;
+        this.source = null;
+        this.size = data.length;
+    }
+
+    /**
+     * Creates a file whose content is read from a local file when it is delivered.
+     *
+     * @param name the file name, without a directory
+     * @param source the local file holding the content, which must not change until delivered
+     * @throws IOException if the size of the local file cannot be read
+     */
+    public DeliveryFile(String name, Path source) throws IOException {
+        this.name = name;
+        this.data = null;
+        this.source = source;
+        this.size = Files.size(source);
+    }
+
+    /**
+     * Gets the file name.
+     *
+     * @return the file name, without a directory
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the file content. The array is not copied and must not be modified. A file read
+     * from a local file is loaded whole; prefer {@link #openStream()} for those.
+     *
+     * @return the file content
+     * @throws UncheckedIOException if the local file cannot be read
+     */
+    public byte[] getData() {
+        if (data != null) {
+            return data;
+        }
+        try {
+            return Files.readAllBytes(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + source, e);
+        }
+    }
+
+    /**
+     * Gets the size of the file content.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Opens a stream over the file content.
+     *
+     * @return the stream, to be closed by the caller
+     * @throws IOException if the local file cannot be opened
+     */
+    public InputStream openStream() throws IOException {
+        return data != null ? new ByteArrayInputStream(data) : Files.newInputStream(source);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + size + " bytes)";
+    }
+}
@@ -0,0 +1,77 @@
+package com.elicitsoftware.familyhistory.delivery;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A target the generated report files are delivered to.
+ *
+ * <p>Implementations are CDI beans; {@link ReportDelivery} picks one by its
+ * {@linkplain #getName() name}. A delivery is a list of files whose last entry is the index
+ * file (the XML metadata) that downstream systems watch for: a sink must not publish it
+ * before every other file of the delivery was published. The other files may be written in
+ * parallel.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ * @see ReportDelivery
+ */
+public interface DeliverySink {
+
+    /**
+     * Gets the name the sink is selected by in {@code family.history.delivery.sink}.
+     *
+     * @return the sink name
+     */
+    String getName();
+
+    /**
+     * Delivers the files of one report.
+     *
+     * @param files the files, the index file last
+     * @throws IOException if a file could not be delivered
+     */
+    void deliver(List<DeliveryFile> files) throws IOException;
+
+    /**
+     * Delivers the files of one report, possibly after this method returns.
+     *
+     * <p>Sinks that batch reports complete the future once the batch was delivered. By
+     * default the files are delivered right away.</p>
+     *
+     * @param files the files, the index file last
+     * @return completes when the files were delivered
+     * @throws IOException if a file could not be delivered
+     */
+    default CompletableFuture<Void> deliverAsync(List<DeliveryFile> files) throws IOException {
+        deliver(files);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Delivers anything the sink holds back, waiting for it. Does nothing by default.
+     */
+    default void flush() {
+        // Nothing is held back
+    }
+
+    /**
+     * Checks that the target is reachable and writable, without delivering anything.
+     *
+     * @return {@code true} if files can be delivered
+     */
+    boolean testConnection();
+}
@@ -0,0 +1,225 @@
+package com.elicitsoftware.familyhistory.delivery;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Delivers report files to a local or NFS-mounted directory.
+ *
+ * <p>Every file is first written in parallel to a hidden temporary file in the target
+ * directory and, with {@code family.history.delivery.filesystem.fsync} (the default),
+ * forced to disk. The temporary files are then renamed to their final names with an atomic
+ * move, in delivery order, and the directory is forced after the data files and again after
+ * the index file. A reader of the directory therefore never sees a partial file, and never
+ * sees the index file before the files it describes.</p>
+ *
+ * <p>Configured with {@code family.history.delivery.filesystem.path}.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class FileSystemDeliverySink implements DeliverySink {
+
+    /**
+     * Name of the sink.
+     */
+    public static final String NAME = "filesystem";
+
+    /**
+     * Directory the files are delivered to.
+     */
+    @ConfigProperty(name = "family.history.delivery.filesystem.path")
+    Optional<String> pathConfig;
+
+    /**
+     * Whether files and the directory are forced to disk before and after the rename.
+     */
+    @ConfigProperty(name = "family.history.delivery.filesystem.fsync", defaultValue = "true")
+    boolean fsync;
+
+    /**
+     * Writes the temporary files of a delivery in parallel.
+     */
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("family-history-fs-writer-", 0).factory());
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public FileSystemDeliverySink() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Stops the writer threads.
+     */
+    @PreDestroy
+    void destroy() {
+        writers.shutdown();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(List<DeliveryFile> files) throws IOException {
+        Path directory = directory();
+        Files.createDirectories(directory);
+
+        List<CompletableFuture<Path>> writes = new ArrayList<>(files.size());
+        for (DeliveryFile file : files) {
+            writes.add(CompletableFuture.supplyAsync(() -> writeTemporary(directory, file), writers));
+        }
+
+        List<Path> staged = new ArrayList<>(files.size());
+        try {
+            IOException failure = null;
+            for (CompletableFuture<Path> write : writes) {
+                try {
+                    staged.add(write.join());
+                } catch (CompletionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof UncheckedIOException u ? u.getCause()
+                                : new IOException("Failed to write report file", e.getCause());
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            int index = files.size() - 1;
+            for (int i = 0; i < index; i++) {
+                publish(staged.get(i), directory.resolve(files.get(i).getName()));
+            }
+            // The index file only appears once the files it describes are durable
+            forceDirectory(directory);
+            publish(staged.get(index), directory.resolve(files.get(index).getName()));
+            forceDirectory(directory);
+        } finally {
+            for (Path path : staged) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Log.infov("Delivered {} to {}", files, directory);
+    }
+
+    @Override
+    public boolean testConnection() {
+        try {
+            Path directory = directory();
+            Files.createDirectories(directory);
+            boolean writable = Files.isWritable(directory);
+            if (!writable) {
+                Log.warnv("Delivery directory {} is not writable", directory);
+            }
+            return writable;
+        } catch (IOException | RuntimeException e) {
+            Log.errorv(e, "Delivery directory check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Resolves the configured directory.
+     *
+     * @return the directory files are delivered to
+     * @throws IllegalStateException if no directory is configured
+     */
+    private Path directory() {
+        return Path.of(pathConfig.orElseThrow(() ->
+                new IllegalStateException("family.history.delivery.filesystem.path is not configured")));
+    }
+
+    /**
+     * Writes a file to a hidden temporary file in the directory.
+     *
+     * @param directory the target directory
+     * @param file the file
+     * @return the temporary file
+     * @throws UncheckedIOException if the file could not be written
+     */
+    private Path writeTemporary(Path directory, DeliveryFile file) {
+        Path temporary = directory.resolve("." + file.getName() + "." + UUID.randomUUID() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            try (InputStream in = file.openStream()) {
+                // The stream over the channel is left open so the channel can still be forced
+                in.transferTo(Channels.newOutputStream(channel));
+            }
+            if (fsync) {
+                channel.force(true);
+            }
+            return temporary;
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // The original failure is more useful
+            }
+            throw new UncheckedIOException("Failed to write " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Renames a temporary file to its final name, replacing an earlier delivery.
+     *
+     * @param temporary the temporary file
+     * @param target the final file
+     * @throws IOException if the file system cannot rename atomically
+     */
+    private void publish(Path temporary, Path target) throws IOException {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Forces the directory entries to disk so the renames survive a crash.
+     *
+     * @param directory the directory
+     */
+    private void forceDirectory(Path directory) {
+        if (!fsync) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the renames are still atomic
+            Log.debugv("Could not force directory {}: {}", directory, e.getMessage());
+        }
+    }
+}
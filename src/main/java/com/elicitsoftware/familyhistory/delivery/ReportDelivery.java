@@ -0,0 +1,252 @@
+package com.elicitsoftware.familyhistory.delivery;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Routes the files of a report to a {@link DeliverySink}.
+ *
+ * <p>Reports go to the sink named by {@code family.history.delivery.sink} ({@code sftp},
+ * {@code filesystem} or {@code s3}; {@code sftp} by default). High-volume departments can be
+ * routed to a different sink with {@code family.history.delivery.routes}, a comma-separated
+ * list of {@code departmentId=sink} pairs. Reports of bulk regeneration go to
+ * {@code family.history.delivery.bulk-sink} when it is set, typically the {@code archive}
+ * sink that bundles many reports into one transfer.</p>
+ *
+ * <p>Every delivery is measured per sink: {@code fhhs.delivery.duration} times deliveries
+ * by outcome, and {@code fhhs.delivery.files} and {@code fhhs.delivery.bytes} count what was
+ * delivered, so their rates give each sink's throughput.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class ReportDelivery {
+
+    /**
+     * Name of the sink reports are delivered to unless routed elsewhere.
+     */
+    @ConfigProperty(name = "family.history.delivery.sink", defaultValue = SftpDeliverySink.NAME)
+    String defaultSinkName;
+
+    /**
+     * Per-department sinks as {@code departmentId=sink} pairs separated by commas.
+     */
+    @ConfigProperty(name = "family.history.delivery.routes")
+    Optional<String> routesConfig;
+
+    /**
+     * Name of the sink bulk reports are delivered to, instead of their department's sink.
+     */
+    @ConfigProperty(name = "family.history.delivery.bulk-sink")
+    Optional<String> bulkSinkName;
+
+    /**
+     * All sink beans.
+     */
+    @Inject
+    @Any
+    Instance<DeliverySink> sinkBeans;
+
+    /**
+     * Registry the delivery metrics are published to.
+     */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Sinks by name.
+     */
+    private final Map<String, DeliverySink> sinks = new HashMap<>();
+
+    /**
+     * Sinks by department ID, for routed departments.
+     */
+    private final Map<Long, DeliverySink> routes = new HashMap<>();
+
+    /**
+     * The sink of departments that are not routed.
+     */
+    private DeliverySink defaultSink;
+
+    /**
+     * The sink of bulk reports, {@code null} to use the department's sink.
+     */
+    private DeliverySink bulkSink;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public ReportDelivery() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Resolves the configured sinks.
+     *
+     * @throws IllegalStateException if a configured sink does not exist
+     */
+    @PostConstruct
+    void init() {
+        for (DeliverySink sink : sinkBeans) {
+            sinks.put(sink.getName(), sink);
+        }
+        defaultSink = sink(defaultSinkName);
+        routesConfig.ifPresent(config -> {
+            for (String route : config.split(",")) {
+                if (route.isBlank()) {
+                    continue;
+                }
+                String[] parts = route.split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalStateException("Invalid family.history.delivery.routes entry: " + route);
+                }
+                routes.put(Long.parseLong(parts[0].trim()), sink(parts[1].trim()));
+            }
+        });
+        bulkSink = bulkSinkName.map(this::sink).orElse(null);
+        Log.infof("Report delivery to %s sink, department routes %s, bulk sink %s",
+                defaultSinkName, routesConfig.orElse("none"), bulkSinkName.orElse("none"));
+    }
+
+    /**
+     * Delivers the files of a report to the sink of its department, or to the bulk sink.
+     *
+     * @param status the status record of the respondent
+     * @param files the files, the index file last
+     * @param bulk whether the report is part of a bulk regeneration
+     * @return completes when the files were delivered, which a batching sink may defer
+     * @throws IOException if a file could not be delivered
+     */
+    public CompletableFuture<Void> deliver(Status status, List<DeliveryFile> files, boolean bulk) throws IOException {
+        DeliverySink sink = bulk && bulkSink != null ? bulkSink : sinkFor(status);
+        String tag = sink.getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<Void> delivered;
+        try {
+            delivered = sink.deliverAsync(files);
+        } catch (IOException | RuntimeException e) {
+            record(sample, tag, files, e);
+            throw e;
+        }
+        return delivered.whenComplete((ignored, failure) -> record(sample, tag, files, failure));
+    }
+
+    /**
+     * Delivers whatever the sinks hold back, waiting for it.
+     */
+    public void flush() {
+        for (DeliverySink sink : sinks.values()) {
+            sink.flush();
+        }
+    }
+
+    /**
+     * Checks every sink in use.
+     *
+     * @return {@code true} if all of them can deliver files
+     */
+    public boolean testConnection() {
+        Set<DeliverySink> inUse = new LinkedHashSet<>();
+        inUse.add(defaultSink);
+        inUse.addAll(routes.values());
+        if (bulkSink != null) {
+            inUse.add(bulkSink);
+        }
+        boolean healthy = true;
+        for (DeliverySink sink : inUse) {
+            healthy &= sink.testConnection();
+        }
+        return healthy;
+    }
+
+    /**
+     * Gets the sink a respondent's report is delivered to.
+     *
+     * @param status the status record of the respondent
+     * @return the sink of the respondent's department
+     */
+    public DeliverySink sinkFor(Status status) {
+        return routes.getOrDefault(status.getDepartmentId(), defaultSink);
+    }
+
+    /**
+     * Records the metrics of a delivery.
+     *
+     * @param sample the timer started with the delivery
+     * @param tag the sink name
+     * @param files the files delivered
+     * @param failure the failure, {@code null} on success
+     */
+    private void record(Timer.Sample sample, String tag, List<DeliveryFile> files, Throwable failure) {
+        sample.stop(Timer.builder("fhhs.delivery.duration")
+                .description("Time to deliver the files of a family history report")
+                .tag("sink", tag)
+                .tag("outcome", failure == null ? "success" : "failure")
+                .register(meterRegistry));
+        if (failure != null) {
+            return;
+        }
+
+        long bytes = 0;
+        for (DeliveryFile file : files) {
+            bytes += file.getSize();
+        }
+        Counter.builder("fhhs.delivery.files")
+                .description("Family history report files delivered")
+                .tag("sink", tag)
+                .register(meterRegistry)
+                .increment(files.size());
+        Counter.builder("fhhs.delivery.bytes")
+                .description("Family history report bytes delivered")
+                .baseUnit("bytes")
+                .tag("sink", tag)
+                .register(meterRegistry)
+                .increment(bytes);
+    }
+
+    /**
+     * Looks a sink up by name.
+     *
+     * @param name the sink name
+     * @return the sink
+     * @throws IllegalStateException if there is no such sink
+     */
+    private DeliverySink sink(String name) {
+        DeliverySink sink = sinks.get(name);
+        if (sink == null) {
+            throw new IllegalStateException("Unknown delivery sink '" + name + "', expected one of " + sinks.keySet());
+        }
+        return sink;
+    }
+}
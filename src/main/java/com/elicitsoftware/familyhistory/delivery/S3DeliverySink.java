@@ -0,0 +1,563 @@
+package com.elicitsoftware.familyhistory.delivery;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.concurrency.Deadline;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter.Downstream;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Delivers report files to an S3-compatible object store (AWS S3, MinIO, Ceph, ...).
+ *
+ * <p>Requests are signed with AWS Signature Version 4 and sent with the JDK
+ * {@link HttpClient}, which keeps a pool of persistent connections. The files of a delivery
+ * are uploaded in parallel, except the index file, which is uploaded once the others
+ * succeeded. Files larger than {@code family.history.delivery.s3.part-size} use a multipart
+ * upload whose parts are sent in parallel; a failed multipart upload is aborted. Every request
+ * holds an {@link Downstream#OBJECT_STORE} permit. Permits are only ever waited for on the
+ * delivering thread, before the request is sent, and never in a callback on the threads of
+ * the {@link HttpClient}, which would stall the responses that release them.</p>
+ *
+ * <p>Configured with {@code family.history.delivery.s3.*}. Path-style addressing is the
+ * default, so a local MinIO container works with just an endpoint such as
+ * {@code http://localhost:9000}, a bucket and credentials.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class S3DeliverySink implements DeliverySink {
+
+    /**
+     * Name of the sink.
+     */
+    public static final String NAME = "s3";
+
+    /**
+     * Smallest part size S3 accepts for all but the last part.
+     */
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    /**
+     * Timestamp format of the {@code x-amz-date} header.
+     */
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    /**
+     * Upload id in the response of a multipart upload initiation.
+     */
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    /**
+     * Endpoint of the object store, for example {@code https://s3.us-east-1.amazonaws.com}.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.endpoint")
+    Optional<String> endpointConfig;
+
+    /**
+     * Signing region.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.region", defaultValue = "us-east-1")
+    String region;
+
+    /**
+     * Bucket the files are delivered to.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.bucket")
+    Optional<String> bucketConfig;
+
+    /**
+     * Key prefix of the delivered files, for example {@code reports/}.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.prefix")
+    Optional<String> prefixConfig;
+
+    /**
+     * Access key id.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.access-key")
+    Optional<String> accessKey;
+
+    /**
+     * Secret access key.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.secret-key")
+    Optional<String> secretKey;
+
+    /**
+     * Whether the bucket is addressed in the path ({@code endpoint/bucket/key}) rather than
+     * in the host name ({@code bucket.endpoint/key}).
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.path-style", defaultValue = "true")
+    boolean pathStyle;
+
+    /**
+     * Files larger than this are uploaded in parts of this size.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.part-size", defaultValue = "8388608")
+    int partSize;
+
+    /**
+     * Connect and request timeout.
+     */
+    @ConfigProperty(name = "family.history.delivery.s3.timeout", defaultValue = "PT60S")
+    Duration timeout;
+
+    /**
+     * Caps the number of concurrent object store requests.
+     */
+    @Inject
+    DownstreamLimiter downstreamLimiter;
+
+    /**
+     * Key prefix, resolved from {@link #prefixConfig}.
+     */
+    private String prefix;
+
+    /**
+     * Shared client; its connection pool is reused by every delivery.
+     */
+    private HttpClient httpClient;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public S3DeliverySink() {
+        // Default constructor for CDI
+    }
+
+    /**
+     * Creates the HTTP client.
+     */
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        partSize = Math.max(MIN_PART_SIZE, partSize);
+        prefix = prefixConfig.map(String::trim).orElse("");
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(List<DeliveryFile> files) throws IOException {
+        int index = files.size() - 1;
+        List<CompletableFuture<Void>> uploads = new ArrayList<>(index);
+        for (int i = 0; i < index; i++) {
+            uploads.add(putObject(files.get(i)));
+        }
+        join(CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)));
+        // The index file is only published once the files it describes are stored
+        join(putObject(files.get(index)));
+        Log.infov("Delivered {} to s3://{}/{}", files, bucket(), prefix);
+    }
+
+    @Override
+    public boolean testConnection() {
+        try {
+            HttpResponse<String> response = join(send("HEAD", bucketUri(""), Map.of(), new byte[0]));
+            if (response.statusCode() / 100 != 2) {
+                Log.warnv("Object store bucket {} is not accessible (HTTP {})", bucket(), response.statusCode());
+                return false;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            Log.errorv(e, "Object store connection test failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Uploads a file, in parts if it is larger than the part size.
+     *
+     * @param file the file
+     * @return completes when the object is stored
+     */
+    private CompletableFuture<Void> putObject(DeliveryFile file) {
+        String key = prefix + file.getName();
+        if (file.getSize() <= partSize) {
+            return send("PUT", bucketUri(key), Map.of(), file.getData()).thenApply(response -> {
+                check(response, "PUT " + key);
+                return null;
+            });
+        }
+        try {
+            multipartUpload(key, file);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Uploads an object in parts sent in parallel, aborting the upload if a part fails.
+     *
+     * <p>The upload is driven from the calling thread, which waits for the permit of each
+     * part before it reads the part from the file. At most as many parts as the object store
+     * limit are therefore in memory, and a spooled file is never loaded whole.</p>
+     *
+     * @param key the object key
+     * @param file the file
+     * @throws IOException if the file could not be read or stored
+     */
+    private void multipartUpload(String key, DeliveryFile file) throws IOException {
+        HttpResponse<String> initiated = join(send("POST", bucketUri(key), Map.of("uploads", ""), new byte[0])
+                .thenApply(response -> {
+                    check(response, "initiate multipart upload of " + key);
+                    return response;
+                }));
+        Matcher matcher = UPLOAD_ID.matcher(initiated.body());
+        if (!matcher.find()) {
+            throw new IOException("No UploadId in response for " + key);
+        }
+        String uploadId = matcher.group(1);
+
+        try {
+            int parts = (int) ((file.getSize() + partSize - 1) / partSize);
+            List<CompletableFuture<String>> etags = new ArrayList<>(parts);
+            try (InputStream in = file.openStream()) {
+                for (int part = 1; part <= parts; part++) {
+                    DownstreamLimiter.Permit permit = downstreamLimiter.acquire(Downstream.OBJECT_STORE);
+                    byte[] chunk;
+                    try {
+                        chunk = in.readNBytes(partSize);
+                    } catch (IOException | RuntimeException e) {
+                        permit.release();
+                        throw e;
+                    }
+                    String partNumber = Integer.toString(part);
+                    etags.add(send(permit, "PUT", bucketUri(key), Map.of("partNumber", partNumber, "uploadId", uploadId), chunk)
+                            .thenApply(response -> {
+                                check(response, "PUT part " + partNumber + " of " + key);
+                                return response.headers().firstValue("ETag").orElseThrow(() ->
+                                        new CompletionException(new IOException("No ETag for part " + partNumber + " of " + key)));
+                            }));
+                }
+            }
+            join(CompletableFuture.allOf(etags.toArray(CompletableFuture[]::new)));
+
+            StringBuilder complete = new StringBuilder("<CompleteMultipartUpload>");
+            for (int part = 1; part <= parts; part++) {
+                complete.append("<Part><PartNumber>").append(part).append("</PartNumber><ETag>")
+                        .append(etags.get(part - 1).join()).append("</ETag></Part>");
+            }
+            complete.append("</CompleteMultipartUpload>");
+            HttpResponse<String> completed = join(send("POST", bucketUri(key), Map.of("uploadId", uploadId),
+                    complete.toString().getBytes(StandardCharsets.UTF_8)).thenApply(response -> {
+                        check(response, "complete multipart upload of " + key);
+                        return response;
+                    }));
+            // A completion can fail with 200 OK and an error document
+            if (completed.body().contains("<Error>")) {
+                throw new IOException("Multipart upload of " + key + " failed: " + completed.body());
+            }
+        } catch (IOException | RuntimeException e) {
+            abort(key, uploadId);
+            throw e;
+        }
+    }
+
+    /**
+     * Aborts a multipart upload, so the store drops its parts. Failures are only logged.
+     *
+     * @param key the object key
+     * @param uploadId the upload id
+     */
+    private void abort(String key, String uploadId) {
+        try {
+            join(send("DELETE", bucketUri(key), Map.of("uploadId", uploadId), new byte[0]));
+        } catch (IOException | RuntimeException e) {
+            Log.warnv("Could not abort multipart upload {} of {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    /**
+     * Sends a signed request, waiting for an object store permit first.
+     *
+     * @param method the HTTP method
+     * @param uri the URI without a query
+     * @param query the query parameters
+     * @param body the request body
+     * @return the response
+     * @throws java.util.concurrent.RejectedExecutionException if no permit became available in time
+     */
+    private CompletableFuture<HttpResponse<String>> send(String method, URI uri, Map<String, String> query, byte[] body) {
+        return send(downstreamLimiter.acquire(Downstream.OBJECT_STORE), method, uri, query, body);
+    }
+
+    /**
+     * Sends a signed request holding a permit, which is released when the response arrives.
+     *
+     * @param permit the object store permit taken for the request
+     * @param method the HTTP method
+     * @param uri the URI without a query
+     * @param query the query parameters
+     * @param body the request body
+     * @return the response
+     */
+    private CompletableFuture<HttpResponse<String>> send(DownstreamLimiter.Permit permit, String method, URI uri,
+                                                         Map<String, String> query, byte[] body) {
+        try {
+            String canonicalQuery = canonicalQuery(query);
+            URI target = canonicalQuery.isEmpty() ? uri : URI.create(uri + "?" + canonicalQuery);
+            HttpRequest.Builder request = HttpRequest.newBuilder(target)
+                    .timeout(Deadline.boundCurrent(timeout))
+                    .method(method, body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(body));
+            sign(request, method, uri, canonicalQuery, body);
+            return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> permit.release(failure != null));
+        } catch (RuntimeException e) {
+            permit.release(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Adds the AWS Signature Version 4 headers to a request.
+     *
+     * @param request the request
+     * @param method the HTTP method
+     * @param uri the URI without a query
+     * @param canonicalQuery the encoded, sorted query
+     * @param body the request body
+     */
+    private void sign(HttpRequest.Builder request, String method, URI uri, String canonicalQuery, byte[] body) {
+        String amzDate = AMZ_DATE.format(ZonedDateTime.now(ZoneOffset.UTC));
+        String payloadHash = hex(sha256(body));
+        request.header("x-amz-date", amzDate)
+                .header("x-amz-content-sha256", payloadHash)
+                .header("Authorization", authorization(method, uri, canonicalQuery, payloadHash, amzDate));
+    }
+
+    /**
+     * Computes the AWS Signature Version 4 {@code Authorization} header of a request that
+     * signs the {@code host}, {@code x-amz-content-sha256} and {@code x-amz-date} headers.
+     *
+     * @param method the HTTP method
+     * @param uri the URI without a query
+     * @param canonicalQuery the encoded, sorted query
+     * @param payloadHash the hex SHA-256 of the request body
+     * @param amzDate the {@code x-amz-date} of the request
+     * @return the header value
+     */
+    String authorization(String method, URI uri, String canonicalQuery, String payloadHash, String amzDate) {
+        String date = amzDate.substring(0, 8);
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+
+        String signedHeaders = "host;x-amz-content-sha256;x-amz-date";
+        String canonicalRequest = method + "\n"
+                + uri.getRawPath() + "\n"
+                + canonicalQuery + "\n"
+                + "host:" + host + "\n"
+                + "x-amz-content-sha256:" + payloadHash + "\n"
+                + "x-amz-date:" + amzDate + "\n"
+                + "\n"
+                + signedHeaders + "\n"
+                + payloadHash;
+        String scope = date + "/" + region + "/s3/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+                + hex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+        byte[] key = hmac(("AWS4" + secretKey.orElse("")).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        String signature = hex(hmac(key, stringToSign));
+
+        return "AWS4-HMAC-SHA256 Credential=" + accessKey.orElse("") + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature;
+    }
+
+    /**
+     * Builds the URI of an object, or of the bucket for an empty key.
+     *
+     * @param key the object key
+     * @return the URI without a query
+     */
+    private URI bucketUri(String key) {
+        URI endpoint = URI.create(endpointConfig.orElseThrow(() ->
+                new IllegalStateException("family.history.delivery.s3.endpoint is not configured")));
+        String base = endpoint.getScheme() + "://"
+                + (pathStyle ? "" : bucket() + ".")
+                + endpoint.getRawAuthority();
+        String path = (pathStyle ? "/" + encode(bucket()) : "") + "/" + encodePath(key);
+        return URI.create(base + path);
+    }
+
+    /**
+     * Gets the configured bucket.
+     *
+     * @return the bucket name
+     */
+    private String bucket() {
+        return bucketConfig.orElseThrow(() ->
+                new IllegalStateException("family.history.delivery.s3.bucket is not configured"));
+    }
+
+    /**
+     * Fails a response with a non-2xx status.
+     *
+     * @param response the response
+     * @param operation what the request did, for the message
+     * @throws CompletionException wrapping an {@link IOException} if the request failed
+     */
+    private static void check(HttpResponse<String> response, String operation) {
+        if (response.statusCode() / 100 != 2) {
+            throw new CompletionException(new IOException(operation + " failed with HTTP "
+                    + response.statusCode() + ": " + response.body()));
+        }
+    }
+
+    /**
+     * Waits for an asynchronous request and unwraps its failure.
+     *
+     * @param future the request
+     * @param <T> the result type
+     * @return the result
+     * @throws IOException if the request failed
+     */
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Object store request failed", cause);
+        }
+    }
+
+    /**
+     * Encodes and sorts query parameters as required by the signature.
+     *
+     * @param query the query parameters
+     * @return the canonical query string
+     */
+    static String canonicalQuery(Map<String, String> query) {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, String> entry : new TreeMap<>(query).entrySet()) {
+            if (!result.isEmpty()) {
+                result.append('&');
+            }
+            result.append(encode(entry.getKey())).append('=').append(encode(entry.getValue()));
+        }
+        return result.toString();
+    }
+
+    /**
+     * URI-encodes an object key, keeping its slashes.
+     *
+     * @param key the key
+     * @return the encoded key
+     */
+    static String encodePath(String key) {
+        return encode(key).replace("%2F", "/");
+    }
+
+    /**
+     * URI-encodes a value as required by the signature: only unreserved characters are
+     * left as they are.
+     *
+     * @param value the value
+     * @return the encoded value
+     */
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8)
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+
+    /**
+     * Hashes data with SHA-256.
+     *
+     * @param data the data
+     * @return the digest
+     */
+    static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Computes an HMAC-SHA256.
+     *
+     * @param key the key
+     * @param data the data
+     * @return the MAC
+     */
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Formats bytes as lowercase hex.
+     *
+     * @param bytes the bytes
+     * @return the hex string
+     */
+    static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
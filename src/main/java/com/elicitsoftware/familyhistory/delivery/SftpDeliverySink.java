@@ -0,0 +1,67 @@
+package com.elicitsoftware.familyhistory.delivery;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.familyhistory.SftpService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * Delivers report files to the SFTP server configured with {@code family.history.sftp.*}.
+ *
+ * <p>The files are uploaded over one session by the {@link SftpService}, each to a temporary
+ * name that is renamed once its size was verified; the index file is renamed last.
+ * Concurrent uploads are capped by the SFTP limit of the
+ * {@link com.elicitsoftware.common.concurrency.DownstreamLimiter}.</p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class SftpDeliverySink implements DeliverySink {
+
+    /**
+     * Name of the sink.
+     */
+    public static final String NAME = "sftp";
+
+    /**
+     * Service performing the uploads.
+     */
+    @Inject
+    SftpService sftpService;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public SftpDeliverySink() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(List<DeliveryFile> files) {
+        sftpService.uploadFiles(files);
+    }
+
+    @Override
+    public boolean testConnection() {
+        return sftpService.testConnection();
+    }
+}
@@ -18,6 +18,13 @@ import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.output.ValidateResult;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 
 /**
  * Service responsible for managing database migrations using Flyway.
@@ -26,6 +33,14 @@ import org.flywaydb.core.Flyway;
  * to check and execute database migrations. It integrates with Quarkus's Flyway
  * extension to manage the database schema evolution.
  * </p>
+ * <p>
+ * Repairing and migrating lock the schema history table, which every pod of a rolling
+ * deploy would otherwise do on start. Before that, the packaged migrations are validated
+ * against the schema history table, which compares their checksums in a single read and
+ * takes no lock; when nothing changed, repair and migrate are skipped. Otherwise the pod
+ * takes a PostgreSQL advisory lock so only one pod repairs and migrates at a time, and the
+ * others check again once it is released.
+ * </p>
  *
  * @author Elicit Software
  * @version 1.0
@@ -56,6 +71,13 @@ public class MigrationService {
     @ConfigProperty(name = "quarkus.flyway.owner.migrate-at-start")
     boolean migrateAtStart;
 
+    /**
+     * Whether repair and migrate are skipped when the schema history matches the packaged
+     * migrations. Set to {@code false} to always repair and migrate.
+     */
+    @ConfigProperty(name = "family.history.migration.fast-path", defaultValue = "true")
+    boolean fastPath;
+
     /**
      * Post-construction method that checks if manual migration is needed.
      * <p>
@@ -75,15 +97,98 @@ public class MigrationService {
      * <p>
      * This method:
      * <ul>
+     *   <li>Skips the migration if the schema history matches the packaged migrations</li>
+     *   <li>Takes an advisory lock so only one pod migrates at a time</li>
      *   <li>Repairs the Flyway schema history table if necessary</li>
      *   <li>Executes pending migrations</li>
      *   <li>Prints the current database version to the console</li>
      * </ul>
+     * <p>
+     * Flyway locks the schema history table while it migrates, but not while it repairs, so
+     * without the advisory lock one pod could repair the history while another applies a
+     * migration. The lock also covers the pair, which lets pods that waited for it see that
+     * the schema is now current and skip both.
+     * </p>
      */
     public void checkMigration() {
-        // Use the flyway instance manually
-        flywayForOwner.repair();
-        flywayForOwner.migrate();
-        Log.infov("Database migrated to version: {}", flywayForOwner.info().current().getVersion().toString());
+        if (isCurrent()) {
+            Log.info("Database schema is current, skipping Flyway repair and migrate");
+            return;
+        }
+        try (Connection connection = flywayForOwner.getConfiguration().getDataSource().getConnection()) {
+            long key = lockKey();
+            advisoryLock(connection, "SELECT pg_advisory_lock(?)", key);
+            try {
+                // Another pod may have migrated while this one waited for the lock
+                if (isCurrent()) {
+                    Log.info("Database schema was migrated by another instance, skipping Flyway repair and migrate");
+                    return;
+                }
+                // Use the flyway instance manually
+                flywayForOwner.repair();
+                flywayForOwner.migrate();
+                // The migrate result has no target version when nothing was pending
+                MigrationInfo current = flywayForOwner.info().current();
+                Log.infov("Database migrated to version: {}", current == null ? "none" : current.getVersion());
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)", key);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not lock the database for migration", e);
+        }
+    }
+
+    /**
+     * Checks whether the schema history matches the packaged migrations.
+     * <p>
+     * Flyway validation reads the schema history table once and compares the version and
+     * checksum of every applied migration with the packaged ones; a pending, failed or
+     * changed migration fails it. Validation takes no lock and writes nothing.
+     * </p>
+     *
+     * @return {@code true} if repair and migrate can be skipped
+     */
+    private boolean isCurrent() {
+        if (!fastPath) {
+            return false;
+        }
+        try {
+            ValidateResult result = flywayForOwner.validateWithResult();
+            if (!result.validationSuccessful) {
+                Log.infov("Database schema needs migration: {}", result.getAllErrorMessages());
+            }
+            return result.validationSuccessful;
+        } catch (FlywayException e) {
+            // e.g. no schema history table yet
+            Log.infov("Database schema could not be validated, migrating: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Derives the advisory lock key from the schema history table, so installations sharing
+     * a database with a different table do not wait for each other.
+     *
+     * @return the lock key
+     */
+    private long lockKey() {
+        String[] schemas = flywayForOwner.getConfiguration().getSchemas();
+        String schema = schemas.length > 0 ? schemas[0] : "";
+        return (schema + "." + flywayForOwner.getConfiguration().getTable()).hashCode();
+    }
+
+    /**
+     * Takes or releases a session level advisory lock on the given connection.
+     *
+     * @param connection the connection holding the lock
+     * @param sql        {@code pg_advisory_lock} or {@code pg_advisory_unlock}
+     * @param key        the lock key
+     * @throws SQLException if the statement fails
+     */
+    private static void advisoryLock(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            statement.execute();
+        }
     }
 }
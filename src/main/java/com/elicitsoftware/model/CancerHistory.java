@@ -0,0 +1,201 @@
+package com.elicitsoftware.model;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+/**
+ * Compact cancer history of one family member.
+ * <p>
+ * Replaces a flag, an age and a "multiple" string per {@link CancerType} with two bit sets
+ * indexed by {@link CancerType#ordinal()} and one {@code short} age per type. Ages that
+ * were not answered are stored as {@link #UNKNOWN_AGE}.
+ * </p>
+ * <p>
+ * A family member may be described by several survey rows; {@link #record} can be called
+ * once per row and the last diagnosis recorded for a type wins.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ * @see CancerType
+ */
+public final class CancerHistory {
+
+    /**
+     * Sentinel stored for a diagnosis without an age.
+     */
+    public static final short UNKNOWN_AGE = -1;
+
+    /**
+     * Text shown in the pedigree for {@link #UNKNOWN_AGE}.
+     */
+    private static final String UNKNOWN_AGE_LABEL = "unk. age";
+
+    /**
+     * Bit {@code 1 << type.ordinal()} is set for each diagnosed cancer type.
+     */
+    private int present;
+
+    /**
+     * Bit {@code 1 << type.ordinal()} is set for each cancer type that occurred more than once.
+     */
+    private int multiple;
+
+    /**
+     * Age at diagnosis per cancer type; only meaningful when the type is present.
+     */
+    private final short[] ages = new short[CancerType.all().length];
+
+    /**
+     * Name the respondent gave to {@link CancerType#OTHER}, or an empty string.
+     */
+    private String otherName = "";
+
+    /**
+     * Creates an empty cancer history.
+     */
+    public CancerHistory() {
+        // Nothing recorded yet
+    }
+
+    /**
+     * Records a diagnosis.
+     *
+     * @param type the cancer type
+     * @param age the age at diagnosis, or {@code null} if unknown
+     * @param isMultiple whether the cancer occurred more than once
+     */
+    public void record(CancerType type, Integer age, boolean isMultiple) {
+        int bit = 1 << type.ordinal();
+        present |= bit;
+        if (isMultiple) {
+            multiple |= bit;
+        } else {
+            multiple &= ~bit;
+        }
+        ages[type.ordinal()] = age == null || age < 0 || age > Short.MAX_VALUE ? UNKNOWN_AGE : age.shortValue();
+    }
+
+    /**
+     * Indicates whether a cancer type was diagnosed.
+     *
+     * @param type the cancer type
+     * @return {@code true} if the type was recorded
+     */
+    public boolean has(CancerType type) {
+        return (present & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Indicates whether a cancer type occurred more than once.
+     *
+     * @param type the cancer type
+     * @return {@code true} if the type was recorded as multiple
+     */
+    public boolean isMultiple(CancerType type) {
+        return (multiple & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Gets the age at diagnosis of a cancer type.
+     *
+     * @param type the cancer type
+     * @return the age, or {@link #UNKNOWN_AGE}
+     */
+    public short getAge(CancerType type) {
+        return ages[type.ordinal()];
+    }
+
+    /**
+     * Indicates whether no cancer was recorded.
+     *
+     * @return {@code true} if no type is present and no other cancer was named
+     */
+    public boolean isEmpty() {
+        return present == 0 && otherName.isEmpty();
+    }
+
+    /**
+     * Indicates whether any cancer type occurred more than once.
+     *
+     * @return {@code true} if any multiple bit is set
+     */
+    public boolean hasMultiple() {
+        return multiple != 0;
+    }
+
+    /**
+     * Gets the name given to {@link CancerType#OTHER}.
+     *
+     * @return the name, or an empty string
+     */
+    public String getOtherName() {
+        return otherName;
+    }
+
+    /**
+     * Sets the name given to {@link CancerType#OTHER}.
+     *
+     * @param otherName the name; {@code null} is stored as an empty string
+     */
+    public void setOtherName(String otherName) {
+        this.otherName = otherName == null ? "" : otherName;
+    }
+
+    /**
+     * Appends the pedigree label, e.g. {@code Breast* 45; Other (Brain) unk. age}.
+     * <p>
+     * Cancers are listed in {@link CancerType} order, except {@link CancerType#OTHER},
+     * which comes last. Types that occurred more than once are marked with {@code *}.
+     * </p>
+     *
+     * @param sb the builder to append to
+     */
+    public void appendPedigreeLabel(StringBuilder sb) {
+        for (CancerType type : CancerType.all()) {
+            if (type != CancerType.OTHER && has(type)) {
+                appendEntry(sb, type.getPedigreeLabel(), null, type);
+            }
+        }
+        if (has(CancerType.OTHER)) {
+            appendEntry(sb, CancerType.OTHER.getPedigreeLabel(), otherName.isEmpty() ? null : otherName, CancerType.OTHER);
+        }
+    }
+
+    /**
+     * Appends one cancer to the pedigree label.
+     *
+     * @param sb the builder to append to
+     * @param label the cancer label
+     * @param qualifier text shown in parentheses after the label, or {@code null}
+     * @param type the cancer type
+     */
+    private void appendEntry(StringBuilder sb, String label, String qualifier, CancerType type) {
+        if (!sb.isEmpty()) {
+            sb.append("; ");
+        }
+        sb.append(label);
+        if (qualifier != null) {
+            sb.append(" (").append(qualifier).append(')');
+        }
+        if (isMultiple(type)) {
+            sb.append('*');
+        }
+        sb.append(' ');
+        short age = getAge(type);
+        if (age == UNKNOWN_AGE) {
+            sb.append(UNKNOWN_AGE_LABEL);
+        } else {
+            sb.append(age);
+        }
+    }
+}
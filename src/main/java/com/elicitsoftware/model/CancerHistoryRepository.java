@@ -12,11 +12,14 @@ package com.elicitsoftware.model;
  */
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * Repository for cancer history queries optimized for minimal data transfer.
@@ -25,6 +28,11 @@ import jakarta.persistence.EntityManager;
  * columns needed for processing, avoiding the expensive joins and full column
  * selection of the fact_fhhs_view. This significantly improves query performance.
  * </p>
+ * <p>
+ * Reads prefer the materialized {@code surveyreport.fhhs_family_history} table, which is
+ * refreshed per respondent by {@code FamilyHistorySnapshotService}, and fall back to
+ * {@code fact_sections_view} for respondents whose snapshot is missing or stale.
+ * </p>
  *
  * @author Elicit Software
  * @version 1.0
@@ -41,6 +49,14 @@ public class CancerHistoryRepository {
     @Inject
     EntityManager entityManager;
 
+    /**
+     * Whether reads should prefer the materialized {@code surveyreport.fhhs_family_history} table.
+     * Configured via the {@code family.history.snapshot.enabled} property. Defaults to {@code true}.
+     * When {@code false}, every read goes straight to {@code fact_sections_view}.
+     */
+    @ConfigProperty(name = "family.history.snapshot.enabled", defaultValue = "true")
+    boolean snapshotEnabled;
+
     /**
      * Default constructor for CancerHistoryRepository.
      * <p>
@@ -107,6 +123,141 @@ public class CancerHistoryRepository {
     }
 
 
+    /**
+     * Column list shared by every family history query and by the snapshot insert.
+     * <p>
+     * The order of the columns must match the positional mapping performed in
+     * {@link #mapFamilyHistoryResults(List)}. The names are unqualified so the same list
+     * serves as the select list of the queries and the target list of the insert.
+     * </p>
+     */
+    private static final String FAMILY_HISTORY_COLUMNS = """
+                    step,
+                    step_instance,
+                    relationship,
+                    age,
+                    gender,
+                    vital_status,
+                    shared_parent,
+                    ashkenazi,
+                    bladder_cancer,
+                    bladder_cancer_age,
+                    breast_cancer,
+                    breast_cancer_age,
+                    triple_negative_breast_cancer,
+                    colon_or_rectal_cancer,
+                    colon_or_rectal_cancer_age,
+                    endometrial_or_uterine_cancer,
+                    endometrial_or_uterine_cancer_age,
+                    kidney_renal_cell_cancer,
+                    kidney_renal_cell_cancer_age,
+                    leukemia,
+                    leukemia_age,
+                    lung_cancer,
+                    lung_cancer_age,
+                    lymphoma,
+                    lymphoma_age,
+                    melanoma_skin_cancer,
+                    melanoma_skin_cancer_age,
+                    nonmelanoma_skin_cancer,
+                    nonmelanoma_skin_cancer_age,
+                    oral_cavity_or_throat_cancer,
+                    oral_cavity_or_throat_cancer_age,
+                    other_cancer,
+                    other_age,
+                    other_cancer_name,
+                    ovarian_cancer,
+                    ovarian_cancer_age,
+                    pancreatic_cancer,
+                    pancreatic_cancer_age,
+                    prostate_cancer,
+                    prostate_cancer_age,
+                    stomach_cancer,
+                    stomach_cancer_age,
+                    testicular_cancer,
+                    testicular_cancer_age,
+                    thyroid_cancer,
+                    thyroid_cancer_age,
+                    unknown_cancer,
+                    unknown_cancer_age,
+                    multiple_bladder_cancers,
+                    multiple_breast_cancers,
+                    multiple_colon_or_rectal_cancers,
+                    multiple_endometrial_or_uterine_cancers,
+                    multiple_kidney_renal_cell_cancers,
+                    multiple_leukemias,
+                    multiple_lung_cancers,
+                    multiple_lymphomas,
+                    multiple_melanoma_skin_cancers,
+                    multiple_nonmelanoma_skin_cancers,
+                    multiple_oral_cavity_or_throat_cancers,
+                    multiple_other_cancers,
+                    multiple_ovarian_cancers,
+                    multiple_pancreatic_cancers,
+                    multiple_prostate_cancers,
+                    multiple_stomach_cancers,
+                    multiple_testicular_cancers,
+                    multiple_thyroid_cancers
+                """;
+
+    /**
+     * Target column list of the snapshot insert: the respondent followed by the
+     * {@link #FAMILY_HISTORY_COLUMNS}.
+     */
+    private static final String SNAPSHOT_COLUMNS = "respondent_id, " + FAMILY_HISTORY_COLUMNS;
+
+    /**
+     * Predicate matching respondents whose snapshot is current: it was refreshed after the
+     * last resync, so no change notification can have been missed since.
+     */
+    private static final String SNAPSHOT_CURRENT = """
+                EXISTS (SELECT 1 FROM surveyreport.fhhs_family_history_refresh h
+                        JOIN surveyreport.fhhs_family_history_resync s ON h.refreshed_dt > s.resynced_dt
+                        WHERE h.respondent_id = :respondentId)
+            """;
+
+    /**
+     * Class id of the Postgres advisory lock held while the snapshot of a respondent is
+     * refreshed. The object id is the respondent id.
+     */
+    static final int SNAPSHOT_LOCK_CLASS_ID = 0x46485348;
+
+    /**
+     * Predicate matching rows that render at least one line in a cancer summary.
+     * <p>
+     * Mirrors the checks in {@link RowConverter#toRows(FamilyHistoryRecord)}: a row is kept when any
+     * cancer indicator is {@code true}. Ashkenazi ancestry is rendered alongside the cancers by the
+     * converter, so it is part of the predicate as well; otherwise a relative who only reported
+     * ancestry would silently disappear from the summary.
+     * </p>
+     * <p>
+     * The partial index {@code idx_fact_sections_cancer_respondent} (migration V0.0.8) repeats
+     * this predicate; the two must stay identical for the planner to use the index.
+     * </p>
+     */
+    private static final String ANY_CANCER_PREDICATE = """
+                (lower(f.bladder_cancer::text) = 'true'
+                    OR lower(f.breast_cancer::text) = 'true'
+                    OR lower(f.colon_or_rectal_cancer::text) = 'true'
+                    OR lower(f.endometrial_or_uterine_cancer::text) = 'true'
+                    OR lower(f.kidney_renal_cell_cancer::text) = 'true'
+                    OR lower(f.leukemia::text) = 'true'
+                    OR lower(f.lung_cancer::text) = 'true'
+                    OR lower(f.lymphoma::text) = 'true'
+                    OR lower(f.melanoma_skin_cancer::text) = 'true'
+                    OR lower(f.nonmelanoma_skin_cancer::text) = 'true'
+                    OR lower(f.oral_cavity_or_throat_cancer::text) = 'true'
+                    OR lower(f.other_cancer::text) = 'true'
+                    OR lower(f.ovarian_cancer::text) = 'true'
+                    OR lower(f.pancreatic_cancer::text) = 'true'
+                    OR lower(f.prostate_cancer::text) = 'true'
+                    OR lower(f.stomach_cancer::text) = 'true'
+                    OR lower(f.testicular_cancer::text) = 'true'
+                    OR lower(f.thyroid_cancer::text) = 'true'
+                    OR lower(f.unknown_cancer::text) = 'true'
+                    OR lower(f.ashkenazi::text) = 'true')
+            """;
+
     /**
      * Fetches complete family history data for all family members of a respondent.
      * <p>
@@ -120,85 +271,232 @@ public class CancerHistoryRepository {
      * @return list of FamilyHistoryRecord objects with complete family data
      */
     public List<FamilyHistoryRecord> findFamilyHistoryByRespondentId(long respondentId) {
-        String sql = """
-                SELECT 
-                    f.step,
-                    f.step_instance,
-                    f.relationship,
-                    f.age,
-                    f.gender,
-                    f.vital_status,
-                    f.shared_parent,
-                    f.ashkenazi,
-                    f.bladder_cancer,
-                    f.bladder_cancer_age,
-                    f.breast_cancer,
-                    f.breast_cancer_age,
-                    f.triple_negative_breast_cancer,
-                    f.colon_or_rectal_cancer,
-                    f.colon_or_rectal_cancer_age,
-                    f.endometrial_or_uterine_cancer,
-                    f.endometrial_or_uterine_cancer_age,
-                    f.kidney_renal_cell_cancer,
-                    f.kidney_renal_cell_cancer_age,
-                    f.leukemia,
-                    f.leukemia_age,
-                    f.lung_cancer,
-                    f.lung_cancer_age,
-                    f.lymphoma,
-                    f.lymphoma_age,
-                    f.melanoma_skin_cancer,
-                    f.melanoma_skin_cancer_age,
-                    f.nonmelanoma_skin_cancer,
-                    f.nonmelanoma_skin_cancer_age,
-                    f.oral_cavity_or_throat_cancer,
-                    f.oral_cavity_or_throat_cancer_age,
-                    f.other_cancer,
-                    f.other_age,
-                    f.other_cancer_name,
-                    f.ovarian_cancer,
-                    f.ovarian_cancer_age,
-                    f.pancreatic_cancer,
-                    f.pancreatic_cancer_age,
-                    f.prostate_cancer,
-                    f.prostate_cancer_age,
-                    f.stomach_cancer,
-                    f.stomach_cancer_age,
-                    f.testicular_cancer,
-                    f.testicular_cancer_age,
-                    f.thyroid_cancer,
-                    f.thyroid_cancer_age,
-                    f.unknown_cancer,
-                    f.unknown_cancer_age,
-                    f.multiple_bladder_cancers,
-                    f.multiple_breast_cancers,
-                    f.multiple_colon_or_rectal_cancers,
-                    f.multiple_endometrial_or_uterine_cancers,
-                    f.multiple_kidney_renal_cell_cancers,
-                    f.multiple_leukemias,
-                    f.multiple_lung_cancers,
-                    f.multiple_lymphomas,
-                    f.multiple_melanoma_skin_cancers,
-                    f.multiple_nonmelanoma_skin_cancers,
-                    f.multiple_oral_cavity_or_throat_cancers,
-                    f.multiple_other_cancers,
-                    f.multiple_ovarian_cancers,
-                    f.multiple_pancreatic_cancers,
-                    f.multiple_prostate_cancers,
-                    f.multiple_stomach_cancers,
-                    f.multiple_testicular_cancers,
-                    f.multiple_thyroid_cancers
-                FROM surveyreport.fact_sections_view f
-                WHERE f.respondent_id = ?1
-                ORDER BY f.relationship, f.step
-                """;
+        return findFamilyHistory(respondentId, "", Map.of());
+    }
+
+    /**
+     * Fetches the family history rows of a respondent that belong to the given survey steps.
+     * <p>
+     * Reports that only render a handful of steps (for example the proband summary) use this
+     * variant so the step filter is evaluated by the database instead of mapping every
+     * relative's row and discarding it in Java.
+     * </p>
+     *
+     * @param respondentId the respondent identifier
+     * @param steps the survey step names to include (e.g. {@code "Proband"}); must not be empty
+     * @return list of FamilyHistoryRecord objects for the requested steps
+     */
+    public List<FamilyHistoryRecord> findFamilyHistoryByRespondentIdAndSteps(long respondentId, Collection<String> steps) {
+        if (steps == null || steps.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return findFamilyHistory(respondentId, " AND f.step IN (:steps)", Map.of("steps", steps));
+    }
+
+    /**
+     * Fetches the family history rows of a respondent that report at least one cancer.
+     * <p>
+     * Rows for the excluded steps are filtered out in SQL as well. Rows without a step are
+     * kept, matching the behaviour of filtering the full result list in Java.
+     * </p>
+     *
+     * @param respondentId the respondent identifier
+     * @param excludedSteps survey step names to leave out (e.g. {@code "Proband"}); may be empty
+     * @return list of FamilyHistoryRecord objects that have at least one reportable diagnosis
+     */
+    public List<FamilyHistoryRecord> findFamilyHistoryWithCancerByRespondentId(long respondentId, Collection<String> excludedSteps) {
+        if (excludedSteps == null || excludedSteps.isEmpty()) {
+            return findFamilyHistory(respondentId, " AND " + ANY_CANCER_PREDICATE, Map.of());
+        }
+        return findFamilyHistory(respondentId,
+                " AND (f.step IS NULL OR f.step NOT IN (:excludedSteps)) AND " + ANY_CANCER_PREDICATE,
+                Map.of("excludedSteps", excludedSteps));
+    }
+
+    /**
+     * Runs the family history query for a respondent with an optional additional filter.
+     *
+     * @param respondentId the respondent identifier
+     * @param filter additional SQL appended to the {@code WHERE} clause, starting with {@code AND},
+     *               or an empty string
+     * @param parameters named parameters referenced by {@code filter}
+     * @return list of mapped FamilyHistoryRecord objects
+     */
+    private List<FamilyHistoryRecord> findFamilyHistory(long respondentId, String filter, Map<String, ?> parameters) {
+        String sql;
+        if (snapshotEnabled) {
+            // Read the materialized rows when the respondent's snapshot is current, otherwise
+            // fall back to the view. The guards are evaluated once per query, so the view is
+            // only pivoted for respondents without a current snapshot.
+            sql = "SELECT * FROM ("
+                    + " SELECT " + FAMILY_HISTORY_COLUMNS
+                    + " FROM surveyreport.fhhs_family_history f"
+                    + " WHERE f.respondent_id = :respondentId" + filter
+                    + " AND " + SNAPSHOT_CURRENT
+                    + " UNION ALL"
+                    + " SELECT " + FAMILY_HISTORY_COLUMNS
+                    + " FROM surveyreport.fact_sections_view f"
+                    + " WHERE f.respondent_id = :respondentId" + filter
+                    + " AND NOT " + SNAPSHOT_CURRENT
+                    + ") f ORDER BY f.relationship, f.step";
+        } else {
+            sql = "SELECT " + FAMILY_HISTORY_COLUMNS
+                    + " FROM surveyreport.fact_sections_view f"
+                    + " WHERE f.respondent_id = :respondentId" + filter
+                    + " ORDER BY f.relationship, f.step";
+        }
 
         var query = entityManager.createNativeQuery(sql);
-        query.setParameter(1, respondentId);
+        query.setParameter("respondentId", respondentId);
+        parameters.forEach(query::setParameter);
 
         return mapFamilyHistoryResults(query.getResultList());
     }
 
+    /**
+     * Rebuilds the materialized family history rows of a single respondent.
+     * <p>
+     * Replaces the respondent's rows in {@code surveyreport.fhhs_family_history} with the current
+     * content of {@code fact_sections_view} and records the finalization date the snapshot was
+     * taken from. Must be called inside an active transaction.
+     * </p>
+     * <p>
+     * Refreshes of the same respondent can overlap: a report job or the finalization watcher
+     * against the sweep, or the sweeps of several nodes. Under READ COMMITTED both DELETEs
+     * would then find no committed rows and both INSERTs would go through, storing every
+     * relative twice. The refresh therefore first takes a transaction-level advisory lock on
+     * the respondent, so the second one waits and replaces the rows of the first.
+     * </p>
+     *
+     * @param respondentId the respondent identifier
+     * @return the number of family history rows materialized
+     */
+    public int refreshFamilyHistorySnapshot(long respondentId) {
+        lockSnapshot(respondentId);
+
+        entityManager.createNativeQuery(
+                        "DELETE FROM surveyreport.fhhs_family_history WHERE respondent_id = :respondentId")
+                .setParameter("respondentId", respondentId)
+                .executeUpdate();
+
+        int rows = entityManager.createNativeQuery(
+                        "INSERT INTO surveyreport.fhhs_family_history (" + SNAPSHOT_COLUMNS + ")"
+                                + " SELECT f.respondent_id, " + FAMILY_HISTORY_COLUMNS
+                                + " FROM surveyreport.fact_sections_view f"
+                                + " WHERE f.respondent_id = :respondentId")
+                .setParameter("respondentId", respondentId)
+                .executeUpdate();
+
+        entityManager.createNativeQuery("""
+                        INSERT INTO surveyreport.fhhs_family_history_refresh (respondent_id, source_finalized_dt, refreshed_dt)
+                        SELECT r.id, r.finalized_dt, now()
+                        FROM survey.respondents r
+                        WHERE r.id = :respondentId
+                        ON CONFLICT (respondent_id) DO UPDATE
+                            SET source_finalized_dt = EXCLUDED.source_finalized_dt,
+                                refreshed_dt = EXCLUDED.refreshed_dt
+                        """)
+                .setParameter("respondentId", respondentId)
+                .executeUpdate();
+
+        return rows;
+    }
+
+    /**
+     * Drops the materialized family history of a single respondent.
+     * <p>
+     * Until the respondent is refreshed again, reads fall back to {@code fact_sections_view}.
+     * Removing the refresh row as well makes the next sweep pick the respondent up.
+     * Must be called inside an active transaction.
+     * </p>
+     * <p>
+     * Takes the same advisory lock as {@link #refreshFamilyHistorySnapshot(long)}. Otherwise a
+     * refresh that read the view before an edit committed could commit after the invalidation
+     * and leave the stale rows in place; with the lock, the invalidation waits for that refresh
+     * and removes its rows.
+     * </p>
+     *
+     * @param respondentId the respondent identifier
+     * @return the number of family history rows removed
+     */
+    public int invalidateFamilyHistorySnapshot(long respondentId) {
+        lockSnapshot(respondentId);
+
+        entityManager.createNativeQuery(
+                        "DELETE FROM surveyreport.fhhs_family_history_refresh WHERE respondent_id = :respondentId")
+                .setParameter("respondentId", respondentId)
+                .executeUpdate();
+
+        return entityManager.createNativeQuery(
+                        "DELETE FROM surveyreport.fhhs_family_history WHERE respondent_id = :respondentId")
+                .setParameter("respondentId", respondentId)
+                .executeUpdate();
+    }
+
+    /**
+     * Takes the transaction-level advisory lock that serializes the snapshot changes of a
+     * respondent. Postgres releases it when the transaction ends.
+     *
+     * @param respondentId the respondent identifier
+     */
+    private void lockSnapshot(long respondentId) {
+        entityManager.createNativeQuery("SELECT pg_advisory_xact_lock(?1, ?2)")
+                .setParameter(1, SNAPSHOT_LOCK_CLASS_ID)
+                .setParameter(2, Long.hashCode(respondentId))
+                .getSingleResult();
+    }
+
+    /**
+     * Marks the materialized family history of every respondent as stale.
+     * <p>
+     * Used when change notifications may have been lost, since any snapshot could then be
+     * stale. Rather than deleting the snapshots shared by the cluster, the resync time is moved
+     * to the start of this transaction: snapshots refreshed earlier are no longer current, so
+     * reads fall back to {@code fact_sections_view} and the sweep refreshes them again. A refresh
+     * that started before the resync may have read the view before the missed change, and its
+     * refresh time is earlier than the resync time, so it counts as stale too.
+     * Must be called inside an active transaction.
+     * </p>
+     */
+    public void markAllFamilyHistorySnapshotsStale() {
+        entityManager.createNativeQuery("UPDATE surveyreport.fhhs_family_history_resync SET resynced_dt = now()")
+                .executeUpdate();
+    }
+
+    /**
+     * Finds finalized respondents whose materialized family history is missing or out of date.
+     * <p>
+     * A snapshot is out of date when the respondent was finalized again after it was taken, or
+     * when it was taken before the last resync. Respondents are returned oldest finalization first.
+     * </p>
+     *
+     * @param limit the maximum number of respondent IDs to return
+     * @return respondent IDs that need a refresh
+     */
+    public List<Long> findStaleSnapshotRespondentIds(int limit) {
+        List<?> results = entityManager.createNativeQuery("""
+                        SELECT r.id
+                        FROM survey.respondents r
+                        LEFT JOIN surveyreport.fhhs_family_history_refresh h ON h.respondent_id = r.id
+                        WHERE r.finalized_dt IS NOT NULL
+                          AND (h.respondent_id IS NULL
+                               OR h.source_finalized_dt IS DISTINCT FROM r.finalized_dt
+                               OR h.refreshed_dt <= (SELECT s.resynced_dt FROM surveyreport.fhhs_family_history_resync s))
+                        ORDER BY r.finalized_dt
+                        LIMIT :limit
+                        """)
+                .setParameter("limit", limit)
+                .getResultList();
+
+        List<Long> ids = new ArrayList<>(results.size());
+        for (Object id : results) {
+            if (id instanceof Number) {
+                ids.add(((Number) id).longValue());
+            }
+        }
+        return ids;
+    }
+
     /**
      * Maps raw query results to FamilyHistoryRecord objects.
      *
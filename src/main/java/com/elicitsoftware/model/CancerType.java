@@ -0,0 +1,234 @@
+package com.elicitsoftware.model;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.util.function.Function;
+
+/**
+ * The cancer types captured by the family history survey.
+ * <p>
+ * Each constant knows how to read its diagnosis flag, age at diagnosis and "multiple"
+ * answer from a {@link FamilyHistoryRecord}, and carries the labels used by the
+ * report tables and the pedigree. Code that used to repeat the same block once per
+ * cancer iterates {@link #values()} instead; the declaration order is the order the
+ * report tables list the cancers in.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ * @see CancerHistory
+ */
+public enum CancerType {
+
+    /** Bladder cancer. */
+    BLADDER("Bladder Cancer", "Multiple Bladder Cancers", "Bladder",
+            r -> r.bladderCancer, r -> r.bladderCancerAge, r -> r.multipleBladdercancers),
+
+    /** Breast cancer. */
+    BREAST("Breast Cancer", "Multiple Breast Cancers", "Breast",
+            r -> r.breastCancer, r -> r.breastCancerAge, r -> r.multipleBreastcancers),
+
+    /** Colon or rectal cancer. */
+    COLON_RECTAL("Colon or Rectal Cancer", "Multiple Colon or Rectal Cancers", "Colon",
+            r -> r.colonOrRectalCancer, r -> r.colonOrRectalCancerAge, r -> r.multipleColonOrRectalCancers),
+
+    /** Endometrial or uterine cancer. */
+    ENDOMETRIAL_UTERINE("Endometrial or Uterine Cancer", "Multiple Endometrial or Uterine Cancers", "Uterine",
+            r -> r.endometrialOrUterineCancer, r -> r.endometrialOrUterineCancerAge,
+            r -> r.multipleEndometrialOrUterineCancers),
+
+    /** Kidney (renal cell) cancer. */
+    KIDNEY_RENAL_CELL("Kidney Renal Cell Cancer", "Multiple Kidney Renal Cell Cancers", "Kidney",
+            r -> r.kidneyRenalCellCancer, r -> r.kidneyRenalCellCancerAge, r -> r.multipleKidneyRenalCellCancers),
+
+    /** Leukemia. */
+    LEUKEMIA("Leukemia", "Multiple Leukemias", "Leukemia",
+            r -> r.leukemia, r -> r.leukemiaAge, r -> r.multipleLeukemias),
+
+    /** Lung cancer. */
+    LUNG("Lung Cancer", "Multiple Lung Cancers", "Lung",
+            r -> r.lungCancer, r -> r.lungCancerAge, r -> r.multipleLungCancers),
+
+    /** Lymphoma. */
+    LYMPHOMA("Lymphoma", "Multiple Lymphomas", "Lymphoma",
+            r -> r.lymphoma, r -> r.lymphomaAge, r -> r.multipleLymphomas),
+
+    /** Melanoma skin cancer. */
+    MELANOMA("Melanoma Skin Cancer", "Multiple Melanoma Skin Cancers", "Melanoma",
+            r -> r.melanomaSkinCancer, r -> r.melanomaSkinCancerAge, r -> r.multipleMelanomaSkinCancers),
+
+    /** Non-melanoma skin cancer. */
+    NON_MELANOMA("Non-Melanoma Skin Cancer", "Multiple Non-Melanoma Skin Cancers", "Non-Melanoma",
+            r -> r.nonmelanomaSkinCancer, r -> r.nonmelanomaSkinCancerAge, r -> r.multipleNonmelanomaSkinCancers),
+
+    /** Oral cavity or throat cancer. */
+    ORAL_THROAT("Oral Cavity or Throat Cancer", "Multiple Oral Cavity or Throat Cancers", "Oral",
+            r -> r.oralCavityOrThroatCancer, r -> r.oralCavityOrThroatCancerAge,
+            r -> r.multipleOralCavityOrThroatCancers),
+
+    /** Any other cancer; the respondent may name it (see {@link FamilyHistoryRecord#otherCancerName}). */
+    OTHER("Other Cancer", "Multiple Other Cancers", "Other",
+            r -> r.otherCancer, r -> r.otherAge, r -> r.multipleOtherCancers),
+
+    /** Ovarian cancer. */
+    OVARIAN("Ovarian Cancer", "Multiple Ovarian Cancers", "Ovarian",
+            r -> r.ovarianCancer, r -> r.ovarianCancerAge, r -> r.multipleOvarianCancers),
+
+    /** Pancreatic cancer. */
+    PANCREATIC("Pancreatic Cancer", "Multiple Pancreatic Cancers", "Pancreatic",
+            r -> r.pancreaticCancer, r -> r.pancreaticCancerAge, r -> r.multiplePancreaticCancers),
+
+    /** Prostate cancer. */
+    PROSTATE("Prostate Cancer", "Multiple Prostate Cancers", "Prostate",
+            r -> r.prostateCancer, r -> r.prostateCancerAge, r -> r.multipleProstateCancers),
+
+    /** Stomach cancer. */
+    STOMACH("Stomach Cancer", "Multiple Stomach Cancers", "Stomach",
+            r -> r.stomachCancer, r -> r.stomachCancerAge, r -> r.multipleStomachCancers),
+
+    /** Testicular cancer. */
+    TESTICULAR("Testicular Cancer", "Multiple Testicular Cancers", "Testicular",
+            r -> r.testicularCancer, r -> r.testicularCancerAge, r -> r.multipleTesticularCancers),
+
+    /** Thyroid cancer. */
+    THYROID("Thyroid Cancer", "Multiple Thyroid Cancers", "Thyroid",
+            r -> r.thyroidCancer, r -> r.thyroidCancerAge, r -> r.multipleThyroidCancers),
+
+    /** Cancer of unknown type. The survey does not ask whether it occurred more than once. */
+    UNKNOWN("Unknown Cancer", null, "Unknown",
+            r -> r.unknownCancer, r -> r.unknownCancerAge, r -> null);
+
+    /**
+     * Shared copy of {@link #values()}, which allocates a new array on every call.
+     */
+    private static final CancerType[] VALUES = values();
+
+    /**
+     * Label of the diagnosis row in the report tables.
+     */
+    private final String reportLabel;
+
+    /**
+     * Label of the "multiple" row in the report tables, or {@code null} if the survey does not ask.
+     */
+    private final String multipleReportLabel;
+
+    /**
+     * Short label used in the pedigree cancer label.
+     */
+    private final String pedigreeLabel;
+
+    /**
+     * Reads the diagnosis answer from a record.
+     */
+    private final Function<FamilyHistoryRecord, String> diagnosis;
+
+    /**
+     * Reads the age at diagnosis from a record.
+     */
+    private final Function<FamilyHistoryRecord, Integer> age;
+
+    /**
+     * Reads the "multiple" answer from a record.
+     */
+    private final Function<FamilyHistoryRecord, String> multiple;
+
+    /**
+     * Creates a cancer type.
+     *
+     * @param reportLabel label of the diagnosis row in the report tables
+     * @param multipleReportLabel label of the "multiple" row, or {@code null}
+     * @param pedigreeLabel short label used in the pedigree
+     * @param diagnosis reads the diagnosis answer
+     * @param age reads the age at diagnosis
+     * @param multiple reads the "multiple" answer
+     */
+    CancerType(String reportLabel, String multipleReportLabel, String pedigreeLabel,
+               Function<FamilyHistoryRecord, String> diagnosis,
+               Function<FamilyHistoryRecord, Integer> age,
+               Function<FamilyHistoryRecord, String> multiple) {
+        this.reportLabel = reportLabel;
+        this.multipleReportLabel = multipleReportLabel;
+        this.pedigreeLabel = pedigreeLabel;
+        this.diagnosis = diagnosis;
+        this.age = age;
+        this.multiple = multiple;
+    }
+
+    /**
+     * Returns all cancer types without allocating a new array.
+     * Callers must not modify the returned array.
+     *
+     * @return the cancer types in declaration order
+     */
+    static CancerType[] all() {
+        return VALUES;
+    }
+
+    /**
+     * Gets the label of the diagnosis row in the report tables.
+     *
+     * @return the report label
+     */
+    public String getReportLabel() {
+        return reportLabel;
+    }
+
+    /**
+     * Gets the label of the "multiple" row in the report tables.
+     *
+     * @return the label, or {@code null} if the survey does not ask about multiple occurrences
+     */
+    public String getMultipleReportLabel() {
+        return multipleReportLabel;
+    }
+
+    /**
+     * Gets the short label used in the pedigree.
+     *
+     * @return the pedigree label
+     */
+    public String getPedigreeLabel() {
+        return pedigreeLabel;
+    }
+
+    /**
+     * Reads the diagnosis answer of this cancer from a record.
+     *
+     * @param record the family history record
+     * @return the raw answer, possibly {@code null}
+     */
+    public String diagnosis(FamilyHistoryRecord record) {
+        return diagnosis.apply(record);
+    }
+
+    /**
+     * Reads the age at diagnosis of this cancer from a record.
+     *
+     * @param record the family history record
+     * @return the age, or {@code null} if unknown
+     */
+    public Integer age(FamilyHistoryRecord record) {
+        return age.apply(record);
+    }
+
+    /**
+     * Reads the "multiple" answer of this cancer from a record.
+     *
+     * @param record the family history record
+     * @return the raw answer, or {@code null}
+     */
+    public String multiple(FamilyHistoryRecord record) {
+        return multiple.apply(record);
+    }
+}
@@ -2,9 +2,7 @@ package com.elicitsoftware.model;
 
 /*-
  * ***LICENSE_START***
- *     * </ul>
-     *
-     * @return a formatted string representation suitable for pedigree toolscit FHHS
+ * Elicit FHHS
  * %%
  * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
  * %%
@@ -13,7 +11,6 @@ package com.elicitsoftware.model;
  * ***LICENSE_END***
  */
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -24,6 +21,11 @@ import java.util.List;
  * health patterns and generating pedigree representations suitable for
  * visualization and analysis tools.
  * </p>
+ * <p>
+ * The member list cannot be changed, and each {@link FamilyBuilder} creates its own
+ * members, so families built concurrently share no state. The members themselves are
+ * mutable, so a family must not be changed once other threads can see it.
+ * </p>
  *
  * @author Elicit Software
  * @version 1.0
@@ -32,19 +34,28 @@ import java.util.List;
 public class Family {
 
     /**
-     * Default constructor.
+     * Creates an empty family.
      */
     public Family() {
-        // Default constructor
+        this(List.of());
     }
 
     /**
-     * List of all family members included in this family structure.
+     * Creates a family of the given members.
+     *
+     * @param members the family members in pedigree order; the list is copied
+     */
+    public Family(List<FamilyMember> members) {
+        this.family = List.copyOf(members);
+    }
+
+    /**
+     * Unmodifiable list of all family members included in this family structure.
      * <p>
      * Each FamilyMember contains health information, demographics, and relationship data.
      * This list is used for pedigree generation, risk assessment, and report formatting.
      */
-    public List<FamilyMember> family = new ArrayList<>();
+    public final List<FamilyMember> family;
 
     /**
      * Determines if any family member has multiple cancer diagnoses.
@@ -65,6 +76,20 @@ public class Family {
         return false;
     }
 
+    /**
+     * Writes the family as pedigree TSV.
+     * <p>
+     * Writes the standard pedigree header (famid, id, sex, dadid, momid, etc.)
+     * followed by one row per family member.
+     * </p>
+     *
+     * @param out the writer receiving the rows
+     * @return the writer
+     */
+    public PedigreeWriter writeTo(PedigreeWriter out) {
+        return out.writeFamily(this);
+    }
+
     /**
      * Generates a pedigree-formatted string representation of the family.
      * <p>
@@ -76,16 +101,10 @@ public class Family {
      * </ul>
      *
      * @return a formatted string representation suitable for pedigree tools
+     * @see #writeTo(PedigreeWriter)
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder(
-                "famid\tid\tsex\tdadid\tmomid\tdeceased\tproband\taffection\tavail\tdisplay_id\tcancer_label"
-        );
-        sb.append(System.lineSeparator());
-        for (FamilyMember p : family) {
-            sb.append(p.toString());
-        }
-        return sb.toString();
+        return writeTo(new PedigreeWriter()).toString();
     }
 }
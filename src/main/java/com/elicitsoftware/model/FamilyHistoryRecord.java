@@ -468,4 +468,253 @@ public class FamilyHistoryRecord {
         this.multipleTesticularCancers = multipleTesticularCancers;
         this.multipleThyroidCancers = multipleThyroidCancers;
     }
+
+    /**
+     * Starts a record of a survey step, for records that are not read from the database.
+     *
+     * @param step the survey step, e.g. {@code Mother} or {@code Sibling}
+     * @param stepInstance the step instance, {@code null} for single steps
+     * @return the builder
+     */
+    public static Builder builder(String step, String stepInstance) {
+        return new Builder(step, stepInstance);
+    }
+
+    /**
+     * Builds a {@link FamilyHistoryRecord} from named answers instead of the positional
+     * constructor. Answers that are not set are {@code null}.
+     */
+    public static final class Builder {
+
+        /**
+         * Survey step of the record.
+         */
+        private final String step;
+
+        /**
+         * Step instance of the record.
+         */
+        private final String stepInstance;
+
+        /**
+         * Relationship to the proband.
+         */
+        private String relationship;
+
+        /**
+         * Age of the family member.
+         */
+        private Integer age;
+
+        /**
+         * Gender answer.
+         */
+        private String gender;
+
+        /**
+         * Vital status answer.
+         */
+        private String vitalStatus;
+
+        /**
+         * Parent shared with the proband.
+         */
+        private String sharedParent;
+
+        /**
+         * Ashkenazi ancestry answer.
+         */
+        private String ashkenazi;
+
+        /**
+         * Triple negative breast cancer answer.
+         */
+        private String tripleNegativeBreastCancer;
+
+        /**
+         * Name of the other cancer.
+         */
+        private String otherCancerName;
+
+        /**
+         * Diagnosis answers, by {@link CancerType#ordinal()}.
+         */
+        private final String[] diagnoses = new String[CancerType.values().length];
+
+        /**
+         * Ages at diagnosis, by {@link CancerType#ordinal()}.
+         */
+        private final Integer[] ages = new Integer[CancerType.values().length];
+
+        /**
+         * "Multiple" answers, by {@link CancerType#ordinal()}.
+         */
+        private final String[] multiples = new String[CancerType.values().length];
+
+        /**
+         * Creates a builder.
+         *
+         * @param step the survey step
+         * @param stepInstance the step instance
+         */
+        private Builder(String step, String stepInstance) {
+            this.step = step;
+            this.stepInstance = stepInstance;
+        }
+
+        /**
+         * Sets the relationship of the family member to the proband.
+         *
+         * @param relationship the relationship
+         * @return this builder
+         */
+        public Builder relationship(String relationship) {
+            this.relationship = relationship;
+            return this;
+        }
+
+        /**
+         * Sets the demographics of the family member.
+         *
+         * @param gender the gender answer
+         * @param age the age
+         * @param vitalStatus the vital status answer
+         * @return this builder
+         */
+        public Builder person(String gender, Integer age, String vitalStatus) {
+            this.gender = gender;
+            this.age = age;
+            this.vitalStatus = vitalStatus;
+            return this;
+        }
+
+        /**
+         * Sets the parent a half sibling shares with the proband.
+         *
+         * @param sharedParent {@code father} or {@code mother}
+         * @return this builder
+         */
+        public Builder sharedParent(String sharedParent) {
+            this.sharedParent = sharedParent;
+            return this;
+        }
+
+        /**
+         * Sets the Ashkenazi ancestry answer.
+         *
+         * @param ashkenazi the answer
+         * @return this builder
+         */
+        public Builder ashkenazi(String ashkenazi) {
+            this.ashkenazi = ashkenazi;
+            return this;
+        }
+
+        /**
+         * Sets the answers about one cancer type. {@link CancerType#UNKNOWN} has no
+         * "multiple" answer, so {@code multiple} is ignored for it.
+         *
+         * @param type the cancer type
+         * @param diagnosis the diagnosis answer, e.g. {@code true} or {@code unknown}
+         * @param age the age at diagnosis, or {@code null}
+         * @param multiple the "multiple" answer, or {@code null}
+         * @return this builder
+         */
+        public Builder cancer(CancerType type, String diagnosis, Integer age, String multiple) {
+            diagnoses[type.ordinal()] = diagnosis;
+            ages[type.ordinal()] = age;
+            multiples[type.ordinal()] = type == CancerType.UNKNOWN ? null : multiple;
+            return this;
+        }
+
+        /**
+         * Sets the triple negative breast cancer answer.
+         *
+         * @param answer the answer
+         * @return this builder
+         */
+        public Builder tripleNegativeBreastCancer(String answer) {
+            this.tripleNegativeBreastCancer = answer;
+            return this;
+        }
+
+        /**
+         * Sets the name given to the other cancer.
+         *
+         * @param name the name
+         * @return this builder
+         */
+        public Builder otherCancerName(String name) {
+            this.otherCancerName = name;
+            return this;
+        }
+
+        /**
+         * Creates the record.
+         *
+         * @return the record
+         */
+        public FamilyHistoryRecord build() {
+            return new FamilyHistoryRecord(
+                    step, stepInstance, relationship, age, gender, vitalStatus, sharedParent, ashkenazi,
+                    diagnosis(CancerType.BLADDER), age(CancerType.BLADDER),
+                    diagnosis(CancerType.BREAST), age(CancerType.BREAST), tripleNegativeBreastCancer,
+                    diagnosis(CancerType.COLON_RECTAL), age(CancerType.COLON_RECTAL),
+                    diagnosis(CancerType.ENDOMETRIAL_UTERINE), age(CancerType.ENDOMETRIAL_UTERINE),
+                    diagnosis(CancerType.KIDNEY_RENAL_CELL), age(CancerType.KIDNEY_RENAL_CELL),
+                    diagnosis(CancerType.LEUKEMIA), age(CancerType.LEUKEMIA),
+                    diagnosis(CancerType.LUNG), age(CancerType.LUNG),
+                    diagnosis(CancerType.LYMPHOMA), age(CancerType.LYMPHOMA),
+                    diagnosis(CancerType.MELANOMA), age(CancerType.MELANOMA),
+                    diagnosis(CancerType.NON_MELANOMA), age(CancerType.NON_MELANOMA),
+                    diagnosis(CancerType.ORAL_THROAT), age(CancerType.ORAL_THROAT),
+                    diagnosis(CancerType.OTHER), age(CancerType.OTHER), otherCancerName,
+                    diagnosis(CancerType.OVARIAN), age(CancerType.OVARIAN),
+                    diagnosis(CancerType.PANCREATIC), age(CancerType.PANCREATIC),
+                    diagnosis(CancerType.PROSTATE), age(CancerType.PROSTATE),
+                    diagnosis(CancerType.STOMACH), age(CancerType.STOMACH),
+                    diagnosis(CancerType.TESTICULAR), age(CancerType.TESTICULAR),
+                    diagnosis(CancerType.THYROID), age(CancerType.THYROID),
+                    diagnosis(CancerType.UNKNOWN), age(CancerType.UNKNOWN),
+                    multiple(CancerType.BLADDER), multiple(CancerType.BREAST),
+                    multiple(CancerType.COLON_RECTAL), multiple(CancerType.ENDOMETRIAL_UTERINE),
+                    multiple(CancerType.KIDNEY_RENAL_CELL), multiple(CancerType.LEUKEMIA),
+                    multiple(CancerType.LUNG), multiple(CancerType.LYMPHOMA),
+                    multiple(CancerType.MELANOMA), multiple(CancerType.NON_MELANOMA),
+                    multiple(CancerType.ORAL_THROAT), multiple(CancerType.OTHER),
+                    multiple(CancerType.OVARIAN), multiple(CancerType.PANCREATIC),
+                    multiple(CancerType.PROSTATE), multiple(CancerType.STOMACH),
+                    multiple(CancerType.TESTICULAR), multiple(CancerType.THYROID));
+        }
+
+        /**
+         * Gets the diagnosis answer set for a cancer type.
+         *
+         * @param type the cancer type
+         * @return the answer, or {@code null}
+         */
+        private String diagnosis(CancerType type) {
+            return diagnoses[type.ordinal()];
+        }
+
+        /**
+         * Gets the age at diagnosis set for a cancer type.
+         *
+         * @param type the cancer type
+         * @return the age, or {@code null}
+         */
+        private Integer age(CancerType type) {
+            return ages[type.ordinal()];
+        }
+
+        /**
+         * Gets the "multiple" answer set for a cancer type.
+         *
+         * @param type the cancer type
+         * @return the answer, or {@code null}
+         */
+        private String multiple(CancerType type) {
+            return multiples[type.ordinal()];
+        }
+    }
 }
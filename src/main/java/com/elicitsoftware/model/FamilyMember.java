@@ -90,131 +90,47 @@ public class FamilyMember {
     public int Status;
 
     /**
-     * Bladder cancer occurrence and age information.
+     * Cancer history of this family member.
      * <p>
-     * Contains diagnosis indicator and age at diagnosis.
+     * Holds which cancers were diagnosed, at what age and whether they occurred more than once.
      */
-    public String Bladder_Cancer;
+    public final CancerHistory cancerHistory = new CancerHistory();
 
     /**
-     * Breast cancer occurrence and age information.
+     * Writes the parent ID for pedigree serialization.
      * <p>
-     * Contains diagnosis indicator and age at diagnosis.
-     */
-    public String Breast_Cancer;
-
-    /**
-     * Colorectal cancer occurrence and age information.
-     * <p>
-     * Contains diagnosis indicator and age at diagnosis.
-     */
-    public String Colon_Rectal_Cancer;
-
-    /**
-     * Endometrial/uterine cancer occurrence and age information.
-     * <p>
-     * Contains diagnosis indicator and age at diagnosis.
-     */
-    public String Endometrial_Uterine_Cancer;
-
-    /**
-     * Kidney/renal cell cancer occurrence and age information.
-     * <p>
-     * Contains diagnosis indicator and age at diagnosis.
-     */
-    public String Kidney_Renal_Cell_Cancer;
-
-    /**
-     * Leukemia occurrence and age information.
-     * <p>
-     * Contains diagnosis indicator and age at diagnosis.
-     */
-    public String Leukemia_Cancer;
-
-    /**
-     * Lung cancer occurrence and age information.
-     * <p>
-     * Contains diagnosis indicator and age at diagnosis.
-     */
-    public String Lung_Cancer;
-
-    /**
-     * Lymphoma occurrence and age information.
-     */
-    public String Lymphoma;
-
-    /**
-     * Melanoma cancer occurrence and age information.
-     */
-    public String Melanoma_Cancer;
-
-
-    /**
-     * Formats the parent ID for pedigree serialization.
-     * <p>
-     * Returns "NA" if parentId is 0, otherwise returns the integer as a string.
+     * Writes "NA" if parentId is 0, otherwise the integer.
      * </p>
+     * @param out the writer
      * @param parentId the parent identifier
-     * @return formatted parent ID string
-     */
-    private String formatParentId(int parentId) {
-        return parentId == 0 ? "NA" : Integer.toString(parentId);
-    }
-
-    /**
-     * Sanitizes a string field for pedigree output.
-     * <p>
-     * Removes tabs, carriage returns, newlines, and trims whitespace.
-     * </p>
-     * @param value the input string
-     * @return sanitized string
      */
-    private String sanitizeField(String value) {
-        if (value == null || value.isBlank()) {
-            return "";
+    private static void writeParentId(PedigreeWriter out, int parentId) {
+        if (parentId == 0) {
+            out.write("NA");
+        } else {
+            out.write(parentId);
         }
-        return value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ').trim();
     }
 
     /**
      * Checks if the family member has any cancer diagnosis.
      * <p>
-     * Returns true if any cancer-related field is non-null or non-empty.
+     * Returns true if any cancer type was recorded.
      * </p>
      * @return true if cancer is present, false otherwise
      */
     private boolean hasCancer() {
-        return this.Bladder_Cancer != null
-                || this.Breast_Cancer != null
-                || this.Colon_Rectal_Cancer != null
-                || this.Endometrial_Uterine_Cancer != null
-                || this.Kidney_Renal_Cell_Cancer != null
-                || this.Leukemia_Cancer != null
-                || this.Lung_Cancer != null
-                || this.Lymphoma != null
-                || this.Melanoma_Cancer != null
-                || this.Non_Melanoma_Cancer != null
-                || this.Oral_Throat_Cancer != null
-                || this.Other_Cancer != null
-                || !this.Other_Cancer_Type.isEmpty()
-                || this.Ovarian_Cancer != null
-                || this.Pancreatic_Cancer != null
-                || this.Prostate_Cancer != null
-                || this.Stomach_Cancer != null
-                || this.Testicular_Cancer != null
-                || this.Thyroid_Cancer != null
-                || this.Unknown_Cancer != null;
+        return !this.cancerHistory.isEmpty();
     }
 
     /**
      * Builds a display identifier for the family member.
      * <p>
-     * Returns "Respondent (Proband)" for the proband, otherwise uses the member's name and age.
+     * Appends "Respondent (Proband)" for the proband, otherwise the member's name and age.
      * </p>
-     * @return display identifier string
+     * @param sb the builder to append to
      */
-    private String buildDisplayId() {
-        StringBuilder sb = new StringBuilder();
+    private void appendDisplayId(StringBuilder sb) {
         if (this.ID == PROBAND_ID) {
             sb.append("Respondent (Proband)");
         } else {
@@ -223,126 +139,23 @@ public class FamilyMember {
         if (this.Age != null && !this.Age.isEmpty()) {
             sb.append(" (Age ").append(this.Age).append(")");
         }
-        return sb.toString();
-    }
-
-    /**
-     * Appends a cancer label to the StringBuilder for pedigree output.
-     * <p>
-     * Adds cancer name and age, and handles multiple cancer flags.
-     * </p>
-     * @param sb the StringBuilder to append to
-     * @param cancerName the name of the cancer
-     * @param cancerAge the age at diagnosis
-     * @param multipleCancerFlag indicator for multiple occurrences
-     */
-    private void appendCancerLabel(StringBuilder sb, String cancerName, String cancerAge, String multipleCancerFlag) {
-        if (cancerAge == null) {
-            return;
-        }
-        if (!sb.isEmpty()) {
-            sb.append("; ");
-        }
-        sb.append(cancerName);
-        if (multipleCancerFlag != null && multipleCancerFlag.equalsIgnoreCase("true")) {
-            sb.append("*");
-        }
-        sb.append(" ").append(cancerAge);
     }
 
     /**
      * Builds a formatted cancer label for pedigree output.
      * <p>
      * Combines cancer name, age, and multiple cancer flags for display.
+     * Nothing is appended for placeholder members or members without cancer.
      * </p>
-     * @return formatted cancer label string
+     * @param sb the builder to append to
+     * @see CancerHistory#appendPedigreeLabel(StringBuilder)
      */
-    private String buildCancerLabel() {
+    private void appendCancerLabel(StringBuilder sb) {
         if (this.unknown || !hasCancer()) {
-            return "";
-        }
-
-        StringBuilder sb = new StringBuilder();
-        appendCancerLabel(sb, "Bladder", this.Bladder_Cancer, this.Multiple_Bladder_Cancer);
-        appendCancerLabel(sb, "Breast", this.Breast_Cancer, this.Multiple_Breast_Cancer);
-        appendCancerLabel(sb, "Colon", this.Colon_Rectal_Cancer, this.Multiple_Colon_Rectal_Cancer);
-        appendCancerLabel(sb, "Uterine", this.Endometrial_Uterine_Cancer, this.Multiple_Endometrial_Uterine_Cancer);
-        appendCancerLabel(sb, "Kidney", this.Kidney_Renal_Cell_Cancer, this.Multiple_Kidney_Renal_Cell_Cancer);
-        appendCancerLabel(sb, "Leukemia", this.Leukemia_Cancer, this.Multiple_Leukemia_Cancer);
-        appendCancerLabel(sb, "Lung", this.Lung_Cancer, this.Multiple_Lung_Cancer);
-        appendCancerLabel(sb, "Lymphoma", this.Lymphoma, this.Multiple_Lymphoma);
-        appendCancerLabel(sb, "Melanoma", this.Melanoma_Cancer, this.Multiple_Melanoma_Cancer);
-        appendCancerLabel(sb, "Non-Melanoma", this.Non_Melanoma_Cancer, this.Multiple_Non_Melanoma_Cancer);
-        appendCancerLabel(sb, "Oral", this.Oral_Throat_Cancer, this.Multiple_Oral_Throat_Cancer);
-        appendCancerLabel(sb, "Ovarian", this.Ovarian_Cancer, this.Multiple_Ovarian_Cancer);
-        appendCancerLabel(sb, "Pancreatic", this.Pancreatic_Cancer, this.Multiple_Pancreatic_Cancer);
-        appendCancerLabel(sb, "Prostate", this.Prostate_Cancer, this.Multiple_Prostate_Cancer);
-        appendCancerLabel(sb, "Stomach", this.Stomach_Cancer, this.Multiple_Stomach_Cancer);
-        appendCancerLabel(sb, "Testicular", this.Testicular_Cancer, this.Multiple_Testicular_Cancer);
-        appendCancerLabel(sb, "Thyroid", this.Thyroid_Cancer, this.Multiple_Thyroid_Cancer);
-        appendCancerLabel(sb, "Unknown", this.Unknown_Cancer, null);
-
-        if (this.Other_Cancer != null || !this.Other_Cancer_Type.isEmpty()) {
-            String otherName = this.Other_Cancer_Type.isEmpty() ? "Other" : "Other (" + this.Other_Cancer_Type + ")";
-            appendCancerLabel(sb, otherName, this.Other_Cancer, this.Multiple_Other_Cancer);
+            return;
         }
-
-        return sb.toString();
+        this.cancerHistory.appendPedigreeLabel(sb);
     }
-    /**
-     * Non-melanoma cancer occurrence and age information.
-     */
-    public String Non_Melanoma_Cancer;
-
-    /**
-     * Oral/throat cancer occurrence and age information.
-     */
-    public String Oral_Throat_Cancer;
-
-    /**
-     * Other cancer occurrence and age information.
-     */
-    public String Other_Cancer;
-
-    /**
-     * Specific type of other cancer if applicable.
-     */
-    public String Other_Cancer_Type = "";
-
-    /**
-     * Ovarian cancer occurrence and age information.
-     */
-    public String Ovarian_Cancer;
-
-    /**
-     * Pancreatic cancer occurrence and age information.
-     */
-    public String Pancreatic_Cancer;
-
-    /**
-     * Prostate cancer occurrence and age information.
-     */
-    public String Prostate_Cancer;
-
-    /**
-     * Stomach cancer occurrence and age information.
-     */
-    public String Stomach_Cancer;
-
-    /**
-     * Testicular cancer occurrence and age information.
-     */
-    public String Testicular_Cancer;
-
-    /**
-     * Thyroid cancer occurrence and age information.
-     */
-    public String Thyroid_Cancer;
-
-    /**
-     * Unknown cancer type occurrence and age information.
-     */
-    public String Unknown_Cancer;
 
     /**
      * Ashkenazi Jewish ancestry indicator.
@@ -359,102 +172,6 @@ public class FamilyMember {
      */
     public String name;
 
-    // Multiple cancer occurrence fields
-    /**
-     * Multiple bladder cancer occurrences indicator.
-     */
-    public String Multiple_Bladder_Cancer;
-
-    /**
-     * Multiple breast cancer occurrences indicator.
-     */
-    public String Multiple_Breast_Cancer;
-
-    /**
-     * Multiple colorectal cancer occurrences indicator.
-     */
-    public String Multiple_Colon_Rectal_Cancer;
-
-    /**
-     * Multiple endometrial/uterine cancer occurrences indicator.
-     */
-    public String Multiple_Endometrial_Uterine_Cancer;
-
-    /**
-     * Multiple kidney/renal cell cancer occurrences indicator.
-     */
-    public String Multiple_Kidney_Renal_Cell_Cancer;
-
-    /**
-     * Multiple leukemia occurrences indicator.
-     */
-    public String Multiple_Leukemia_Cancer;
-
-    /**
-     * Multiple lung cancer occurrences indicator.
-     */
-    public String Multiple_Lung_Cancer;
-
-    /**
-     * Multiple lymphoma occurrences indicator.
-     */
-    public String Multiple_Lymphoma;
-
-    /**
-     * Multiple melanoma cancer occurrences indicator.
-     */
-    public String Multiple_Melanoma_Cancer;
-
-    /**
-     * Multiple non-melanoma cancer occurrences indicator.
-     */
-    public String Multiple_Non_Melanoma_Cancer;
-
-    /**
-     * Multiple oral/throat cancer occurrences indicator.
-     */
-    public String Multiple_Oral_Throat_Cancer;
-
-    /**
-     * Multiple other cancer occurrences indicator.
-     */
-    public String Multiple_Other_Cancer;
-
-    /**
-     * Multiple other cancer type specification.
-     */
-    public String Multiple_Other_Cancer_Type = "";
-
-    /**
-     * Multiple ovarian cancer occurrences indicator.
-     */
-    public String Multiple_Ovarian_Cancer;
-
-    /**
-     * Multiple pancreatic cancer occurrences indicator.
-     */
-    public String Multiple_Pancreatic_Cancer;
-
-    /**
-     * Multiple prostate cancer occurrences indicator.
-     */
-    public String Multiple_Prostate_Cancer;
-
-    /**
-     * Multiple stomach cancer occurrences indicator.
-     */
-    public String Multiple_Stomach_Cancer;
-
-    /**
-     * Multiple testicular cancer occurrences indicator.
-     */
-    public String Multiple_Testicular_Cancer;
-
-    /**
-     * Multiple thyroid cancer occurrences indicator.
-     */
-    public String Multiple_Thyroid_Cancer;
-
     /**
      * Default constructor for creating a new FamilyMember.
      */
@@ -463,233 +180,53 @@ public class FamilyMember {
     }
 
     /**
-     * Generates a pedigree-formatted string representation of this family member.
+     * Writes this family member as one row of the pedigree TSV.
      * <p>
-     * Creates a tab-delimited string containing:
+     * The row contains, tab-delimited:
      * <ul>
      *   <li>Pedigree ID, member ID, sex, parent IDs, and vital status</li>
-     *   <li>Quadrant-based cancer indicators for visual representation</li>
-     *   <li>Multiple cancer occurrence markers if applicable</li>
-     * </ul>
-     *
-     * The quadrant system organizes cancers by type for visual pedigree display:
-     * <ul>
-     *   <li>Upper Left: Bladder, Breast, Kidney, Melanoma, Non-melanoma</li>
-     *   <li>Upper Right: Colorectal, Oral/throat, Pancreatic, Leukemia</li>
-     *   <li>Lower Left: Endometrial, Prostate, Thyroid, Lung, Lymphoma</li>
-     *   <li>Lower Right: Ovarian, Stomach, Testicular, Other, Unknown</li>
+     *   <li>Proband and affection (any cancer) flags</li>
+     *   <li>The display identifier and the cancer label, with multiple
+     *       occurrences marked by an asterisk</li>
      * </ul>
      *
-     * @return a formatted string suitable for pedigree generation tools
-     */
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(1).append("	");
-        sb.append(this.ID).append("	");
-        sb.append(this.Sex).append("	");
-        sb.append(formatParentId(this.Dadid)).append("	");
-        sb.append(formatParentId(this.Momid)).append("	");
-        sb.append(this.Status == 1).append("	");
-        sb.append(this.ID == PROBAND_ID).append("	");
-        sb.append(hasCancer()).append("	");
-        sb.append("FALSE	");
-        sb.append(sanitizeField(buildDisplayId())).append("	");
-        sb.append(sanitizeField(buildCancerLabel()));
-        sb.append(System.lineSeparator());
-        return sb.toString();
+     * @param out the writer receiving the row
+     * @see Family#writeTo(PedigreeWriter)
+     */
+    public void writeTo(PedigreeWriter out) {
+        out.write(1).write('\t');
+        out.write(this.ID).write('\t');
+        out.write(this.Sex).write('\t');
+        writeParentId(out, this.Dadid);
+        out.write('\t');
+        writeParentId(out, this.Momid);
+        out.write('\t');
+        out.write(this.Status == 1).write('\t');
+        out.write(this.ID == PROBAND_ID).write('\t');
+        out.write(hasCancer()).write('\t');
+        out.write("FALSE\t");
+
+        StringBuilder label = out.scratch();
+        appendDisplayId(label);
+        out.writeSanitized(label).write('\t');
+
+        label = out.scratch();
+        appendCancerLabel(label);
+        out.writeSanitized(label);
+        out.write(System.lineSeparator());
     }
 
     /**
-     * Generates a unique identifier string for this family member.
-     * The ID includes name, age, and cancer diagnoses with ages.
-     * Multiple cancers are marked with an asterisk.
+     * Generates a pedigree-formatted string representation of this family member.
      *
-     * @return unique ID string for this family member
+     * @return a formatted string suitable for pedigree generation tools
+     * @see #writeTo(PedigreeWriter)
      */
-    private String getID() {
-        StringBuilder sb = new StringBuilder(this.name);
-
-        if (this.Age != null && !this.Age.isEmpty()) {
-            sb.append("-Age_").append(this.Age);
-        }
-
-        if (this.Bladder_Cancer != null) {
-            if (this.Multiple_Bladder_Cancer != null && this.Multiple_Bladder_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Bladder*_").append(this.Bladder_Cancer);
-            } else {
-                sb.append("-Bladder_").append(this.Bladder_Cancer);
-            }
-        }
-
-        if (this.Breast_Cancer != null) {
-            if (this.Multiple_Breast_Cancer != null && this.Multiple_Breast_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Breast*_").append(this.Breast_Cancer);
-            } else {
-                sb.append("-Breast_").append(this.Breast_Cancer);
-            }
-        }
-
-        if (this.Colon_Rectal_Cancer != null) {
-            if (this.Multiple_Colon_Rectal_Cancer != null && this.Multiple_Colon_Rectal_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Colon*_").append(this.Colon_Rectal_Cancer);
-            } else {
-                sb.append("-Colon_").append(this.Colon_Rectal_Cancer);
-            }
-        }
-
-        if (this.Endometrial_Uterine_Cancer != null) {
-            if (this.Multiple_Endometrial_Uterine_Cancer != null && this.Multiple_Endometrial_Uterine_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Uterine*_").append(this.Endometrial_Uterine_Cancer);
-            } else {
-                sb.append("-Uterine_").append(this.Endometrial_Uterine_Cancer);
-            }
-        }
-
-        if (this.Kidney_Renal_Cell_Cancer != null) {
-            if (this.Multiple_Kidney_Renal_Cell_Cancer != null && this.Multiple_Kidney_Renal_Cell_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Kidney*_").append(this.Kidney_Renal_Cell_Cancer);
-            } else {
-                sb.append("-Kidney_").append(this.Kidney_Renal_Cell_Cancer);
-            }
-        }
-
-        if (this.Leukemia_Cancer != null) {
-            if (this.Multiple_Leukemia_Cancer != null && this.Multiple_Leukemia_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Leukemia*_").append(this.Leukemia_Cancer);
-            } else {
-                sb.append("-Leukemia_").append(this.Leukemia_Cancer);
-            }
-        }
-
-        if (this.Lung_Cancer != null) {
-            if (this.Multiple_Lung_Cancer != null && this.Multiple_Lung_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Lung*_").append(this.Lung_Cancer);
-            } else {
-                sb.append("-Lung_").append(this.Lung_Cancer);
-            }
-        }
-
-        if (this.Lymphoma != null) {
-            if (this.Multiple_Lymphoma != null && this.Multiple_Lymphoma.equalsIgnoreCase("true")) {
-                sb.append("-Lymphoma*_").append(this.Lymphoma);
-            } else {
-                sb.append("-Lymphoma_").append(this.Lymphoma);
-            }
-        }
-
-        if (this.Melanoma_Cancer != null) {
-            if (this.Multiple_Melanoma_Cancer != null && this.Multiple_Melanoma_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Melanoma*_").append(this.Melanoma_Cancer);
-            } else {
-                sb.append("-Melanoma_").append(this.Melanoma_Cancer);
-            }
-        }
-
-        if (this.Non_Melanoma_Cancer != null) {
-            if (this.Multiple_Non_Melanoma_Cancer != null && this.Multiple_Non_Melanoma_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Non-Melanoma*_").append(this.Non_Melanoma_Cancer);
-            } else {
-                sb.append("-Non-Melanoma_").append(this.Non_Melanoma_Cancer);
-            }
-
-        }
-
-        if (this.Oral_Throat_Cancer != null) {
-            if (this.Multiple_Oral_Throat_Cancer != null && this.Multiple_Oral_Throat_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Oral*_").append(this.Oral_Throat_Cancer);
-            } else {
-                sb.append("-Oral_").append(this.Oral_Throat_Cancer);
-            }
-        }
-
-        if (this.Other_Cancer != null || !this.Other_Cancer_Type.isEmpty()) {
-            if (this.Multiple_Other_Cancer != null && this.Multiple_Other_Cancer.equalsIgnoreCase("true")) {
-                if (this.Other_Cancer != null) {
-                    sb.append("-Other*_");
-                    sb.append(this.Other_Cancer);
-                }
-                if (!this.Other_Cancer_Type.isEmpty()) {
-                    sb.append("-Other_");
-                    sb.append("_(").append(this.Other_Cancer_Type).append("*)");
-                }
-            } else {
-                sb.append("-Other_");
-                if (this.Other_Cancer != null) {
-                    sb.append(this.Other_Cancer);
-                }
-                if (!this.Other_Cancer_Type.isEmpty()) {
-                    sb.append("_(").append(this.Other_Cancer_Type).append(")");
-                }
-            }
-
-        }
-
-        if (this.Ovarian_Cancer != null) {
-            if (this.Multiple_Ovarian_Cancer != null && this.Multiple_Ovarian_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Ovarian*_").append(this.Ovarian_Cancer);
-            } else {
-                sb.append("-Ovarian_").append(this.Ovarian_Cancer);
-            }
-        }
-
-        if (this.Pancreatic_Cancer != null) {
-            if (this.Multiple_Pancreatic_Cancer != null && this.Multiple_Pancreatic_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Pancreatic*_").append(this.Pancreatic_Cancer);
-            } else {
-                sb.append("-Pancreatic_").append(this.Pancreatic_Cancer);
-            }
-        }
-
-        if (this.Prostate_Cancer != null) {
-            if (this.Multiple_Prostate_Cancer != null && this.Multiple_Prostate_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Prostate*_").append(this.Prostate_Cancer);
-            } else {
-                sb.append("-Prostate_").append(this.Prostate_Cancer);
-            }
-        }
-
-        if (this.Stomach_Cancer != null) {
-            if (this.Multiple_Stomach_Cancer != null && this.Multiple_Stomach_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Stomach*_").append(this.Stomach_Cancer);
-            } else {
-                sb.append("-Stomach_").append(this.Stomach_Cancer);
-            }
-        }
-
-        if (this.Testicular_Cancer != null) {
-            if (this.Multiple_Testicular_Cancer != null && this.Multiple_Testicular_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Testicular*_").append(this.Testicular_Cancer);
-            } else {
-                sb.append("-Testicular_").append(this.Testicular_Cancer);
-            }
-        }
-
-        if (this.Thyroid_Cancer != null) {
-            if (this.Multiple_Thyroid_Cancer != null && this.Multiple_Thyroid_Cancer.equalsIgnoreCase("true")) {
-                sb.append("-Thyroid*_").append(this.Thyroid_Cancer);
-            } else {
-                sb.append("-Thyroid_").append(this.Thyroid_Cancer);
-            }
-        }
-
-        if (this.Unknown_Cancer != null) {
-            sb.append("-Unknown_").append(this.Unknown_Cancer);
-        }
-
-        if (this.Ashkenazi != null) {
-            if (this.Ashkenazi.equals("Both_Parents") || this.Ashkenazi.equals("Maternal") || this.Ashkenazi.equals("Paternal")) {
-                sb.append("-Ashkenazi:_").append(this.Ashkenazi);
-            }
-        }
-        sb.append("	");
-
-        if (sb.length() > 75) {
-            return sb.toString().replaceAll(" ", "_").substring(0, 75) + "  ";
-        } else {
-            return sb.toString().replaceAll(" ", "_");
-        }
-
+    @Override
+    public String toString() {
+        PedigreeWriter out = new PedigreeWriter();
+        writeTo(out);
+        return out.toString();
     }
 
     /**
@@ -699,54 +236,6 @@ public class FamilyMember {
      * @return true if any cancer type has multiple occurrences, false otherwise
      */
     public boolean hasMultipleCancers() {
-        if (Multiple_Bladder_Cancer != null && Multiple_Bladder_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Breast_Cancer != null && Multiple_Breast_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Colon_Rectal_Cancer != null && Multiple_Colon_Rectal_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Endometrial_Uterine_Cancer != null && Multiple_Endometrial_Uterine_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Kidney_Renal_Cell_Cancer != null && Multiple_Kidney_Renal_Cell_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Leukemia_Cancer != null && Multiple_Leukemia_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Lung_Cancer != null && Multiple_Lung_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Melanoma_Cancer != null && Multiple_Melanoma_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Non_Melanoma_Cancer != null && Multiple_Non_Melanoma_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Oral_Throat_Cancer != null && Multiple_Oral_Throat_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Other_Cancer != null && Multiple_Other_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Ovarian_Cancer != null && Multiple_Ovarian_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Lymphoma != null && Multiple_Lymphoma.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Pancreatic_Cancer != null && Multiple_Pancreatic_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Prostate_Cancer != null && Multiple_Prostate_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        if (Multiple_Stomach_Cancer != null && Multiple_Stomach_Cancer.equalsIgnoreCase("true")) {
-            return true;
-        }
-        return Multiple_Thyroid_Cancer != null && Multiple_Thyroid_Cancer.equalsIgnoreCase("true");
+        return this.cancerHistory.hasMultiple();
     }
 }
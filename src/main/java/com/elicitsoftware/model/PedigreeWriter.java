@@ -0,0 +1,362 @@
+package com.elicitsoftware.model;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes the kinship2 pedigree TSV straight into a growable UTF-8 byte buffer.
+ * <p>
+ * {@link Family} and {@link FamilyMember} write their rows into this buffer instead of
+ * building one {@code String} per member, and {@link #writeMultipartFile} writes the
+ * multipart framing around them, so a call to the pedigree service produces a single byte array
+ * that is handed to the HTTP client without further copies. Labels that have to be
+ * assembled before they are sanitized use a scratch {@link StringBuilder} owned by the writer.
+ * </p>
+ * <p>
+ * {@link #acquire()} returns a per-thread instance that is reused across calls. A writer is
+ * not thread safe, and the buffer returned by {@link #bodyPublisher()} is only valid until the
+ * writer is reset.
+ * </p>
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ */
+public final class PedigreeWriter {
+
+    /**
+     * Column header of the pedigree TSV.
+     */
+    public static final String HEADER =
+            "famid\tid\tsex\tdadid\tmomid\tdeceased\tproband\taffection\tavail\tdisplay_id\tcancer_label";
+
+    /**
+     * Initial buffer size; large enough for a typical family.
+     */
+    private static final int INITIAL_CAPACITY = 4096;
+
+    /**
+     * Buffers that grew beyond this size are not kept for reuse.
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    /**
+     * Per-thread writers reused by {@link #acquire()}.
+     */
+    private static final ThreadLocal<PedigreeWriter> WRITERS = ThreadLocal.withInitial(PedigreeWriter::new);
+
+    /**
+     * The encoded bytes.
+     */
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Number of valid bytes in {@link #buf}.
+     */
+    private int count;
+
+    /**
+     * Scratch builder for labels that are assembled before being written.
+     */
+    private final StringBuilder scratch = new StringBuilder(128);
+
+    /**
+     * Creates an empty writer.
+     */
+    public PedigreeWriter() {
+        // Empty buffer
+    }
+
+    /**
+     * Returns the reset writer of the current thread.
+     *
+     * @return an empty writer
+     */
+    public static PedigreeWriter acquire() {
+        PedigreeWriter writer = WRITERS.get();
+        writer.reset();
+        return writer;
+    }
+
+    /**
+     * Discards the content, releasing the buffer if it grew unusually large.
+     */
+    public void reset() {
+        count = 0;
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Writes the header line followed by one row per family member.
+     *
+     * @param family the family to write
+     * @return this writer
+     */
+    public PedigreeWriter writeFamily(Family family) {
+        write(HEADER).write(System.lineSeparator());
+        for (FamilyMember member : family.family) {
+            member.writeTo(this);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a multipart/form-data body holding the pedigree TSV of a family as a file field.
+     *
+     * @param boundary the multipart boundary
+     * @param fieldName the form field name, also used as the file name
+     * @param family the family to write
+     * @return the length in bytes of the pedigree TSV
+     */
+    public int writeMultipartFile(String boundary, String fieldName, Family family) {
+        write("--").write(boundary).write("\r\n");
+        write("Content-Disposition: form-data; name=\"")
+                .write(fieldName)
+                .write("\"; filename=\"")
+                .write(fieldName)
+                .write("\"\r\n");
+        write("Content-Type: text/plain\r\n");
+        write("Content-Transfer-Encoding: binary\r\n\r\n");
+        int start = count;
+        writeFamily(family);
+        int payloadLength = count - start;
+        write("\r\n");
+        write("--").write(boundary).write("--\r\n");
+        return payloadLength;
+    }
+
+    /**
+     * Writes characters encoded as UTF-8.
+     *
+     * @param value the characters to write
+     * @return this writer
+     */
+    public PedigreeWriter write(CharSequence value) {
+        return write(value, 0, value.length());
+    }
+
+    /**
+     * Writes a single character encoded as UTF-8.
+     *
+     * @param c the character
+     * @return this writer
+     */
+    public PedigreeWriter write(char c) {
+        if (c < 0x80) {
+            ensureCapacity(1);
+            buf[count++] = (byte) c;
+            return this;
+        }
+        return write(String.valueOf(c));
+    }
+
+    /**
+     * Writes the decimal representation of an integer.
+     *
+     * @param value the integer
+     * @return this writer
+     */
+    public PedigreeWriter write(int value) {
+        if (value == Integer.MIN_VALUE) {
+            return write(Integer.toString(value));
+        }
+        ensureCapacity(11);
+        if (value < 0) {
+            buf[count++] = '-';
+            value = -value;
+        }
+        int start = count;
+        do {
+            buf[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        // Digits were written least significant first
+        for (int i = start, j = count - 1; i < j; i++, j--) {
+            byte tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+        return this;
+    }
+
+    /**
+     * Writes {@code true} or {@code false}.
+     *
+     * @param value the boolean
+     * @return this writer
+     */
+    public PedigreeWriter write(boolean value) {
+        return write(value ? "true" : "false");
+    }
+
+    /**
+     * Writes a free-text field: tabs and line breaks become spaces and surrounding
+     * whitespace is trimmed. Blank values are written as nothing.
+     *
+     * @param value the field, may be {@code null}
+     * @return this writer
+     */
+    public PedigreeWriter writeSanitized(CharSequence value) {
+        if (value == null || isBlank(value)) {
+            return this;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        ensureCapacity(end - start);
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '\t' || c == '\r' || c == '\n') {
+                buf[count++] = ' ';
+            } else if (c < 0x80) {
+                buf[count++] = (byte) c;
+            } else {
+                i = encode(value, i, end);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the scratch builder, emptied.
+     *
+     * @return the scratch builder
+     */
+    public StringBuilder scratch() {
+        scratch.setLength(0);
+        return scratch;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the size in bytes
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns a publisher over the written bytes without copying them.
+     *
+     * @return a body publisher for an HTTP request
+     */
+    public HttpRequest.BodyPublisher bodyPublisher() {
+        return HttpRequest.BodyPublishers.ofByteArray(buf, 0, count);
+    }
+
+    /**
+     * Decodes a range of the written bytes.
+     *
+     * @param from the first byte, inclusive
+     * @param to the last byte, exclusive
+     * @return the decoded text
+     */
+    public String toString(int from, int to) {
+        return new String(buf, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return toString(0, count);
+    }
+
+    /**
+     * Writes a range of characters encoded as UTF-8.
+     *
+     * @param value the characters
+     * @param start the first character, inclusive
+     * @param end the last character, exclusive
+     * @return this writer
+     */
+    private PedigreeWriter write(CharSequence value, int start, int end) {
+        ensureCapacity(end - start);
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buf[count++] = (byte) c;
+            } else {
+                i = encode(value, i, end);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Encodes one non-ASCII character (or surrogate pair) as UTF-8.
+     * Unpaired surrogates are written as {@code ?}, like {@link String#getBytes}.
+     *
+     * @param value the characters
+     * @param i the index of the character
+     * @param end the end of the range being written
+     * @return the index of the last character consumed
+     */
+    private int encode(CharSequence value, int i, int end) {
+        ensureCapacity(4 + end - i);
+        char c = value.charAt(i);
+        if (c < 0x800) {
+            buf[count++] = (byte) (0xC0 | (c >> 6));
+            buf[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, value.charAt(i + 1));
+            buf[count++] = (byte) (0xF0 | (cp >> 18));
+            buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+            buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+            buf[count++] = (byte) (0x80 | (cp & 0x3F));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            buf[count++] = '?';
+        } else {
+            buf[count++] = (byte) (0xE0 | (c >> 12));
+            buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return i;
+    }
+
+    /**
+     * Checks whether every character is whitespace, like {@link String#isBlank()}.
+     *
+     * @param value the characters
+     * @return {@code true} if the value is empty or whitespace only
+     */
+    private static boolean isBlank(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Grows the buffer so that at least {@code extra} more bytes fit.
+     *
+     * @param extra the number of bytes about to be written
+     */
+    private void ensureCapacity(int extra) {
+        int required = count + extra;
+        if (required > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(required, buf.length * 2));
+        }
+    }
+}
@@ -30,8 +30,11 @@ import jakarta.persistence.*;
  * or actions.
  * - executionOrder: The order in which this action should be executed, relative to
  * other actions associated with the same survey.
+ * <p>
+ * Actions are configuration data and are held in the second-level cache.
  */
 @Entity
+@Cacheable
 @Table(name = "post_survey_actions", schema = "survey")
 public class PostSurveyAction extends PanacheEntityBase {
 
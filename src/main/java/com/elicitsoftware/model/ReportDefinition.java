@@ -34,8 +34,11 @@ import jakarta.persistence.*;
  * - description: A short textual description of the report.
  * - url: The URL for accessing the report.
  * - displayOrder: An integer indicating the order in which the reports should be displayed.
+ * <p>
+ * Report definitions are read-mostly and held in the second-level cache.
  */
 @Entity
+@Cacheable
 @Table(name = "reports", schema = "survey")
 public class ReportDefinition extends PanacheEntityBase {
 
@@ -102,8 +102,11 @@ public class Respondent extends PanacheEntityBase {
 
     /**
      * The survey associated with this respondent.
+     * <p>
+     * Loaded lazily so it is resolved from the second-level cache instead of being joined
+     * into every respondent query.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "survey_id", nullable = false)
     public Survey survey;
 
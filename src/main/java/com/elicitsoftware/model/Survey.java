@@ -13,6 +13,8 @@ package com.elicitsoftware.model;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Set;
 
@@ -23,8 +25,12 @@ import java.util.Set;
  * <p>
  * This class is mapped to the "surveys" table within the "survey" schema.
  * It is persistent and managed through JPA.
+ * <p>
+ * Surveys and their report and action collections rarely change, so they are kept in the
+ * second-level cache and evicted by {@code ConfigurationCache} when the tables are modified.
  */
 @Entity
+@Cacheable
 @Table(name = "surveys", schema = "survey")
 public class Survey extends PanacheEntityBase {
 
@@ -87,6 +93,7 @@ public class Survey extends PanacheEntityBase {
      */
     @OneToMany(mappedBy = "survey", fetch = FetchType.EAGER)
     @OrderBy("displayOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public Set<ReportDefinition> reports;
 
     /**
@@ -94,6 +101,7 @@ public class Survey extends PanacheEntityBase {
      */
     @OneToMany(mappedBy = "survey", fetch = FetchType.EAGER)
     @OrderBy("executionOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public Set<PostSurveyAction> postSurveyActions;
 
 }
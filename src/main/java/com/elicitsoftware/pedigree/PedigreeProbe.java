@@ -0,0 +1,67 @@
+package com.elicitsoftware.pedigree;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import com.elicitsoftware.common.health.DependencyProbe;
+import com.elicitsoftware.common.health.HttpProbe;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Probes the external pedigree service configured with {@code pedigree.url}.
+ *
+ * @author Elicit Software
+ * @version 1.0
+ * @since 2025
+ * @see Service
+ */
+@ApplicationScoped
+public class PedigreeProbe implements DependencyProbe {
+
+    /**
+     * Name of the pedigree dependency.
+     */
+    public static final String DEPENDENCY = "pedigree";
+
+    /**
+     * URL for the external pedigree generation service.
+     */
+    @ConfigProperty(name = "pedigree.url")
+    String pedigreeURL;
+
+    /**
+     * Longest time the service may take to answer.
+     */
+    @ConfigProperty(name = "family.history.health.timeout", defaultValue = "PT10S")
+    Duration timeout;
+
+    /**
+     * Default constructor for CDI injection.
+     */
+    public PedigreeProbe() {
+        // Default constructor for CDI
+    }
+
+    @Override
+    public List<String> dependencies() {
+        return List.of(DEPENDENCY);
+    }
+
+    @Override
+    public void check(String dependency) throws Exception {
+        HttpProbe.check(URI.create(pedigreeURL), timeout);
+    }
+}
@@ -11,8 +11,12 @@ package com.elicitsoftware.pedigree;
  * ***LICENSE_END***
  */
 
+import com.elicitsoftware.common.concurrency.Deadline;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter;
+import com.elicitsoftware.common.concurrency.DownstreamLimiter.Downstream;
 import com.elicitsoftware.model.Family;
 import com.elicitsoftware.model.FamilyManager;
+import com.elicitsoftware.model.PedigreeWriter;
 import com.elicitsoftware.request.ReportRequest;
 import com.elicitsoftware.response.ReportResponse;
 import com.elicitsoftware.response.pdf.Content;
@@ -36,11 +40,14 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST service for generating family pedigree reports and visualizations.
@@ -92,6 +99,12 @@ public class Service {
     @Inject
     Tracer tracer;
 
+    /**
+     * Injected limiter capping the concurrent calls to the pedigree service.
+     */
+    @Inject
+    DownstreamLimiter downstreamLimiter;
+
     /**
      * URL for the external pedigree generation service.
      * <p>
@@ -119,22 +132,44 @@ public class Service {
      *   <li>Visual legend explaining the color coding</li>
      * </ul>
      *
+     * <p>
+     * When the caller sends the time left to its deadline in the {@value Deadline#HEADER}
+     * header, the call to the pedigree service is bounded by it.
+     * </p>
+     * <p>
+     * If the deadline passes the request fails with 504, and if no pedigree permit is
+     * granted in time with 503, so the caller fails the report instead of rendering the
+     * error as the chart.
+     * </p>
+     *
      * @param req the report request containing the respondent ID
+     * @param remainingMillis milliseconds left to the caller's deadline, may be {@code null}
      * @return a ReportResponse containing the title, HTML content, and PDF document
-     * @throws jakarta.ws.rs.WebApplicationException if the user lacks proper authorization
+     * @throws jakarta.ws.rs.WebApplicationException if the user lacks proper authorization,
+     *         or with status 503 or 504 if the pedigree service could not be called in time
      */
     @Path("/report")
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces("application/json")
     @Transactional()
-    public ReportResponse report(ReportRequest req) {
+    public ReportResponse report(ReportRequest req, @HeaderParam(Deadline.HEADER) String remainingMillis) {
         Log.debugf("Generating pedigree report for respondent id=%d", req.id);
 
         Family family = familyManager.getFamily(req.id);
         Log.debugf("Loaded family data for respondent id=%d", req.id);
 
-        String response = callPedigree(family.toString());
+        Optional<Deadline> deadline = Deadline.fromHeader(remainingMillis);
+        String response;
+        try {
+            response = deadline.isPresent()
+                    ? deadline.get().call(() -> callPedigree(family))
+                    : callPedigree(family);
+        } catch (Deadline.ExceededException e) {
+            throw new WebApplicationException(e.getMessage(), 504);
+        } catch (RejectedExecutionException e) {
+            throw new WebApplicationException(e.getMessage(), 503);
+        }
 
         String innerHTML = response;
 
@@ -178,13 +213,20 @@ public class Service {
      * sending the family data and receiving the generated pedigree chart in SVG format.
      * </p>
      *
-     * @param family the string representation of the family data
+     * @param family the family data
      * @return the SVG content of the generated pedigree chart
+     * @throws RejectedExecutionException if no pedigree permit was granted in time or the
+     *         current deadline passed
+     * @throws WebApplicationException with status 504 if the pedigree service timed out
      */
-    private String callPedigree(String family) {
+    private String callPedigree(Family family) {
         URI endpoint = URI.create(pedigreeURL);
         int endpointPort = resolvePort(endpoint);
 
+        String boundary = "----ElicitBoundary" + UUID.randomUUID();
+        PedigreeWriter body = PedigreeWriter.acquire();
+        int payloadLength = body.writeMultipartFile(boundary, "ped", family);
+
         Span span = tracer.spanBuilder("pedigree.call")
                 .setSpanKind(SpanKind.CLIENT)
                 .startSpan();
@@ -195,24 +237,31 @@ public class Service {
         span.setAttribute("url.full", pedigreeURL);
         span.setAttribute("http.request.method", "POST");
         span.setAttribute("rpc.system", "http");
-        span.setAttribute("pedigree.payload.length", family.length());
+        span.setAttribute("pedigree.payload.length", payloadLength);
 
         try (Scope ignored = span.makeCurrent()) {
-            Log.infof("Sending pedigree payload to %s:%n%s", pedigreeURL, family);
-
-            String boundary = "----ElicitBoundary" + UUID.randomUUID();
-            byte[] requestBody = buildMultipartBody(boundary, "ped", family);
+            Log.infof("Sending pedigree payload (%d bytes) to %s", payloadLength, pedigreeURL);
+            if (Log.isDebugEnabled()) {
+                Log.debugf("Pedigree payload:%n%s", body);
+            }
 
             HttpRequest request = HttpRequest.newBuilder(endpoint)
-                    .timeout(Duration.ofSeconds(15))
+                    .timeout(Deadline.boundCurrent(Duration.ofSeconds(15)))
                     .header("Content-Type", "multipart/form-data; boundary=" + boundary)
-                    .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody))
+                    .POST(body.bodyPublisher())
                     .build();
 
-            HttpResponse<String> response = PEDIGREE_HTTP_CLIENT.send(
-                    request,
-                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)
-            );
+            HttpResponse<String> response = null;
+            DownstreamLimiter.Permit permit = downstreamLimiter.acquire(Downstream.PEDIGREE);
+            try {
+                response = PEDIGREE_HTTP_CLIENT.send(
+                        request,
+                        HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)
+                );
+            } finally {
+                // Server errors and throttling lower the adaptive pedigree limit
+                permit.release(response == null || response.statusCode() >= 500 || response.statusCode() == 429);
+            }
 
             int statusCode = response.statusCode();
             Log.infof("Pedigree service returned status %d", statusCode);
@@ -230,6 +279,16 @@ public class Service {
             span.recordException(e);
             span.setStatus(StatusCode.ERROR, "Interrupted while calling pedigree service");
             return "Interrupted while calling pedigree service";
+        } catch (RejectedExecutionException e) {
+            // Not admitted or out of time; the report request fails
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, e.getMessage());
+            throw e;
+        } catch (HttpTimeoutException e) {
+            // The request timeout is bounded by the caller's deadline
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, e.getMessage());
+            throw new WebApplicationException(e.getMessage(), 504);
         } catch (IOException e) {
             span.recordException(e);
             span.setStatus(StatusCode.ERROR, e.getMessage());
@@ -239,31 +298,6 @@ public class Service {
         }
     }
 
-    /**
-     * Builds a multipart/form-data request body for HTTP POST.
-     * <p>
-     * Used to send family data to the external pedigree service.
-     * </p>
-     * @param boundary the multipart boundary string
-     * @param fieldName the form field name
-     * @param value the field value (family data)
-     * @return byte array representing the multipart body
-     */
-    private byte[] buildMultipartBody(String boundary, String fieldName, String value) {
-        StringBuilder body = new StringBuilder();
-        body.append("--").append(boundary).append("\r\n");
-        body.append("Content-Disposition: form-data; name=\"")
-                .append(fieldName)
-                .append("\"; filename=\"")
-                .append(fieldName)
-                .append("\"\r\n");
-        body.append("Content-Type: text/plain\r\n");
-        body.append("Content-Transfer-Encoding: binary\r\n\r\n");
-        body.append(value).append("\r\n");
-        body.append("--").append(boundary).append("--\r\n");
-        return body.toString().getBytes(StandardCharsets.UTF_8);
-    }
-
     /**
      * Resolves the port number from a URI endpoint.
      * <p>
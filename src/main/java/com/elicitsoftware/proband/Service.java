@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST service for generating proband (respondent) summary reports.
@@ -58,6 +59,11 @@ public class Service {
      */
     private static String TITLE = "Respondent Summary";
 
+    /**
+     * Survey steps rendered by the respondent summary.
+     */
+    private static final Set<String> PROBAND_STEPS = Set.of("Proband", "Proband Cancer");
+
     /**
      * Repository for optimized family history queries.
      */
@@ -102,17 +108,16 @@ public class Service {
 
         StringBuilder innerHTML = new StringBuilder();
 
-        List<FamilyHistoryRecord> allRecords = cancerHistoryRepository.findFamilyHistoryByRespondentId(req.id);
-        Log.debugf("Retrieved %d family history record(s) for respondent id=%d", allRecords.size(), req.id);
+        // Only the proband steps are rendered, so let the database filter out the relatives.
+        List<FamilyHistoryRecord> allRecords = cancerHistoryRepository.findFamilyHistoryByRespondentIdAndSteps(req.id, PROBAND_STEPS);
+        Log.debugf("Retrieved %d proband record(s) for respondent id=%d", allRecords.size(), req.id);
 
         List<Row> allRows = new ArrayList<>();
         Card card = new Card("");
         for (FamilyHistoryRecord record : allRecords) {
-            if ("Proband".equals(record.step) || "Proband Cancer".equals(record.step)) {
-                List<Row> rows = RowConverter.toRows(record);
-                allRows.addAll(rows);
-                card.addRows(rows);
-            }
+            List<Row> rows = RowConverter.toRows(record);
+            allRows.addAll(rows);
+            card.addRows(rows);
         }
 
         if (!allRows.isEmpty()) {
@@ -0,0 +1,126 @@
+---
+-- ***LICENSE_START***
+-- Elicit FHHS
+-- %%
+-- Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+-- %%
+-- PolyForm Noncommercial License 1.0.0
+-- <https://polyformproject.org/licenses/noncommercial/1.0.0>
+-- ***LICENSE_END***
+---
+
+-- ================================================================================================
+-- Respondent change notifications
+-- ================================================================================================
+-- Publishes a NOTIFY on channel 'fhhs_respondent_change' whenever data that feeds the FHHS
+-- reports changes for a respondent. The payload is '<table>:<respondent id>'. Every FHHS node
+-- LISTENs on the channel (RespondentChangeListener) and invalidates its local caches.
+--
+-- Notifications are only delivered when the writing transaction commits, and PostgreSQL
+-- collapses identical notifications raised within one transaction.
+--
+-- fact_sections is written in bulk, so its triggers are statement-level: they read the
+-- transition tables and notify once per respondent touched by the statement, instead of
+-- running the trigger function and queueing a notification for every row. PostgreSQL does not
+-- allow transition tables on a trigger with more than one event, so INSERT, UPDATE and DELETE
+-- each get their own trigger.
+-- ================================================================================================
+
+-- Row-level variant; the first trigger argument names the column holding the respondent id.
+CREATE OR REPLACE FUNCTION surveyreport.fhhs_notify_respondent_change()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+DECLARE
+    changed_row jsonb;
+    changed_respondent text;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed_row := to_jsonb(OLD);
+    ELSE
+        changed_row := to_jsonb(NEW);
+    END IF;
+
+    changed_respondent := changed_row ->> TG_ARGV[0];
+    IF changed_respondent IS NOT NULL THEN
+        PERFORM pg_notify('fhhs_respondent_change', TG_TABLE_NAME || ':' || changed_respondent);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Notifies once per respondent whose rows are in the statement's transition tables.
+CREATE OR REPLACE FUNCTION surveyreport.fhhs_notify_fact_sections_change()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM pg_notify('fhhs_respondent_change', TG_TABLE_NAME || ':' || changed.respondent_id)
+        FROM (SELECT DISTINCT respondent_id FROM new_rows WHERE respondent_id IS NOT NULL) changed;
+    ELSIF TG_OP = 'UPDATE' THEN
+        PERFORM pg_notify('fhhs_respondent_change', TG_TABLE_NAME || ':' || changed.respondent_id)
+        FROM (SELECT respondent_id FROM new_rows WHERE respondent_id IS NOT NULL
+              UNION
+              SELECT respondent_id FROM old_rows WHERE respondent_id IS NOT NULL) changed;
+    ELSE
+        PERFORM pg_notify('fhhs_respondent_change', TG_TABLE_NAME || ':' || changed.respondent_id)
+        FROM (SELECT DISTINCT respondent_id FROM old_rows WHERE respondent_id IS NOT NULL) changed;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- Fact Sections: any change to a respondent's survey answers
+DROP TRIGGER IF EXISTS fhhs_fact_sections_notify_insert ON surveyreport.fact_sections;
+CREATE TRIGGER fhhs_fact_sections_notify_insert
+    AFTER INSERT
+    ON surveyreport.fact_sections
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION surveyreport.fhhs_notify_fact_sections_change();
+
+DROP TRIGGER IF EXISTS fhhs_fact_sections_notify_update ON surveyreport.fact_sections;
+CREATE TRIGGER fhhs_fact_sections_notify_update
+    AFTER UPDATE
+    ON surveyreport.fact_sections
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION surveyreport.fhhs_notify_fact_sections_change();
+
+DROP TRIGGER IF EXISTS fhhs_fact_sections_notify_delete ON surveyreport.fact_sections;
+CREATE TRIGGER fhhs_fact_sections_notify_delete
+    AFTER DELETE
+    ON surveyreport.fact_sections
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION surveyreport.fhhs_notify_fact_sections_change();
+
+-- Respondents: (re)finalization of a survey
+DROP TRIGGER IF EXISTS fhhs_respondents_notify ON survey.respondents;
+CREATE TRIGGER fhhs_respondents_notify
+    AFTER UPDATE OF finalized_dt
+    ON survey.respondents
+    FOR EACH ROW
+EXECUTE FUNCTION surveyreport.fhhs_notify_respondent_change('id');
+
+-- Status: participant status changes. survey.status is only a plain table in some
+-- deployments, and row triggers cannot be attached to views, so only add it when possible.
+DO
+$$
+BEGIN
+    IF EXISTS (SELECT 1
+               FROM pg_class c
+                        JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE n.nspname = 'survey'
+                 AND c.relname = 'status'
+                 AND c.relkind IN ('r', 'p')) THEN
+        EXECUTE 'DROP TRIGGER IF EXISTS fhhs_status_notify ON survey.status';
+        EXECUTE 'CREATE TRIGGER fhhs_status_notify'
+                    || ' AFTER INSERT OR UPDATE OR DELETE ON survey.status'
+                    || ' FOR EACH ROW EXECUTE FUNCTION surveyreport.fhhs_notify_respondent_change(''respondent_id'')';
+    END IF;
+END;
+$$;
@@ -0,0 +1,25 @@
+---
+-- ***LICENSE_START***
+-- Elicit FHHS
+-- %%
+-- Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+-- %%
+-- PolyForm Noncommercial License 1.0.0
+-- <https://polyformproject.org/licenses/noncommercial/1.0.0>
+-- ***LICENSE_END***
+---
+
+-- ================================================================================================
+-- Index for finalization polling
+-- ================================================================================================
+-- FinalizationWatcher (family.history.ingest.mode=poll) pages through newly finalized
+-- respondents with a keyset on (finalized_dt, id). Unfinalized respondents are never read,
+-- so they are left out of the index.
+-- ================================================================================================
+
+CREATE INDEX IF NOT EXISTS idx_respondents_finalized_keyset
+ON survey.respondents(finalized_dt, id)
+WHERE finalized_dt IS NOT NULL;
+
+COMMENT ON INDEX survey.idx_respondents_finalized_keyset IS
+'Keyset index used to poll for newly finalized respondents';
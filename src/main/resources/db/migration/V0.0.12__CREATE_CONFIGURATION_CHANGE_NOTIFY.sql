@@ -0,0 +1,54 @@
+---
+-- ***LICENSE_START***
+-- Elicit FHHS
+-- %%
+-- Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+-- %%
+-- PolyForm Noncommercial License 1.0.0
+-- <https://polyformproject.org/licenses/noncommercial/1.0.0>
+-- ***LICENSE_END***
+---
+
+-- ================================================================================================
+-- Survey configuration change notifications
+-- ================================================================================================
+-- Survey, ReportDefinition and PostSurveyAction are held in the Hibernate second-level cache.
+-- These statement-level triggers NOTIFY 'fhhs_configuration_change' with the table name whenever
+-- one of the tables is modified, so every FHHS node evicts the matching cache regions
+-- (ConfigurationCache) instead of serving stale configuration until the cache expires.
+-- ================================================================================================
+
+CREATE OR REPLACE FUNCTION surveyreport.fhhs_notify_configuration_change()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    PERFORM pg_notify('fhhs_configuration_change', TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$;
+
+-- Surveys
+DROP TRIGGER IF EXISTS fhhs_surveys_notify ON survey.surveys;
+CREATE TRIGGER fhhs_surveys_notify
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON survey.surveys
+    FOR EACH STATEMENT
+EXECUTE FUNCTION surveyreport.fhhs_notify_configuration_change();
+
+-- Report definitions
+DROP TRIGGER IF EXISTS fhhs_reports_notify ON survey.reports;
+CREATE TRIGGER fhhs_reports_notify
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON survey.reports
+    FOR EACH STATEMENT
+EXECUTE FUNCTION surveyreport.fhhs_notify_configuration_change();
+
+-- Post-survey actions
+DROP TRIGGER IF EXISTS fhhs_post_survey_actions_notify ON survey.post_survey_actions;
+CREATE TRIGGER fhhs_post_survey_actions_notify
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON survey.post_survey_actions
+    FOR EACH STATEMENT
+EXECUTE FUNCTION surveyreport.fhhs_notify_configuration_change();
@@ -0,0 +1,31 @@
+---
+-- ***LICENSE_START***
+-- Elicit FHHS
+-- %%
+-- Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+-- %%
+-- PolyForm Noncommercial License 1.0.0
+-- <https://polyformproject.org/licenses/noncommercial/1.0.0>
+-- ***LICENSE_END***
+---
+
+-- ================================================================================================
+-- One status row per respondent and post-survey action
+-- ================================================================================================
+-- RespondentPSARecorder writes report statuses as batched upserts with
+-- ON CONFLICT (respondent_id, post_survey_action_id), which needs a unique index on the pair.
+-- Duplicates left by concurrent find-or-create updates are removed first, keeping the most
+-- recent row of each pair.
+-- ================================================================================================
+
+DELETE FROM survey.respondent_psa older
+USING survey.respondent_psa newer
+WHERE older.respondent_id = newer.respondent_id
+  AND older.post_survey_action_id = newer.post_survey_action_id
+  AND older.id < newer.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS respondent_psa_respondent_action_uk
+ON survey.respondent_psa(respondent_id, post_survey_action_id);
+
+COMMENT ON INDEX survey.respondent_psa_respondent_action_uk IS
+'Conflict target of the batched report status upserts';
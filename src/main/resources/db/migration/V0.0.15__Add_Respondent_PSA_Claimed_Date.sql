@@ -0,0 +1,24 @@
+---
+-- ***LICENSE_START***
+-- Elicit FHHS
+-- %%
+-- Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+-- %%
+-- PolyForm Noncommercial License 1.0.0
+-- <https://polyformproject.org/licenses/noncommercial/1.0.0>
+-- ***LICENSE_END***
+---
+
+-- ================================================================================================
+-- Durable claims of report retries
+-- ================================================================================================
+-- The retry sweep claims FAILED rows by setting their status to RETRYING in its own
+-- transaction, so a sweep on another node cannot queue the same report again. claimed_dt
+-- records when, so the claims of a node that died before its retries finished are given up
+-- after family.history.retry.claim-timeout.
+-- ================================================================================================
+
+ALTER TABLE survey.respondent_psa ADD COLUMN IF NOT EXISTS claimed_dt TIMESTAMP WITH TIME ZONE;
+
+COMMENT ON COLUMN survey.respondent_psa.claimed_dt IS
+'When a retry sweep last claimed the row for a retry (status RETRYING)';
@@ -0,0 +1,55 @@
+---
+-- ***LICENSE_START***
+-- Elicit FHHS
+-- %%
+-- Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+-- %%
+-- PolyForm Noncommercial License 1.0.0
+-- <https://polyformproject.org/licenses/noncommercial/1.0.0>
+-- ***LICENSE_END***
+---
+
+-- ================================================================================================
+-- Indexes for step-filtered family history queries
+-- ================================================================================================
+-- The proband and cancer summary reports no longer read every relative of a respondent.
+-- CancerHistoryRepository now filters fact_sections_view by step (proband report) and by
+-- "has any cancer" (cancer summary).
+--
+-- The step filter resolves the step names through dim_step and then looks up
+-- (respondent_id, step_key), which idx_fact_sections_view_join of V0.0.6 already serves.
+--
+-- The cancer filter needs an index of its own. Postgres only uses a partial index when it can
+-- prove the index predicate from the query, so the predicate below must stay identical to
+-- CancerHistoryRepository.ANY_CANCER_PREDICATE, column for column.
+-- ================================================================================================
+
+-- Fact Sections table: Partial index over the rows that report a cancer or Ashkenazi ancestry
+-- Use case: findFamilyHistoryWithCancerByRespondentId, which only needs relatives that
+-- render a line in the cancer summary. Rows without any diagnosis are left out of the index,
+-- keeping it small and hot in cache.
+CREATE INDEX IF NOT EXISTS idx_fact_sections_cancer_respondent
+ON surveyreport.fact_sections(respondent_id)
+WHERE lower(bladder_cancer::text) = 'true'
+   OR lower(breast_cancer::text) = 'true'
+   OR lower(colon_or_rectal_cancer::text) = 'true'
+   OR lower(endometrial_or_uterine_cancer::text) = 'true'
+   OR lower(kidney_renal_cell_cancer::text) = 'true'
+   OR lower(leukemia::text) = 'true'
+   OR lower(lung_cancer::text) = 'true'
+   OR lower(lymphoma::text) = 'true'
+   OR lower(melanoma_skin_cancer::text) = 'true'
+   OR lower(nonmelanoma_skin_cancer::text) = 'true'
+   OR lower(oral_cavity_or_throat_cancer::text) = 'true'
+   OR lower(other_cancer::text) = 'true'
+   OR lower(ovarian_cancer::text) = 'true'
+   OR lower(pancreatic_cancer::text) = 'true'
+   OR lower(prostate_cancer::text) = 'true'
+   OR lower(stomach_cancer::text) = 'true'
+   OR lower(testicular_cancer::text) = 'true'
+   OR lower(thyroid_cancer::text) = 'true'
+   OR lower(unknown_cancer::text) = 'true'
+   OR lower(ashkenazi::text) = 'true';
+
+COMMENT ON INDEX surveyreport.idx_fact_sections_cancer_respondent IS
+'Partial index over the rows with a cancer used by the cancer summary report';
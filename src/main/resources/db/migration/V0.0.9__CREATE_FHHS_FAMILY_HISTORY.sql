@@ -0,0 +1,139 @@
+---
+-- ***LICENSE_START***
+-- Elicit FHHS
+-- %%
+-- Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+-- %%
+-- PolyForm Noncommercial License 1.0.0
+-- <https://polyformproject.org/licenses/noncommercial/1.0.0>
+-- ***LICENSE_END***
+---
+
+-- ================================================================================================
+-- Materialized family history table
+-- ================================================================================================
+-- fact_sections_view pivots the fact_sections data at query time, and every report request
+-- pays for that pivot. fhhs_family_history stores the pivoted rows per respondent so report
+-- reads become a single indexed lookup.
+--
+-- The table is created from the view itself so the column types always match what
+-- CancerHistoryRepository maps. CancerHistoryRepository.refreshFamilyHistorySnapshot names the
+-- target columns of its insert, so the table needs every column the repository reads but
+-- their order does not matter.
+-- ================================================================================================
+
+CREATE TABLE IF NOT EXISTS surveyreport.fhhs_family_history AS
+SELECT f.respondent_id,
+       f.step,
+       f.step_instance,
+       f.relationship,
+       f.age,
+       f.gender,
+       f.vital_status,
+       f.shared_parent,
+       f.ashkenazi,
+       f.bladder_cancer,
+       f.bladder_cancer_age,
+       f.breast_cancer,
+       f.breast_cancer_age,
+       f.triple_negative_breast_cancer,
+       f.colon_or_rectal_cancer,
+       f.colon_or_rectal_cancer_age,
+       f.endometrial_or_uterine_cancer,
+       f.endometrial_or_uterine_cancer_age,
+       f.kidney_renal_cell_cancer,
+       f.kidney_renal_cell_cancer_age,
+       f.leukemia,
+       f.leukemia_age,
+       f.lung_cancer,
+       f.lung_cancer_age,
+       f.lymphoma,
+       f.lymphoma_age,
+       f.melanoma_skin_cancer,
+       f.melanoma_skin_cancer_age,
+       f.nonmelanoma_skin_cancer,
+       f.nonmelanoma_skin_cancer_age,
+       f.oral_cavity_or_throat_cancer,
+       f.oral_cavity_or_throat_cancer_age,
+       f.other_cancer,
+       f.other_age,
+       f.other_cancer_name,
+       f.ovarian_cancer,
+       f.ovarian_cancer_age,
+       f.pancreatic_cancer,
+       f.pancreatic_cancer_age,
+       f.prostate_cancer,
+       f.prostate_cancer_age,
+       f.stomach_cancer,
+       f.stomach_cancer_age,
+       f.testicular_cancer,
+       f.testicular_cancer_age,
+       f.thyroid_cancer,
+       f.thyroid_cancer_age,
+       f.unknown_cancer,
+       f.unknown_cancer_age,
+       f.multiple_bladder_cancers,
+       f.multiple_breast_cancers,
+       f.multiple_colon_or_rectal_cancers,
+       f.multiple_endometrial_or_uterine_cancers,
+       f.multiple_kidney_renal_cell_cancers,
+       f.multiple_leukemias,
+       f.multiple_lung_cancers,
+       f.multiple_lymphomas,
+       f.multiple_melanoma_skin_cancers,
+       f.multiple_nonmelanoma_skin_cancers,
+       f.multiple_oral_cavity_or_throat_cancers,
+       f.multiple_other_cancers,
+       f.multiple_ovarian_cancers,
+       f.multiple_pancreatic_cancers,
+       f.multiple_prostate_cancers,
+       f.multiple_stomach_cancers,
+       f.multiple_testicular_cancers,
+       f.multiple_thyroid_cancers
+FROM surveyreport.fact_sections_view f
+WITH NO DATA;
+
+-- Use case: CancerHistoryRepository lookups by respondent
+CREATE INDEX IF NOT EXISTS idx_fhhs_family_history_respondent
+ON surveyreport.fhhs_family_history(respondent_id);
+
+-- Tracks which respondents have been materialized and from which finalization.
+-- A respondent without a row here is read from fact_sections_view directly.
+CREATE TABLE IF NOT EXISTS surveyreport.fhhs_family_history_refresh
+(
+    respondent_id       bigint                   NOT NULL,
+    source_finalized_dt timestamp with time zone,
+    refreshed_dt        timestamp with time zone NOT NULL DEFAULT now(),
+    CONSTRAINT fhhs_family_history_refresh_pk PRIMARY KEY (respondent_id)
+);
+
+-- Change notifications can be lost while no node leads the listeners. The leader then moves
+-- resynced_dt forward instead of deleting the shared snapshots: respondents refreshed before it
+-- are read from fact_sections_view and refreshed again by the sweep.
+CREATE TABLE IF NOT EXISTS surveyreport.fhhs_family_history_resync
+(
+    id          boolean                  NOT NULL DEFAULT true,
+    resynced_dt timestamp with time zone NOT NULL,
+    CONSTRAINT fhhs_family_history_resync_pk PRIMARY KEY (id),
+    CONSTRAINT fhhs_family_history_resync_single_row CHECK (id)
+);
+
+INSERT INTO surveyreport.fhhs_family_history_resync (id, resynced_dt)
+VALUES (true, '-infinity')
+ON CONFLICT (id) DO NOTHING;
+
+GRANT DELETE, UPDATE, INSERT, SELECT ON TABLE surveyreport.fhhs_family_history TO ${survey_user};
+GRANT DELETE, UPDATE, INSERT, SELECT ON TABLE surveyreport.fhhs_family_history_refresh TO ${survey_user};
+GRANT SELECT ON TABLE surveyreport.fhhs_family_history TO ${surveyreport_user};
+GRANT SELECT ON TABLE surveyreport.fhhs_family_history_refresh TO ${surveyreport_user};
+GRANT UPDATE, SELECT ON TABLE surveyreport.fhhs_family_history_resync TO ${survey_user};
+GRANT SELECT ON TABLE surveyreport.fhhs_family_history_resync TO ${surveyreport_user};
+
+COMMENT ON TABLE surveyreport.fhhs_family_history IS
+'Per-respondent materialization of fact_sections_view used by the FHHS reports';
+
+COMMENT ON TABLE surveyreport.fhhs_family_history_refresh IS
+'Refresh bookkeeping for fhhs_family_history; respondents without a current row fall back to the view';
+
+COMMENT ON TABLE surveyreport.fhhs_family_history_resync IS
+'Single row; snapshots refreshed before resynced_dt may have missed a change and are stale';
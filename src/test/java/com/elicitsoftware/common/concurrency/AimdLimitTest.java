@@ -0,0 +1,173 @@
+package com.elicitsoftware.common.concurrency;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the additive increase and multiplicative decrease of {@link AimdLimit}.
+ */
+public class AimdLimitTest {
+
+    /**
+     * Latency of a normal call in the tests, in nanoseconds.
+     */
+    private static final long RTT = 1_000_000L;
+
+    /**
+     * Test that a limit in full use grows while its calls succeed at normal latency.
+     */
+    @Test
+    public void testIncreaseWhileUsed() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(4, 1, 16, true, 2.0, 0.9);
+
+        for (int round = 0; round < 10; round++) {
+            runRound(limit, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() > 4, "Limit should grow while calls succeed, was " + limit.getLimit());
+    }
+
+    /**
+     * Test that the limit does not grow while it is barely used.
+     */
+    @Test
+    public void testNoIncreaseWhileIdle() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(8, 1, 32, true, 2.0, 0.9);
+
+        for (int round = 0; round < 100; round++) {
+            runRound(limit, 1, false);
+        }
+
+        assertEquals(8, limit.getLimit(), "A quiet period should not inflate the limit");
+    }
+
+    /**
+     * Test that the limit never grows above its maximum.
+     */
+    @Test
+    public void testIncreaseCappedAtMax() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(4, 1, 6, true, 2.0, 0.9);
+
+        for (int round = 0; round < 200; round++) {
+            runRound(limit, limit.getLimit(), false);
+        }
+
+        assertEquals(6, limit.getLimit(), "Limit should stop at its maximum");
+    }
+
+    /**
+     * Test that a failed call and a slow call each multiply the limit by the backoff ratio.
+     */
+    @Test
+    public void testBackoffOnFailureAndLatency() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(10, 1, 40, true, 2.0, 0.9);
+        // One normal call sets the average latency without raising a lightly used limit
+        runRound(limit, 1, false);
+        assertEquals(10, limit.getLimit());
+
+        TimeUnit.MILLISECONDS.sleep(5);
+        assertTrue(limit.tryAcquire(1, TimeUnit.SECONDS));
+        limit.release(RTT, true);
+        assertEquals(9, limit.getLimit(), "A failure should cut the limit to 90%");
+
+        TimeUnit.MILLISECONDS.sleep(5);
+        assertTrue(limit.tryAcquire(1, TimeUnit.SECONDS));
+        limit.release(RTT * 10, false);
+        assertEquals(8, limit.getLimit(), "A call above tolerance times the average should cut the limit again");
+    }
+
+    /**
+     * Test that a burst of failures within one average latency counts once.
+     */
+    @Test
+    public void testBackoffOncePerAverageLatency() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(10, 1, 40, true, 2.0, 0.9);
+        // A long average latency, so the burst below falls within one of them
+        assertTrue(limit.tryAcquire(1, TimeUnit.SECONDS));
+        limit.release(TimeUnit.SECONDS.toNanos(60), false);
+        TimeUnit.MILLISECONDS.sleep(5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(1, TimeUnit.SECONDS));
+            limit.release(RTT, true);
+        }
+
+        assertEquals(10, limit.getLimit(), "Failures within one average latency of the last cut should not cut again");
+    }
+
+    /**
+     * Test that repeated failures never take the limit below its minimum.
+     */
+    @Test
+    public void testBackoffFloor() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(8, 2, 32, true, 2.0, 0.5);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire(1, TimeUnit.SECONDS));
+            limit.release(RTT, true);
+        }
+
+        assertEquals(2, limit.getLimit(), "Limit should stop at its minimum");
+        assertEquals(0, limit.getInFlight());
+    }
+
+    /**
+     * Test that a fixed limit ignores the samples.
+     */
+    @Test
+    public void testFixedLimit() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(3, 1, 12, false, 2.0, 0.9);
+
+        for (int round = 0; round < 50; round++) {
+            runRound(limit, 3, round % 2 == 0);
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    /**
+     * Test that callers above the limit wait and time out.
+     */
+    @Test
+    public void testAcquireTimesOutAtLimit() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(1, 1, 1, true, 2.0, 0.9);
+
+        assertTrue(limit.tryAcquire(1, TimeUnit.SECONDS));
+        assertFalse(limit.tryAcquire(10, TimeUnit.MILLISECONDS), "Second call should wait for the first");
+        assertEquals(1, limit.getInFlight());
+
+        limit.release(RTT, false);
+        assertTrue(limit.tryAcquire(10, TimeUnit.MILLISECONDS), "Released permit should be available again");
+    }
+
+    /**
+     * Admits a number of concurrent calls and completes them all.
+     *
+     * @param limit the limit
+     * @param calls the number of calls, at most the current limit
+     * @param failed whether the calls fail
+     * @throws InterruptedException if interrupted
+     */
+    private static void runRound(AimdLimit limit, int calls, boolean failed) throws InterruptedException {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(limit.tryAcquire(1, TimeUnit.SECONDS), "Call within the limit should be admitted");
+        }
+        for (int i = 0; i < calls; i++) {
+            limit.release(RTT, failed);
+        }
+    }
+}
@@ -11,8 +11,12 @@ package com.elicitsoftware.familyhistory;
  * ***LICENSE_END***
  */
 
+import com.elicitsoftware.familyhistory.delivery.DeliveryFile;
 import com.jcraft.jsch.*;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -49,6 +53,9 @@ public class SftpServiceLogicTest {
             sftpChannel.cd("/upload/reports");
             System.out.println("✓ Changed to directory: /upload/reports");
             
+            // Test the temporary name, size check and rename used for every upload
+            testUploadProtocol(sftpChannel);
+            
             System.out.println("🎉 SftpService logic test PASSED!");
             
             // Clean up
@@ -61,6 +68,44 @@ public class SftpServiceLogicTest {
         }
     }
     
+    /**
+     * Uploads a file twice with the SftpService protocol: written under a hidden temporary
+     * name, its size checked, then renamed over the previous upload.
+     */
+    private static void testUploadProtocol(ChannelSftp sftpChannel) throws Exception {
+        String fileName = "sftp-logic-test.txt";
+        String temporaryName = SftpService.temporaryName(fileName);
+        if (!temporaryName.startsWith("." + fileName + ".") || !temporaryName.endsWith(".tmp")) {
+            throw new IllegalStateException("Unexpected temporary name: " + temporaryName);
+        }
+        System.out.println("✓ Temporary name is hidden: " + temporaryName);
+        System.out.println("✓ posix-rename supported: "
+                + SftpService.POSIX_RENAME_VERSION.equals(sftpChannel.getExtension(SftpService.POSIX_RENAME)));
+        
+        try {
+            for (String content : new String[] {"first upload", "second, longer upload"}) {
+                byte[] data = content.getBytes(StandardCharsets.UTF_8);
+                String temporary = SftpService.putVerified(sftpChannel, new DeliveryFile(fileName, data));
+                if (!SftpService.exists(sftpChannel, temporary)) {
+                    throw new IllegalStateException("Temporary file " + temporary + " was not written");
+                }
+                SftpService.publish(sftpChannel, temporary, fileName);
+                if (SftpService.exists(sftpChannel, temporary)) {
+                    throw new IllegalStateException("Temporary file " + temporary + " was not renamed");
+                }
+                
+                ByteArrayOutputStream published = new ByteArrayOutputStream();
+                sftpChannel.get(fileName, published);
+                if (!Arrays.equals(data, published.toByteArray())) {
+                    throw new IllegalStateException("Published file does not hold \"" + content + "\"");
+                }
+                System.out.println("✓ Published \"" + content + "\" (" + data.length + " bytes)");
+            }
+        } finally {
+            SftpService.removeQuietly(sftpChannel, fileName);
+        }
+    }
+    
     /**
      * Exact copy of the createAuthenticatedSession method from SftpService
      */
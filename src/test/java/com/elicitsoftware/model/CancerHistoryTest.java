@@ -0,0 +1,230 @@
+package com.elicitsoftware.model;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the bit set and age encoding of {@link CancerHistory}, its pedigree labels
+ * and the columns each {@link CancerType} reads.
+ */
+public class CancerHistoryTest {
+
+    /**
+     * Test that a new history has no cancer.
+     */
+    @Test
+    public void testEmpty() {
+        CancerHistory history = new CancerHistory();
+
+        assertTrue(history.isEmpty());
+        assertFalse(history.hasMultiple());
+        for (CancerType type : CancerType.values()) {
+            assertFalse(history.has(type), type.name());
+            assertFalse(history.isMultiple(type), type.name());
+        }
+        StringBuilder label = new StringBuilder();
+        history.appendPedigreeLabel(label);
+        assertEquals("", label.toString());
+    }
+
+    /**
+     * Test that every cancer type has a bit of its own, in both bit sets.
+     */
+    @Test
+    public void testEveryTypeHasItsOwnBit() {
+        for (CancerType recorded : CancerType.values()) {
+            CancerHistory history = new CancerHistory();
+            history.record(recorded, 40 + recorded.ordinal(), true);
+
+            for (CancerType type : CancerType.values()) {
+                assertEquals(type == recorded, history.has(type), recorded + " set " + type);
+                assertEquals(type == recorded, history.isMultiple(type), recorded + " set multiple " + type);
+            }
+            assertEquals(40 + recorded.ordinal(), history.getAge(recorded));
+            assertFalse(history.isEmpty());
+            assertTrue(history.hasMultiple());
+        }
+
+        CancerHistory all = new CancerHistory();
+        for (CancerType type : CancerType.values()) {
+            all.record(type, type.ordinal(), false);
+        }
+        for (CancerType type : CancerType.values()) {
+            assertTrue(all.has(type), type.name());
+            assertEquals(type.ordinal(), all.getAge(type));
+        }
+        assertFalse(all.hasMultiple());
+    }
+
+    /**
+     * Test that missing and out of range ages are stored as unknown.
+     */
+    @Test
+    public void testAgeEncoding() {
+        CancerHistory history = new CancerHistory();
+
+        history.record(CancerType.BREAST, null, false);
+        assertEquals(CancerHistory.UNKNOWN_AGE, history.getAge(CancerType.BREAST));
+        history.record(CancerType.BREAST, -3, false);
+        assertEquals(CancerHistory.UNKNOWN_AGE, history.getAge(CancerType.BREAST));
+        history.record(CancerType.BREAST, Short.MAX_VALUE + 1, false);
+        assertEquals(CancerHistory.UNKNOWN_AGE, history.getAge(CancerType.BREAST));
+        history.record(CancerType.BREAST, 0, false);
+        assertEquals(0, history.getAge(CancerType.BREAST));
+        history.record(CancerType.BREAST, 104, false);
+        assertEquals(104, history.getAge(CancerType.BREAST));
+    }
+
+    /**
+     * Test that the last diagnosis recorded for a type wins, including its multiple flag.
+     */
+    @Test
+    public void testLastRecordWins() {
+        CancerHistory history = new CancerHistory();
+
+        history.record(CancerType.LUNG, 50, true);
+        history.record(CancerType.LUNG, 52, false);
+
+        assertTrue(history.has(CancerType.LUNG));
+        assertFalse(history.isMultiple(CancerType.LUNG));
+        assertFalse(history.hasMultiple());
+        assertEquals(52, history.getAge(CancerType.LUNG));
+    }
+
+    /**
+     * Test the label order and markers: {@link CancerType} order with other cancers last,
+     * {@code *} for multiple cancers and {@code unk. age} for unknown ages.
+     */
+    @Test
+    public void testPedigreeLabel() {
+        CancerHistory history = new CancerHistory();
+        history.record(CancerType.OTHER, null, true);
+        history.setOtherName("Brain");
+        history.record(CancerType.UNKNOWN, 80, false);
+        history.record(CancerType.THYROID, 40, false);
+        history.record(CancerType.BREAST, 42, true);
+        history.record(CancerType.BLADDER, 78, false);
+
+        StringBuilder label = new StringBuilder();
+        history.appendPedigreeLabel(label);
+
+        assertEquals("Bladder 78; Breast* 42; Thyroid 40; Unknown 80; Other (Brain)* unk. age", label.toString());
+    }
+
+    /**
+     * Test that an other cancer without a name is labelled without a qualifier.
+     */
+    @Test
+    public void testOtherCancerWithoutName() {
+        CancerHistory history = new CancerHistory();
+        history.record(CancerType.OTHER, 50, false);
+        history.setOtherName(null);
+
+        StringBuilder label = new StringBuilder();
+        history.appendPedigreeLabel(label);
+
+        assertEquals("", history.getOtherName());
+        assertEquals("Other 50", label.toString());
+    }
+
+    /**
+     * Test that a named other cancer counts as a cancer even without a diagnosis bit.
+     */
+    @Test
+    public void testOtherNameAlone() {
+        CancerHistory history = new CancerHistory();
+        history.setOtherName("Brain");
+
+        assertFalse(history.isEmpty());
+        assertFalse(history.has(CancerType.OTHER));
+    }
+
+    /**
+     * Test that multiple cancers of any type, including testicular cancer, mark the member
+     * and the family as having multiple cancers.
+     */
+    @Test
+    public void testMultipleCancers() {
+        for (CancerType type : CancerType.values()) {
+            FamilyMember member = new FamilyMember();
+            member.cancerHistory.record(type, 30, true);
+
+            assertTrue(member.hasMultipleCancers(), type.name());
+            assertTrue(new Family(List.of(member)).hasMultipleCancers(), type.name());
+        }
+
+        FamilyMember single = new FamilyMember();
+        single.cancerHistory.record(CancerType.TESTICULAR, 30, false);
+        assertFalse(single.hasMultipleCancers());
+    }
+
+    /**
+     * Test that every cancer type reads its own diagnosis, age and multiple columns.
+     */
+    @Test
+    public void testCancerTypeColumns() {
+        for (CancerType type : CancerType.values()) {
+            FamilyHistoryRecord record = FamilyHistoryRecords.row("Mother", null)
+                    .cancer(type, "true", 20 + type.ordinal(), "true").build();
+
+            for (CancerType other : CancerType.values()) {
+                boolean same = other == type;
+                assertEquals(same ? "true" : null, other.diagnosis(record), type + " read as " + other);
+                assertEquals(same ? Integer.valueOf(20 + type.ordinal()) : null, other.age(record), type + " age read as " + other);
+                assertEquals(same && type != CancerType.UNKNOWN ? "true" : null, other.multiple(record),
+                        type + " multiple read as " + other);
+            }
+        }
+        assertNull(CancerType.UNKNOWN.getMultipleReportLabel());
+        assertEquals("Multiple Testicular Cancers", CancerType.TESTICULAR.getMultipleReportLabel());
+    }
+
+    /**
+     * Test the answers that count as a diagnosis and the multiple flag read by the builder.
+     */
+    @Test
+    public void testDiagnosisAnswers() {
+        Family family = FamilyBuilder.of(List.of(
+                FamilyHistoryRecords.row("Proband", null).person("Female", 40, "Alive")
+                        .cancer(CancerType.BREAST, " Yes ", 38, "TRUE")
+                        .cancer(CancerType.LUNG, "unknown", null, "yes")
+                        .cancer(CancerType.COLON_RECTAL, "false", 30, "true")
+                        .cancer(CancerType.THYROID, "", 30, "true")
+                        .cancer(CancerType.OVARIAN, "no", 30, "true").build()));
+
+        CancerHistory history = proband(family).cancerHistory;
+        assertTrue(history.has(CancerType.BREAST));
+        assertTrue(history.isMultiple(CancerType.BREAST));
+        assertEquals(38, history.getAge(CancerType.BREAST));
+        assertTrue(history.has(CancerType.LUNG));
+        assertFalse(history.isMultiple(CancerType.LUNG));
+        assertEquals(CancerHistory.UNKNOWN_AGE, history.getAge(CancerType.LUNG));
+        assertFalse(history.has(CancerType.COLON_RECTAL));
+        assertFalse(history.has(CancerType.THYROID));
+        assertFalse(history.has(CancerType.OVARIAN));
+    }
+
+    /**
+     * Finds the proband of a family.
+     *
+     * @param family the family
+     * @return the proband
+     */
+    private static FamilyMember proband(Family family) {
+        return family.family.stream().filter(member -> member.ID == 7).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,228 @@
+package com.elicitsoftware.model;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FamilyBuilder}. The expected pedigrees were produced by the
+ * request scoped {@code FamilyManager} that the builder replaced.
+ */
+public class FamilyBuilderTest {
+
+    /**
+     * Pedigree rows of {@link FamilyHistoryRecords#extendedFamily()}.
+     */
+    private static final String[] EXTENDED_FAMILY = {
+            "1\t-3\t1\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tUnknown\t",
+            "1\t-2\t2\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tUnknown_Mother\t",
+            "1\t-1\t1\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tUnknown_Father\t",
+            "1\t1\t1\tNA\tNA\ttrue\tfalse\ttrue\tFALSE\tGrandfather\tLung 66",
+            "1\t2\t2\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tGrandmother\t",
+            "1\t3\t1\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tGrandfather\t",
+            "1\t4\t2\tNA\tNA\ttrue\tfalse\ttrue\tFALSE\tGrandmother (Age 91)\tUnknown 80",
+            "1\t5\t1\t1\t2\tfalse\tfalse\ttrue\tFALSE\tFather (Age 74)\tProstate 70; Other (Mélanome oculaire)* unk. age",
+            "1\t6\t2\t3\t4\ttrue\tfalse\ttrue\tFALSE\tMother (Age 70)\tOvarian 61",
+            "1\t7\t2\t5\t6\tfalse\ttrue\ttrue\tFALSE\tRespondent (Proband) (Age 45)\tBreast* 42; Uterine unk. age",
+            "1\t8\t1\t-3\t7\tfalse\tfalse\tfalse\tFALSE\tChild_1 (Age 20)\t",
+            "1\t9\t2\t-3\t7\tfalse\tfalse\ttrue\tFALSE\tChild_2 (Age 17)\tLeukemia 5",
+            "1\t10\t1\t5\t6\tfalse\tfalse\ttrue\tFALSE\tSibling_1 (Age 48)\tTesticular* 30",
+            "1\t11\t2\t5\t-2\tfalse\tfalse\tfalse\tFALSE\tSibling_2 (Age 40)\t",
+            "1\t12\t1\t-1\t6\ttrue\tfalse\ttrue\tFALSE\tSibling_3 (Age 38)\tMelanoma 35; Non-Melanoma unk. age",
+            "1\t13\t1\t3\t4\tfalse\tfalse\ttrue\tFALSE\tUncle_1 (Age 72)\tKidney 64",
+            "1\t14\t2\t3\t4\tfalse\tfalse\ttrue\tFALSE\tAunt_1 (Age 68)\tBreast* 55; Thyroid 40",
+            "1\t15\t3\t1\t2\ttrue\tfalse\ttrue\tFALSE\tSibling_1 (Age 77)\tPancreatic 75; Stomach 60",
+            "1\t16\t2\t1\t2\tfalse\tfalse\ttrue\tFALSE\tAunt_1 (Age 80)\tBladder 78; Lymphoma 45; Oral 70",
+    };
+
+    /**
+     * Pedigree rows of {@link FamilyHistoryRecords#fatherOnly()}.
+     */
+    private static final String[] FATHER_ONLY = {
+            "1\t-4\t2\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tUnknown\t",
+            "1\t5\t1\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tFather\t",
+            "1\t6\t2\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tMother\t",
+            "1\t7\t1\t5\t6\tfalse\ttrue\ttrue\tFALSE\tRespondent (Proband) (Age 33)\tTesticular 28",
+            "1\t8\t2\t7\t-4\tfalse\tfalse\tfalse\tFALSE\tChild_1 (Age 2)\t",
+    };
+
+    /**
+     * Pedigree rows of {@link FamilyHistoryRecords#otherGenderParent()}.
+     */
+    private static final String[] OTHER_GENDER_PARENT = {
+            "1\t-3\t1\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tUnknown\t",
+            "1\t3\t1\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tGrandfather\t",
+            "1\t4\t2\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tGrandmother\t",
+            "1\t5\t1\tNA\tNA\tfalse\tfalse\tfalse\tFALSE\tFather\t",
+            "1\t6\t2\t3\t4\tfalse\tfalse\tfalse\tFALSE\tMother\t",
+            "1\t7\t2\t5\t6\tfalse\ttrue\tfalse\tFALSE\tRespondent (Proband) (Age 29)\t",
+            "1\t8\t1\t-3\t7\tfalse\tfalse\tfalse\tFALSE\tChild_1 (Age 1)\t",
+            "1\t9\t2\t3\t4\tfalse\tfalse\ttrue\tFALSE\tAunt_1 (Age 50)\tBreast 48",
+    };
+
+    /**
+     * Test that the builder reproduces the pedigrees of the replaced FamilyManager.
+     */
+    @Test
+    public void testMatchesFamilyManagerOutput() {
+        Family extended = FamilyBuilder.of(FamilyHistoryRecords.extendedFamily());
+        Family fatherOnly = FamilyBuilder.of(FamilyHistoryRecords.fatherOnly());
+        Family otherGender = FamilyBuilder.of(FamilyHistoryRecords.otherGenderParent());
+
+        assertEquals(pedigree(EXTENDED_FAMILY), extended.toString());
+        assertEquals(pedigree(FATHER_ONLY), fatherOnly.toString());
+        assertEquals(pedigree(OTHER_GENDER_PARENT), otherGender.toString());
+        assertTrue(extended.hasMultipleCancers());
+        assertFalse(fatherOnly.hasMultipleCancers());
+        assertFalse(otherGender.hasMultipleCancers());
+    }
+
+    /**
+     * Test that {@link FamilyManager#getFamily(long)} reads the respondent's records on every
+     * call and builds a new family from them each time.
+     */
+    @Test
+    public void testFamilyManagerReadsAndBuilds() {
+        List<Long> requested = new ArrayList<>();
+        FamilyManager manager = new FamilyManager();
+        manager.cancerHistoryRepository = new CancerHistoryRepository() {
+            @Override
+            public List<FamilyHistoryRecord> findFamilyHistoryByRespondentId(long respondentId) {
+                requested.add(respondentId);
+                return FamilyHistoryRecords.extendedFamily();
+            }
+        };
+
+        Family first = manager.getFamily(42L);
+        Family second = manager.getFamily(42L);
+
+        assertEquals(List.of(42L, 42L), requested);
+        assertEquals(pedigree(EXTENDED_FAMILY), first.toString());
+        assertEquals(pedigree(EXTENDED_FAMILY), second.toString());
+        assertNotSame(first.family.get(0), second.family.get(0));
+    }
+
+    /**
+     * Test that adding the records in several calls builds the same family as adding them
+     * at once.
+     */
+    @Test
+    public void testIncrementalAdd() {
+        List<FamilyHistoryRecord> rows = FamilyHistoryRecords.extendedFamily();
+
+        Family family = new FamilyBuilder()
+                .add(rows.subList(0, 5))
+                .add(rows.subList(5, 11))
+                .add(rows.subList(11, rows.size()))
+                .build();
+
+        assertEquals(pedigree(EXTENDED_FAMILY), family.toString());
+    }
+
+    /**
+     * Test that families built from the same records share no members.
+     */
+    @Test
+    public void testIndependentBuilds() {
+        Family first = FamilyBuilder.of(FamilyHistoryRecords.extendedFamily());
+        Family second = FamilyBuilder.of(FamilyHistoryRecords.extendedFamily());
+
+        Set<FamilyMember> members = Collections.newSetFromMap(new IdentityHashMap<>());
+        members.addAll(first.family);
+        for (FamilyMember member : second.family) {
+            assertFalse(members.contains(member), "shared member " + member.ID);
+        }
+        assertEquals(first.toString(), second.toString());
+    }
+
+    /**
+     * Test that families built concurrently are all the same.
+     *
+     * @throws Exception if a build fails
+     */
+    @Test
+    public void testConcurrentBuilds() throws Exception {
+        String expected = pedigree(EXTENDED_FAMILY);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> FamilyBuilder.of(FamilyHistoryRecords.extendedFamily()).toString()));
+            }
+            for (Future<String> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that a builder builds a single family.
+     */
+    @Test
+    public void testSingleUse() {
+        FamilyBuilder builder = new FamilyBuilder().add(FamilyHistoryRecords.fatherOnly());
+        builder.build();
+
+        assertThrows(IllegalStateException.class, builder::build);
+        assertThrows(IllegalStateException.class, () -> builder.add(FamilyHistoryRecords.fatherOnly()));
+    }
+
+    /**
+     * Test that records without a proband are rejected.
+     */
+    @Test
+    public void testMissingProband() {
+        List<FamilyHistoryRecord> rows = List.of(
+                FamilyHistoryRecords.row("Mother", null).person("Female", 60, "Alive").build());
+
+        assertThrows(IllegalStateException.class, () -> FamilyBuilder.of(rows));
+        assertThrows(IllegalStateException.class, () -> FamilyBuilder.of(List.of()));
+    }
+
+    /**
+     * Test that the built family cannot be modified.
+     */
+    @Test
+    public void testUnmodifiable() {
+        Family family = FamilyBuilder.of(FamilyHistoryRecords.fatherOnly());
+
+        assertThrows(UnsupportedOperationException.class, () -> family.family.add(new FamilyMember()));
+        assertThrows(UnsupportedOperationException.class, () -> family.family.remove(0));
+    }
+
+    /**
+     * Joins pedigree rows below the header, each followed by a line separator.
+     *
+     * @param rows the rows
+     * @return the pedigree TSV
+     */
+    private static String pedigree(String[] rows) {
+        StringBuilder sb = new StringBuilder(PedigreeWriter.HEADER).append(System.lineSeparator());
+        for (String row : rows) {
+            sb.append(row).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.elicitsoftware.model;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import java.util.List;
+
+/**
+ * The sample families shared by the model tests.
+ */
+final class FamilyHistoryRecords {
+
+    /**
+     * Not instantiated.
+     */
+    private FamilyHistoryRecords() {
+    }
+
+    /**
+     * Starts a record of a survey step.
+     *
+     * @param step the survey step, e.g. {@code Mother} or {@code Sibling}
+     * @param stepInstance the step instance, {@code null} for single steps
+     * @return the record builder
+     */
+    static FamilyHistoryRecord.Builder row(String step, String stepInstance) {
+        return FamilyHistoryRecord.builder(step, stepInstance);
+    }
+
+    /**
+     * A three generation family: a female proband with children, full and half siblings,
+     * aunts and uncles on both sides, and one missing paternal grandparent. The answers
+     * use every spelling accepted as a diagnosis.
+     *
+     * @return the records, in the order the survey returns them
+     */
+    static List<FamilyHistoryRecord> extendedFamily() {
+        return List.of(
+                row("Demographics", null).person("Female", 45, "Alive").build(),
+                row("Proband Cancer", null)
+                        .cancer(CancerType.BREAST, "true", 42, "true")
+                        .cancer(CancerType.ENDOMETRIAL_UTERINE, "unknown", null, "false").build(),
+                row("Mother", null).person("Female", 70, "Deceased")
+                        .cancer(CancerType.OVARIAN, "Yes", 61, null).build(),
+                row("Father", null).person("Male", 74, "Alive")
+                        .cancer(CancerType.PROSTATE, "y", 70, "false")
+                        .cancer(CancerType.OTHER, "1", null, "true").otherCancerName("Mélanome oculaire").build(),
+                row("Maternal Grandmother", null).person("Female", 91, "Deceased")
+                        .cancer(CancerType.UNKNOWN, "true", 80, null).build(),
+                row("Paternal Grandfather", null).person("Male", null, "Deceased")
+                        .cancer(CancerType.LUNG, "true", 66, "false")
+                        .cancer(CancerType.COLON_RECTAL, "false", 50, "true").build(),
+                row("Child", "1").person("Male", 20, "Alive").build(),
+                row("Child", "2").person("Female", 17, "Alive")
+                        .cancer(CancerType.LEUKEMIA, "true", 5, "false").build(),
+                row("Sibling", "1").person("Male", 48, "Alive")
+                        .cancer(CancerType.TESTICULAR, "true", 30, "true").build(),
+                row("Sibling", "2").person("Female", 40, "Alive").sharedParent("father").build(),
+                row("Sibling", "3").person("Male", 38, "Deceased").sharedParent("mother")
+                        .cancer(CancerType.MELANOMA, "true", 35, "false")
+                        .cancer(CancerType.NON_MELANOMA, "true", null, "false").build(),
+                row("Mother's Sibling", "1").person("Male", 72, "Alive")
+                        .cancer(CancerType.KIDNEY_RENAL_CELL, "true", 64, "false").build(),
+                row("Mother's Sibling", "2").person("Female", 68, "Alive")
+                        .cancer(CancerType.BREAST, "true", 55, "true")
+                        .cancer(CancerType.THYROID, "true", 40, "false").build(),
+                row("Father's Sibling", "1").person("Other", 77, "Deceased")
+                        .cancer(CancerType.PANCREATIC, "true", 75, "false")
+                        .cancer(CancerType.STOMACH, "true", 60, "false").build(),
+                row("Father's Sibling", "2").person("Female", 80, "Alive")
+                        .cancer(CancerType.ORAL_THROAT, "true", 70, "false")
+                        .cancer(CancerType.LYMPHOMA, "true", 45, "false")
+                        .cancer(CancerType.BLADDER, "true", 78, "false").build(),
+                row("Summary", null).build());
+    }
+
+    /**
+     * A male proband with a child and no parents or grandparents in the records.
+     *
+     * @return the records
+     */
+    static List<FamilyHistoryRecord> fatherOnly() {
+        return List.of(
+                row("Proband", null).person("Male", 33, "Alive")
+                        .cancer(CancerType.TESTICULAR, "true", 28, "false").build(),
+                row("Child", "1").person("Female", 2, "Alive").build());
+    }
+
+    /**
+     * A proband of other gender with a child, only their mother's side of the family known.
+     *
+     * @return the records
+     */
+    static List<FamilyHistoryRecord> otherGenderParent() {
+        return List.of(
+                row("Proband", null).person("Other", 29, "Alive").build(),
+                row("Child", "1").person("Male", 1, "Alive").build(),
+                row("Mother's Sibling", "1").person("Female", 50, "Alive")
+                        .cancer(CancerType.BREAST, "true", 48, "false").build());
+    }
+}
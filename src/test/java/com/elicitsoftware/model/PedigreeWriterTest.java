@@ -0,0 +1,284 @@
+package com.elicitsoftware.model;
+
+/*-
+ * ***LICENSE_START***
+ * Elicit FHHS
+ * %%
+ * Copyright (C) 2025 The Regents of the University of Michigan - Rogel Cancer Center
+ * %%
+ * PolyForm Noncommercial License 1.0.0
+ * <https://polyformproject.org/licenses/noncommercial/1.0.0>
+ * ***LICENSE_END***
+ */
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PedigreeWriter}, comparing its UTF-8 output with the pedigree
+ * text built as a {@link String} before the writer existed.
+ */
+public class PedigreeWriterTest {
+
+    /**
+     * Multipart boundary used by the tests.
+     */
+    private static final String BOUNDARY = "----PedigreeBoundary42";
+
+    /**
+     * Member ID of the proband.
+     */
+    private static final int PROBAND_ID = 7;
+
+    /**
+     * Test that the published bytes of each sample family equal the UTF-8 encoding of the
+     * pedigree text built as a String.
+     */
+    @Test
+    public void testFamilyMatchesStringPath() {
+        for (List<FamilyHistoryRecord> rows : List.of(FamilyHistoryRecords.extendedFamily(),
+                FamilyHistoryRecords.fatherOnly(), FamilyHistoryRecords.otherGenderParent())) {
+            Family family = FamilyBuilder.of(rows);
+            PedigreeWriter writer = new PedigreeWriter().writeFamily(family);
+
+            byte[] expected = legacyFamily(family).getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(expected, publishedBytes(writer.bodyPublisher()));
+            assertEquals(expected.length, writer.size());
+            assertEquals(legacyFamily(family), writer.toString());
+        }
+    }
+
+    /**
+     * Test that names and cancer labels outside ASCII, including supplementary characters,
+     * are encoded like {@link String#getBytes(java.nio.charset.Charset)} with tabs and line
+     * breaks replaced.
+     */
+    @Test
+    public void testNonAsciiMember() {
+        FamilyMember member = new FamilyMember();
+        member.ID = 12;
+        member.Sex = 2;
+        member.Momid = 6;
+        member.Age = "31";
+        member.name = "  Zoë\tÅsa 🎗\r\nΣίσσυ ";
+        member.cancerHistory.record(CancerType.OTHER, 29, true);
+        member.cancerHistory.setOtherName("Mélanome\toculaire");
+        Family family = new Family(List.of(member));
+
+        PedigreeWriter writer = new PedigreeWriter().writeFamily(family);
+
+        String expected = legacyFamily(family);
+        assertTrue(expected.contains("Zoë Åsa 🎗  Σίσσυ  (Age 31)\tOther (Mélanome oculaire)* 29"), expected);
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), publishedBytes(writer.bodyPublisher()));
+        assertEquals(legacyRow(member), member.toString());
+    }
+
+    /**
+     * Test that the multipart body equals the one built as a String and that the returned
+     * length is the byte length of the pedigree TSV alone.
+     */
+    @Test
+    public void testMultipartFile() {
+        Family family = FamilyBuilder.of(FamilyHistoryRecords.extendedFamily());
+        PedigreeWriter writer = new PedigreeWriter();
+
+        int payloadLength = writer.writeMultipartFile(BOUNDARY, "ped", family);
+
+        String tsv = legacyFamily(family);
+        String expected = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"ped\"; filename=\"ped\"\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Transfer-Encoding: binary\r\n\r\n"
+                + tsv + "\r\n"
+                + "--" + BOUNDARY + "--\r\n";
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), publishedBytes(writer.bodyPublisher()));
+        assertEquals(tsv.getBytes(StandardCharsets.UTF_8).length, payloadLength);
+        assertTrue(payloadLength > tsv.length(), "the sample family has multi-byte characters");
+    }
+
+    /**
+     * Test that integers are written like {@link Integer#toString(int)}.
+     */
+    @Test
+    public void testWriteInt() {
+        for (int value : new int[]{0, 7, -1, -42, 10, 1_000_000, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            PedigreeWriter writer = new PedigreeWriter();
+            writer.write('[').write(value).write(']');
+            assertEquals("[" + value + "]", writer.toString());
+        }
+    }
+
+    /**
+     * Test that booleans and single characters are written like {@link String#valueOf}.
+     */
+    @Test
+    public void testWriteBooleanAndChar() {
+        PedigreeWriter writer = new PedigreeWriter();
+        writer.write(true).write('\t').write(false).write('é').write('€');
+
+        assertEquals("true\tfalseé€", writer.toString());
+        assertEquals("true\tfalseé€".getBytes(StandardCharsets.UTF_8).length, writer.size());
+    }
+
+    /**
+     * Test that free-text fields are trimmed, have tabs and line breaks replaced and are
+     * dropped when blank.
+     */
+    @Test
+    public void testWriteSanitized() {
+        PedigreeWriter writer = new PedigreeWriter();
+
+        writer.writeSanitized(null).writeSanitized("").writeSanitized(" \t  ");
+        assertEquals(0, writer.size());
+
+        writer.writeSanitized("\n a\tb\r\nc ");
+        assertEquals("a b  c", writer.toString());
+    }
+
+    /**
+     * Test that an unpaired surrogate is written as {@code ?}, as {@link String#getBytes}
+     * does.
+     */
+    @Test
+    public void testUnpairedSurrogate() {
+        String value = "a\uD83Cb\uDF97";
+        PedigreeWriter writer = new PedigreeWriter().write(value);
+
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), publishedBytes(writer.bodyPublisher()));
+        assertEquals("a?b?", writer.toString());
+    }
+
+    /**
+     * Test that the writer of the current thread is reused, emptied, and grows as needed.
+     */
+    @Test
+    public void testAcquireAndReset() {
+        PedigreeWriter writer = PedigreeWriter.acquire();
+        writer.write("stale");
+
+        PedigreeWriter again = PedigreeWriter.acquire();
+        assertSame(writer, again);
+        assertEquals(0, again.size());
+
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            large.append("ü");
+        }
+        again.write(large);
+        assertEquals(20_000, again.size());
+        assertEquals(large.toString(), again.toString());
+
+        again.reset();
+        assertEquals("x", again.write("x").toString());
+        assertEquals(1, again.size());
+    }
+
+    /**
+     * Builds the pedigree TSV of a family as a String, the way it was built before
+     * {@link PedigreeWriter}.
+     *
+     * @param family the family
+     * @return the pedigree TSV
+     */
+    private static String legacyFamily(Family family) {
+        StringBuilder sb = new StringBuilder(PedigreeWriter.HEADER).append(System.lineSeparator());
+        for (FamilyMember member : family.family) {
+            sb.append(legacyRow(member));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds one pedigree row as a String, the way it was built before {@link PedigreeWriter}.
+     *
+     * @param member the family member
+     * @return the row, with its line separator
+     */
+    private static String legacyRow(FamilyMember member) {
+        boolean hasCancer = !member.cancerHistory.isEmpty();
+        StringBuilder displayId = new StringBuilder();
+        if (member.ID == PROBAND_ID) {
+            displayId.append("Respondent (Proband)");
+        } else {
+            displayId.append(member.name == null || member.name.isBlank() ? "Unknown" : member.name);
+        }
+        if (member.Age != null && !member.Age.isEmpty()) {
+            displayId.append(" (Age ").append(member.Age).append(")");
+        }
+        StringBuilder cancerLabel = new StringBuilder();
+        if (!member.unknown && hasCancer) {
+            member.cancerHistory.appendPedigreeLabel(cancerLabel);
+        }
+        return 1 + "\t"
+                + member.ID + "\t"
+                + member.Sex + "\t"
+                + (member.Dadid == 0 ? "NA" : Integer.toString(member.Dadid)) + "\t"
+                + (member.Momid == 0 ? "NA" : Integer.toString(member.Momid)) + "\t"
+                + (member.Status == 1) + "\t"
+                + (member.ID == PROBAND_ID) + "\t"
+                + hasCancer + "\t"
+                + "FALSE\t"
+                + legacySanitize(displayId.toString()) + "\t"
+                + legacySanitize(cancerLabel.toString())
+                + System.lineSeparator();
+    }
+
+    /**
+     * Sanitizes a free-text field the way it was done before {@link PedigreeWriter}.
+     *
+     * @param value the field
+     * @return the sanitized field
+     */
+    private static String legacySanitize(String value) {
+        if (value == null || value.isBlank()) {
+            return "";
+        }
+        return value.replace('\t', ' ').replace('\r', ' ').replace('\n', ' ').trim();
+    }
+
+    /**
+     * Collects the bytes a body publisher sends.
+     *
+     * @param publisher the publisher
+     * @return the bytes
+     */
+    private static byte[] publishedBytes(HttpRequest.BodyPublisher publisher) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Throwable> errors = new ArrayList<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                errors.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                // Nothing more to collect
+            }
+        });
+        assertEquals(List.of(), errors);
+        assertEquals(publisher.contentLength(), (long) out.size());
+        return out.toByteArray();
+    }
+}